@@ -0,0 +1,113 @@
+package com.criando.projeto.benchmark;
+
+import com.criando.projeto.CursoApplication;
+import com.criando.projeto.queryFIlters.ProductQueryFilter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Sobe a aplicação (perfil test, H2 em memória) para os benchmarks usarem os beans reais
+// e popula o banco direto via JDBC em lotes, bem mais rápido que pelo JPA.
+public final class BenchmarkContext {
+
+    // Ids altos para não colidir com os registros criados pelo TestConfig/AdminInitializer
+    public static final long USER_ID_BASE = 1_000_000L;
+    public static final long ORDER_ID_BASE = 10_000_000L;
+    public static final long PRODUCT_ID_BASE = 1_000_000L;
+    public static final String[] PRODUCT_NOUNS = {"Mesa", "Cadeira", "Mochila", "Notebook", "Cabo", "Fone",
+            "Teclado", "Monitor", "Livro", "Camiseta"};
+    public static final String[] PRODUCT_ADJECTIVES = {"Azul", "Preta", "Couro", "Gamer", "Slim", "Pro"};
+    private static final int BATCH_SIZE = 10_000;
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String database, String... extraProperties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=test",
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        for (String property : extraProperties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(CursoApplication.class).run(args.toArray(String[]::new));
+    }
+
+    // Cria "users" clientes e "orders" pedidos distribuídos entre eles (pedido i pertence ao cliente i % users)
+    public static void seedOrders(JdbcTemplate jdbcTemplate, int users, int orders) {
+        List<Object[]> userRows = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            long id = USER_ID_BASE + i;
+            userRows.add(new Object[]{id, "Cliente " + i, userEmail(i), "11999999999", "senha", "USER"});
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into tb_user (id, name, email, phone, password, role) values (?, ?, ?, ?, ?, ?)", userRows);
+
+        Timestamp moment = Timestamp.from(Instant.parse("2024-01-01T00:00:00Z"));
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < orders; i++) {
+            batch.add(new Object[]{ORDER_ID_BASE + i, moment, 1 + (i % 3), USER_ID_BASE + (i % users)});
+            if (batch.size() == BATCH_SIZE || i == orders - 1) {
+                jdbcTemplate.batchUpdate(
+                        "insert into tb_order (id, moment, order_status, client_id) values (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // Cria "products" produtos "<substantivo> <adjetivo> <n>" nas categorias do TestConfig (ids 1 a 3)
+    public static void seedProducts(JdbcTemplate jdbcTemplate, int products) {
+        List<Object[]> productRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> categoryRows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < products; i++) {
+            long id = PRODUCT_ID_BASE + i;
+            String name = productName(i);
+            productRows.add(new Object[]{id, name, "Descrição do produto " + name, 1_000L + i % 100_000});
+            categoryRows.add(new Object[]{id, 1 + i % 3});
+            if (productRows.size() == BATCH_SIZE || i == products - 1) {
+                jdbcTemplate.batchUpdate(
+                        "insert into tb_product (id, name, description, price_cents) values (?, ?, ?, ?)", productRows);
+                jdbcTemplate.batchUpdate(
+                        "insert into tb_product_category (product_id, category_id) values (?, ?)", categoryRows);
+                productRows.clear();
+                categoryRows.clear();
+            }
+        }
+    }
+
+    // Monta o ProductQueryFilter a partir da query string do GET /products (ex.: "name=Mesa&maxPrice=10.5")
+    public static ProductQueryFilter productFilter(String query) {
+        ProductQueryFilter filter = new ProductQueryFilter();
+        if (query.isEmpty()) {
+            return filter;
+        }
+        for (String parameter : query.split("&")) {
+            String[] pair = parameter.split("=");
+            switch (pair[0]) {
+                case "name" -> filter.setName(pair[1]);
+                case "categoryName" -> filter.setCategoryName(pair[1]);
+                case "minPrice" -> filter.setMinPrice(Double.valueOf(pair[1]));
+                case "maxPrice" -> filter.setMaxPrice(Double.valueOf(pair[1]));
+                default -> throw new IllegalArgumentException(parameter);
+            }
+        }
+        return filter;
+    }
+
+    public static String productName(int index) {
+        return PRODUCT_NOUNS[index % PRODUCT_NOUNS.length] + " "
+                + PRODUCT_ADJECTIVES[index % PRODUCT_ADJECTIVES.length] + " " + index;
+    }
+
+    public static String userEmail(int index) {
+        return "cliente" + index + "@benchmark.com";
+    }
+}
@@ -0,0 +1,94 @@
+package com.criando.projeto.benchmark;
+
+import com.criando.projeto.entities.Order;
+import com.criando.projeto.entities.OrderItem;
+import com.criando.projeto.entities.Product;
+import com.criando.projeto.entities.User;
+import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.entities.enums.UserRole;
+import com.criando.projeto.repositories.OrderItemRepository;
+import com.criando.projeto.repositories.OrderRepository;
+import com.criando.projeto.repositories.ProductRepository;
+import com.criando.projeto.repositories.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Vazão de INSERT em cargas de 10 mil linhas pelo JPA, com e sem lotes JDBC (hibernate.jdbc.batch_size=1 desliga os lotes).
+// O resultado é em linhas por segundo.
+// mvn -Pjmh test-compile exec:exec -Djmh.args="BulkInsertBenchmark"
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class BulkInsertBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private OrderItemRepository orderItemRepository;
+    private ProductRepository productRepository;
+    private TransactionTemplate transactionTemplate;
+    private User client;
+    private List<Product> products;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("bulkinsert" + batchSize,
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        orderRepository = context.getBean(OrderRepository.class);
+        orderItemRepository = context.getBean(OrderItemRepository.class);
+        productRepository = context.getBean(ProductRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        client = context.getBean(UserRepository.class)
+                .save(new User(null, "Cliente Bulk", "bulk@benchmark.com", "11999999999", "senha", UserRole.USER));
+        // Cada item de um pedido precisa de um produto diferente (a chave é pedido + produto)
+        products = productRepository.saveAll(newProducts());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Um pedido com 10 mil itens: o caminho do OrderServices.insert (orderItemRepository.saveAll)
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int orderItems() {
+        return transactionTemplate.execute(status -> {
+            Order order = orderRepository.save(new Order(null, Instant.now(), OrderStatus.WAITING_PAYMENT, client));
+            List<OrderItem> items = new ArrayList<>(ROWS);
+            for (Product product : products) {
+                items.add(new OrderItem(order, product, 1));
+            }
+            return orderItemRepository.saveAll(items).size();
+        });
+    }
+
+    // 10 mil produtos novos: ids vindos da sequence pooled (uma ida ao banco a cada 50 ids)
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int products() {
+        return productRepository.saveAll(newProducts()).size();
+    }
+
+    private static List<Product> newProducts() {
+        List<Product> list = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            list.add(new Product(null, "Produto " + i, "Carga em lote", 10.0 + i % 100));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,71 @@
+package com.criando.projeto.benchmark;
+
+import com.criando.projeto.entities.Order;
+import com.criando.projeto.entities.Payment;
+import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.entities.enums.PaymentMethod;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+// Conversões dos enums gravados como código: OrderStatus.fromString é chamado em todo Order.getOrderStatus()
+// (o código inteiro vira String e é convertido de volta) e no JSON de entrada ("2", "PAID", "paid");
+// PaymentMethod.valueOf(int) em todo Payment.getPaymentMethod(). Só as classes em memória, sem subir a aplicação.
+// mvn -Pjmh test-compile exec:exec -Djmh.args="EnumParsingBenchmark"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnumParsingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class OrderStatusInput {
+        // Código (caminho do getter), nome exato e nome em minúsculas (só casa no equalsIgnoreCase)
+        @Param({"2", "PAID", "canceled"})
+        public String value;
+
+        public Order order;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            order = new Order(1L, Instant.now(), OrderStatus.PAID, null);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PaymentMethodInput {
+        // Primeiro e último do values()
+        @Param({"1", "4"})
+        public int code;
+
+        public Payment payment;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            payment = new Payment(1L, Instant.now(), null, PaymentMethod.valueOf(code));
+        }
+    }
+
+    @Benchmark
+    public OrderStatus orderStatusFromString(OrderStatusInput input) {
+        return OrderStatus.fromString(input.value);
+    }
+
+    // O que o Jackson e os services chamam: o getter faz Integer.toString + fromString
+    @Benchmark
+    public OrderStatus orderGetOrderStatus(OrderStatusInput input) {
+        return input.order.getOrderStatus();
+    }
+
+    @Benchmark
+    public PaymentMethod paymentMethodValueOf(PaymentMethodInput input) {
+        return PaymentMethod.valueOf(input.code);
+    }
+
+    @Benchmark
+    public PaymentMethod paymentGetPaymentMethod(PaymentMethodInput input) {
+        return input.payment.getPaymentMethod();
+    }
+}
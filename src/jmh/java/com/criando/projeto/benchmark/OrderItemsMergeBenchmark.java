@@ -0,0 +1,112 @@
+package com.criando.projeto.benchmark;
+
+import com.criando.projeto.entities.Order;
+import com.criando.projeto.entities.OrderItem;
+import com.criando.projeto.entities.Product;
+import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.repositories.ProductRepository;
+import com.criando.projeto.services.OrderServices;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Mescla dos itens do PATCH /orders/{id}/items (OrderServices.updateItemsInOrder, privado): metade dos itens
+// enviados soma quantidade a itens do pedido e metade entra como item novo. O ProductRepository é um proxy que
+// responde o findAllById de um mapa em memória, então só a mescla e os totais do pedido são medidos, sem banco.
+// A mescla altera o pedido: cada operação monta um pedido novo, e "rebuild" mede só essa montagem (a subtrair).
+// mvn -Pjmh test-compile exec:exec -Djmh.args="OrderItemsMergeBenchmark -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderItemsMergeBenchmark {
+
+    // Itens já no pedido; o PATCH envia o mesmo número de itens
+    @Param({"10", "100"})
+    private int items;
+
+    private OrderServices orderServices;
+    private MethodHandle updateItemsInOrder;
+    private List<Product> orderProducts;
+    private List<OrderItem> requestItems;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        Map<Long, Product> catalog = new HashMap<>();
+        for (long id = 0; id < items * 2L; id++) {
+            catalog.put(id, new Product(id, "Produto " + id, "Descrição", 9.99 + id));
+        }
+        orderProducts = new ArrayList<>();
+        for (long id = 0; id < items; id++) {
+            orderProducts.add(catalog.get(id));
+        }
+        // Como chega no JSON: só o id do produto. Ids de items/2 a items*3/2: metade já está no pedido
+        requestItems = new ArrayList<>();
+        for (long id = items / 2; id < items / 2 + items; id++) {
+            requestItems.add(new OrderItem(null, new Product(id, null, null, null), 1));
+        }
+
+        orderServices = new OrderServices();
+        ReflectionTestUtils.setField(orderServices, "productRepository", productRepository(catalog));
+        Method method = OrderServices.class.getDeclaredMethod("updateItemsInOrder", Order.class, List.class);
+        method.setAccessible(true);
+        updateItemsInOrder = MethodHandles.lookup().unreflect(method);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ProductRepository productRepository(Map<Long, Product> catalog) {
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findAllById")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    List<Product> found = new ArrayList<>();
+                    for (Long id : (Collection<Long>) args[0]) {
+                        found.add(catalog.get(id));
+                    }
+                    return found;
+                });
+    }
+
+    private Order order() {
+        Order order = new Order(1L, Instant.now(), OrderStatus.WAITING_PAYMENT, null);
+        for (Product product : orderProducts) {
+            order.addItem(new OrderItem(order, product, 1));
+        }
+        return order;
+    }
+
+    // Cópias dos itens enviados, como o updateOrderItems faz antes de cada tentativa
+    private List<OrderItem> newItems() {
+        return requestItems.stream()
+                .map(item -> new OrderItem(null, item.getProduct(), item.getQuantity()))
+                .toList();
+    }
+
+    @Benchmark
+    public Order rebuild() {
+        Order order = order();
+        newItems();
+        return order;
+    }
+
+    @Benchmark
+    public Order merge() throws Throwable {
+        Order order = order();
+        updateItemsInOrder.invoke(orderServices, order, newItems());
+        return order;
+    }
+}
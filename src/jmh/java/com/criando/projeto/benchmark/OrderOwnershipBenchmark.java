@@ -0,0 +1,113 @@
+package com.criando.projeto.benchmark;
+
+import com.criando.projeto.entities.Order;
+import com.criando.projeto.entities.User;
+import com.criando.projeto.entities.enums.UserRole;
+import com.criando.projeto.repositories.OrderRepository;
+import com.criando.projeto.repositories.UserRepository;
+import com.criando.projeto.security.AuthenticatedUser;
+import com.criando.projeto.security.OrderSecurity;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Compara a checagem de dono do pedido antiga (User + Order completos) com a nova (projeção id do dono + status).
+// mvn -Pjmh test-compile exec:exec -Djmh.args="OrderOwnershipBenchmark"
+// O volume pode ser alterado com -Djmh.args="OrderOwnershipBenchmark -p orders=100000"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class OrderOwnershipBenchmark {
+
+    @Param("1000000")
+    private int orders;
+
+    @Param("1000")
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private UserRepository userRepository;
+    private OrderSecurity orderSecurity;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("ownership");
+        BenchmarkContext.seedOrders(context.getBean(JdbcTemplate.class), users, orders);
+        orderRepository = context.getBean(OrderRepository.class);
+        userRepository = context.getBean(UserRepository.class);
+        orderSecurity = context.getBean(OrderSecurity.class);
+        // Cada chamada da versão antiga roda num EntityManager novo, como numa requisição com open-in-view
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Sequência de pedidos sorteados (e o dono de cada um), gerada antes da medição para não pesar no tempo
+    @State(Scope.Thread)
+    public static class Requests {
+        private static final int SIZE = 4096;
+        final int[] userIndexes = new int[SIZE];
+        final long[] orderIds = new long[SIZE];
+        final Authentication[] authentications = new Authentication[SIZE];
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(OrderOwnershipBenchmark benchmark) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < SIZE; i++) {
+                int orderIndex = random.nextInt(benchmark.orders);
+                int userIndex = orderIndex % benchmark.users;
+                userIndexes[i] = userIndex;
+                orderIds[i] = BenchmarkContext.ORDER_ID_BASE + orderIndex;
+                AuthenticatedUser principal = new AuthenticatedUser(
+                        BenchmarkContext.USER_ID_BASE + userIndex, BenchmarkContext.userEmail(userIndex), null, UserRole.USER);
+                authentications[i] = UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+            }
+        }
+
+        int advance() {
+            next = (next + 1) & (SIZE - 1);
+            return next;
+        }
+    }
+
+    // Checagem como era antes: busca o usuário pelo e-mail e carrega o pedido inteiro (client, payment e discount)
+    @Benchmark
+    public boolean entityLoads(Requests requests) {
+        int i = requests.advance();
+        return transactionTemplate.execute(status -> {
+            User user = userRepository.findByEmail(BenchmarkContext.userEmail(requests.userIndexes[i])).orElseThrow();
+            Order order = orderRepository.findById(requests.orderIds[i]).orElse(null);
+            if (order == null) {
+                return false;
+            }
+            if (user.getRole() == UserRole.ADMIN) {
+                return true;
+            }
+            return order.getClient().getId().equals(user.getId());
+        });
+    }
+
+    // Checagem atual: id/role vêm do principal e o pedido é lido só como OrderOwnership
+    @Benchmark
+    public boolean ownershipProjection(Requests requests) {
+        int i = requests.advance();
+        return orderSecurity.checkOrderOwnership(requests.authentications[i], requests.orderIds[i]);
+    }
+}
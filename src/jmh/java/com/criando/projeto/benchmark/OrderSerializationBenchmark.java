@@ -0,0 +1,56 @@
+package com.criando.projeto.benchmark;
+
+import com.criando.projeto.entities.*;
+import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.entities.enums.PaymentMethod;
+import com.criando.projeto.entities.enums.UserRole;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+// Serialização pelo Jackson de um pedido completo, como sai no GET /orders/{id}: cliente, pagamento, cupom e itens
+// com produto e duas categorias cada, para pedidos de 1 a 100 itens. O ObjectMapper é montado como o do Spring Boot
+// (Jackson2ObjectMapperBuilder), sem subir a aplicação. Inclui os getters calculados (total, subTotal,
+// orderStatus via fromString, paymentMethod via valueOf).
+// mvn -Pjmh test-compile exec:exec -Djmh.args="OrderSerializationBenchmark -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderSerializationBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int items;
+
+    private ObjectMapper objectMapper;
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        User client = new User(1L, "Maria Brown", "maria@gmail.com", "988888888", "Sen@1234", UserRole.USER);
+        Category books = new Category(1L, "Books");
+        Category computers = new Category(2L, "Computers");
+        order = new Order(1L, Instant.parse("2024-01-01T12:00:00Z"), OrderStatus.PAID, client);
+        for (int i = 0; i < items; i++) {
+            Product product = new Product((long) i, "Produto " + i, "Descrição do produto " + i, 9.99 + i);
+            product.getCategories().add(books);
+            product.getCategories().add(computers);
+            order.addItem(new OrderItem(order, product, 1 + i % 3));
+        }
+        order.setDiscount(new Coupon(1L, "DESC10", 10.0));
+        order.setPayment(new Payment(1L, Instant.parse("2024-01-01T12:05:00Z"), order, PaymentMethod.PIX));
+        System.out.printf("%nitems=%d: %d bytes%n", items, serialize().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+}
@@ -0,0 +1,67 @@
+package com.criando.projeto.benchmark;
+
+import com.criando.projeto.entities.Coupon;
+import com.criando.projeto.entities.Order;
+import com.criando.projeto.entities.OrderItem;
+import com.criando.projeto.entities.Product;
+import com.criando.projeto.entities.enums.OrderStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+// Cálculo do total do pedido (chamado pelo Jackson em toda serialização) para pedidos de 1 a 500 itens:
+// versão antiga em Double + BigDecimal contra a atual em centavos (long).
+// Não sobe a aplicação: só as entidades em memória.
+// mvn -Pjmh test-compile exec:exec -Djmh.args="OrderTotalBenchmark -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderTotalBenchmark {
+
+    @Param({"1", "10", "100", "500"})
+    private int items;
+
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        order = new Order(1L, Instant.now(), OrderStatus.WAITING_PAYMENT, null);
+        for (int i = 0; i < items; i++) {
+            Product product = new Product((long) i, "Produto " + i, "Descrição", 9.99 + i);
+            order.addItem(new OrderItem(order, product, 1 + i % 3));
+        }
+        order.setDiscount(new Coupon(1L, "DESC10", 10.0));
+    }
+
+    // Como Order.getTotal() era antes: soma de Double (boxing a cada item) e BigDecimal a partir de String
+    @Benchmark
+    public Double legacyDoubleTotal() {
+        Double total = 0.0;
+        for (OrderItem item : order.getItems()) {
+            Double subTotal = item.getPrice() * item.getQuantity();
+            total += subTotal;
+        }
+        if (order.getDiscount() != null) {
+            total -= total * (order.getDiscount().getDiscountPercentage() / 100);
+        }
+        return new BigDecimal(String.valueOf(total)).setScale(2, RoundingMode.DOWN).doubleValue();
+    }
+
+    // Caminho interno atual: só aritmética de long
+    @Benchmark
+    public long totalCents() {
+        return order.getTotalCents();
+    }
+
+    // O que o Jackson chama: total em centavos convertido para reais no fim
+    @Benchmark
+    public Double total() {
+        return order.getTotal();
+    }
+}
@@ -0,0 +1,90 @@
+package com.criando.projeto.benchmark;
+
+import com.criando.projeto.entities.Product;
+import com.criando.projeto.repositories.ProductRepository;
+import com.criando.projeto.specifications.ProductSpec;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Filtro por categoria do GET /products (Specification, sem o ProductSearchIndex) com produtos em várias
+// categorias: metade dos 100 mil produtos está em duas das três categorias do TestConfig.
+// "join" é a Specification antiga (INNER JOIN, um resultado por categoria que casa); "exists" é a atual.
+// Cenários: categoryName=o casa com as três categorias (duplica metade dos produtos no join);
+// categoryName=Books casa com uma (sem duplicados, só o plano muda).
+// Cada operação busca uma página de 50 produtos por id, com o COUNT do total (findAll(spec, pageable)).
+// O Hibernate descarta em memória as entidades repetidas da lista, mas o banco devolve uma linha por categoria
+// que casa e o COUNT conta essas linhas: o total de cada Specification sai no log do setup.
+// mvn -Pjmh test-compile exec:exec -Djmh.args="ProductCategoryFilterBenchmark"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ProductCategoryFilterBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+    private static final Pageable PAGE = PageRequest.of(0, 50, Sort.by("id"));
+
+    @Param({"o", "Books"})
+    private String categoryName;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private Specification<Product> joinSpec;
+    private Specification<Product> existsSpec;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("productcategory");
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkContext.seedProducts(jdbcTemplate, PRODUCTS);
+        // Produtos pares ganham uma segunda categoria (a seguinte à que o seedProducts deu)
+        List<Object[]> links = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i += 2) {
+            links.add(new Object[]{BenchmarkContext.PRODUCT_ID_BASE + i, 1 + (i + 1) % 3});
+        }
+        jdbcTemplate.batchUpdate("insert into tb_product_category (product_id, category_id) values (?, ?)", links);
+        productRepository = context.getBean(ProductRepository.class);
+        joinSpec = joinCategoryNameContains(categoryName);
+        existsSpec = ProductSpec.categoryNameContains(categoryName);
+        System.out.printf("%ncategoryName=%s: total join=%d, total exists=%d (produtos distintos: %d)%n",
+                categoryName, join().getTotalElements(), exists().getTotalElements(),
+                productRepository.findAll(existsSpec).size());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Product> join() {
+        return productRepository.findAll(joinSpec, PAGE);
+    }
+
+    @Benchmark
+    public Page<Product> exists() {
+        return productRepository.findAll(existsSpec, PAGE);
+    }
+
+    // Como era o ProductSpec.categoryNameContains antes do EXISTS
+    private static Specification<Product> joinCategoryNameContains(String categoryName) {
+        return (root, query, builder) -> {
+            Join<Object, Object> join = root.join("categories", JoinType.INNER);
+            return builder.like(join.get("name"), "%" + categoryName + "%");
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package com.criando.projeto.benchmark;
+
+import com.criando.projeto.dto.ProductFacets;
+import com.criando.projeto.queryFIlters.ProductQueryFilter;
+import com.criando.projeto.services.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// GET /products/facets com 1 milhão de produtos: contagem numa passada pelo retrato colunar do ProductSearchIndex
+// contra o que seria feito no banco (uma consulta agregada por faceta: total, por categoria e por faixa de preço).
+// Faixas de R$ 100. Cenários (query string): tudo, nome que casa com 100 mil, categoria + preço (~170 mil).
+// mvn -Pjmh test-compile exec:exec -Djmh.args="ProductFacetsBenchmark"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ProductFacetsBenchmark {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final long BUCKET_CENTS = 100_00L;
+
+    @Param({"", "name=Mesa", "categoryName=Books&maxPrice=500"})
+    private String query;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private ProductSearchIndex searchIndex;
+    private ProductQueryFilter.CacheKey key;
+    private String where;
+    private Object[] whereArgs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("productfacets");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkContext.seedProducts(jdbcTemplate, PRODUCTS);
+        searchIndex = context.getBean(ProductSearchIndex.class);
+        searchIndex.rebuild(); // os produtos entraram por JDBC, depois de o índice ser montado
+        key = BenchmarkContext.productFilter(query).cacheKey();
+        buildWhere();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Uma passada pelos ids que atendem ao filtro, lendo as colunas de preço e categorias
+    @Benchmark
+    public ProductFacets columnar() {
+        return searchIndex.facets(key.name(), key.description(), key.categoryName(),
+                key.minPriceCents(), key.maxPriceCents(), BUCKET_CENTS).orElseThrow();
+    }
+
+    // Alternativa no banco: uma agregação por faceta, cada uma percorrendo a tabela com o mesmo filtro
+    @Benchmark
+    public void sqlPerFacet(Blackhole blackhole) {
+        blackhole.consume(jdbcTemplate.queryForObject(
+                "select count(*) from tb_product p where " + where, Long.class, whereArgs));
+        blackhole.consume(jdbcTemplate.queryForList(
+                "select pc.category_id, count(*) from tb_product p " +
+                        "join tb_product_category pc on pc.product_id = p.id where " + where +
+                        " group by pc.category_id", whereArgs));
+        Object[] priceArgs = new Object[whereArgs.length + 1];
+        priceArgs[0] = BUCKET_CENTS;
+        System.arraycopy(whereArgs, 0, priceArgs, 1, whereArgs.length);
+        blackhole.consume(jdbcTemplate.queryForList(
+                "select floor(p.price_cents / ?) as bucket, count(*) from tb_product p where " + where +
+                        " group by bucket", priceArgs));
+    }
+
+    // Mesmo filtro das Specifications (LIKE no nome, nome da categoria, faixa de preço em centavos)
+    private void buildWhere() {
+        List<String> clauses = new ArrayList<>(List.of("1 = 1"));
+        List<Object> args = new ArrayList<>();
+        if (key.name() != null) {
+            clauses.add("p.name like ?");
+            args.add("%" + key.name() + "%");
+        }
+        if (key.categoryName() != null) {
+            clauses.add("exists (select 1 from tb_product_category x join tb_category c on c.id = x.category_id " +
+                    "where x.product_id = p.id and c.name like ?)");
+            args.add("%" + key.categoryName() + "%");
+        }
+        if (key.minPriceCents() != null) {
+            clauses.add("p.price_cents >= ?");
+            args.add(key.minPriceCents());
+        }
+        if (key.maxPriceCents() != null) {
+            clauses.add("p.price_cents <= ?");
+            args.add(key.maxPriceCents());
+        }
+        where = String.join(" and ", clauses);
+        whereArgs = args.toArray();
+    }
+}
@@ -0,0 +1,51 @@
+package com.criando.projeto.benchmark;
+
+import com.criando.projeto.entities.Product;
+import com.criando.projeto.queryFIlters.ProductQueryFilter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.concurrent.TimeUnit;
+
+// Montagem da consulta do GET /products a partir dos parâmetros: a Specification composta (feita a cada requisição
+// que o ProductSearchIndex não responde) e a chave do CatalogCache (feita em toda requisição).
+// Cenários: nenhum filtro, só nome (o caso comum da busca) e os cinco filtros juntos.
+// Só monta os objetos: a tradução para SQL fica com o ProductSearchBenchmark/ProductCategoryFilterBenchmark.
+// mvn -Pjmh test-compile exec:exec -Djmh.args="ProductQueryFilterBenchmark -prof gc"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductQueryFilterBenchmark {
+
+    @Param({"none", "name", "all"})
+    private String filters;
+
+    private ProductQueryFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filter = new ProductQueryFilter();
+        if (!filters.equals("none")) {
+            filter.setName("Mochila");
+        }
+        if (filters.equals("all")) {
+            filter.setDescription("produto");
+            filter.setCategoryName("Books");
+            filter.setMinPrice(10.0);
+            filter.setMaxPrice(99.9);
+        }
+    }
+
+    @Benchmark
+    public Specification<Product> toSpecification() {
+        return filter.toSpecification();
+    }
+
+    @Benchmark
+    public ProductQueryFilter.CacheKey cacheKey() {
+        return filter.cacheKey();
+    }
+}
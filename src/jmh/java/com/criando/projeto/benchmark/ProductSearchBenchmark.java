@@ -0,0 +1,80 @@
+package com.criando.projeto.benchmark;
+
+import com.criando.projeto.entities.Product;
+import com.criando.projeto.queryFIlters.ProductQueryFilter;
+import com.criando.projeto.repositories.ProductRepository;
+import com.criando.projeto.services.ProductSearchIndex;
+import com.criando.projeto.services.ProductServices;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Filtros do GET /products com 1 milhão de produtos: Specifications no banco (LIKE '%x%' e faixa de preço,
+// que percorrem a tabela) contra o ProductSearchIndex (bitmaps em memória) + busca por id.
+// Cenários (query string do GET /products):
+//   name=4242                             algumas centenas de produtos
+//   name=Cadeira Preta 99991              um produto
+//   name=Inexistente                      nenhum
+//   name=Mesa&minPrice=10&maxPrice=10.5   nome casa com 100 mil, faixa de preço com 510; juntos, 51
+//   minPrice=10&maxPrice=10.05            só preço, 60 produtos
+// mvn -Pjmh test-compile exec:exec -Djmh.args="ProductSearchBenchmark"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+
+    private static final int PRODUCTS = 1_000_000;
+
+    @Param({"name=4242", "name=Cadeira Preta 99991", "name=Inexistente",
+            "name=Mesa&minPrice=10&maxPrice=10.5", "minPrice=10&maxPrice=10.05"})
+    private String query;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private ProductSearchIndex searchIndex;
+    private ProductServices productServices;
+    private ProductQueryFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("productsearch");
+        BenchmarkContext.seedProducts(context.getBean(JdbcTemplate.class), PRODUCTS);
+        productRepository = context.getBean(ProductRepository.class);
+        searchIndex = context.getBean(ProductSearchIndex.class);
+        productServices = context.getBean(ProductServices.class);
+        searchIndex.rebuild(); // os produtos entraram por JDBC, depois de o índice ser montado
+        filter = BenchmarkContext.productFilter(query);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Caminho antigo: where p.name like '%termo%' and p.price_cents between ...
+    @Benchmark
+    public List<Product> specification() {
+        return productRepository.findAll(filter.toSpecification());
+    }
+
+    // Caminho atual: ids vindos do índice (interseção dos bitmaps) e where p.id in (...)
+    @Benchmark
+    public List<Product> searchIndex() {
+        return productRepository.findAll(productServices.searchSpecification(filter));
+    }
+
+    // Só a busca no índice, sem ir ao banco
+    @Benchmark
+    public Optional<List<Long>> searchIndexOnly() {
+        ProductQueryFilter.CacheKey key = filter.cacheKey();
+        return searchIndex.findIds(key.name(), key.description(), key.categoryName(),
+                key.minPriceCents(), key.maxPriceCents());
+    }
+}
@@ -0,0 +1,127 @@
+package com.criando.projeto.load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Histograma de latências em microssegundos com precisão relativa de ~6%: até 16 µs um balde por valor, depois cada
+// potência de 2 é dividida em 16 baldes iguais (mesma ideia do HdrHistogram, sem a dependência). Seguro para várias
+// threads gravarem ao mesmo tempo; os percentis devolvem o limite superior do balde.
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    // Faixas da tabela impressa, em microssegundos
+    private static final long[] DISPLAY_LIMITS = {1_000, 2_000, 5_000, 10_000, 20_000, 50_000, 100_000, 200_000,
+            500_000, 1_000_000, 2_000_000, 5_000_000};
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(bucketOf(value));
+        total.incrementAndGet();
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        total.addAndGet(other.total.get());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    // percentile entre 0 e 100
+    public long percentile(double percentile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    // Tabela de faixas de latência com contagem, porcentagem e barra
+    public String render() {
+        long[] rangeCounts = new long[DISPLAY_LIMITS.length + 1];
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                rangeCounts[rangeOf(lowerBound(i))] += count;
+            }
+        }
+        long count = Math.max(1, total.get());
+        StringBuilder out = new StringBuilder();
+        for (int r = 0; r < rangeCounts.length; r++) {
+            String label = r == 0 ? "< " + millis(DISPLAY_LIMITS[0])
+                    : r == DISPLAY_LIMITS.length ? ">= " + millis(DISPLAY_LIMITS[r - 1])
+                    : millis(DISPLAY_LIMITS[r - 1]) + " - " + millis(DISPLAY_LIMITS[r]);
+            double percent = rangeCounts[r] * 100.0 / count;
+            out.append(String.format("  %-17s %10d %6.2f%% %s%n", label, rangeCounts[r], percent,
+                    "#".repeat((int) Math.round(percent / 2))));
+        }
+        return out.toString();
+    }
+
+    private static String millis(long micros) {
+        return micros >= 1_000_000 ? micros / 1_000_000 + " s" : micros / 1_000 + " ms";
+    }
+
+    private static int rangeOf(long micros) {
+        for (int r = 0; r < DISPLAY_LIMITS.length; r++) {
+            if (micros < DISPLAY_LIMITS[r]) {
+                return r;
+            }
+        }
+        return DISPLAY_LIMITS.length;
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value); // >= SUB_BUCKET_BITS
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << shift;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        return lowerBound(bucket) + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,290 @@
+package com.criando.projeto.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Driver de carga HTTP: cada cliente virtual entra com um dos usuários do perfil generator, descobre os próprios
+// pedidos e produtos (GET /orders) e repete as requisições do cenário (ver Scenario) até o fim da duração.
+// Só o que termina depois do aquecimento entra no relatório: vazão e percentis por linha do cenário e o histograma
+// de latências de tudo. Com --rate o modelo é aberto (cada cliente segue uma agenda fixa e a latência conta desde o
+// horário agendado, então uma fila no servidor aparece nos percentis); sem --rate cada cliente manda a próxima
+// requisição assim que recebe a resposta.
+// Opções (-nome=valor): base-url (http://localhost:8080), scenario (src/load/scenarios/mixed.txt), clients (10),
+// duration e warmup em segundos (60 e 10), rate em req/s (0 = sem agenda), users (1000: o cliente c entra com o
+// usuário c % users), email (cliente%d@gerador.com), password (Sen@1234), seed (42), json (arquivo do resultado).
+// mvn -Pload test-compile exec:exec -Dload.args="-scenario=src/load/scenarios/mixed.txt -clients=20 -duration=60"
+public class LoadDriver {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Set<String> OPTIONS = Set.of("base-url", "scenario", "clients", "duration", "warmup", "rate",
+            "users", "email", "password", "seed", "json");
+
+    private final String baseUrl;
+    private final Scenario scenario;
+    private final int clients;
+    private final Duration duration;
+    private final Duration warmup;
+    private final double rate;
+    private final int users;
+    private final String emailPattern;
+    private final String password;
+    private final long seed;
+    private final HttpClient http;
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final LatencyHistogram all = new LatencyHistogram();
+    private final AtomicLong failures = new AtomicLong(); // falhas de conexão/timeout, sem status HTTP
+    private volatile long measureFrom;
+
+    // Latência e status de uma linha do cenário
+    private static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final Map<Integer, AtomicLong> statuses = new ConcurrentHashMap<>();
+
+        void record(int status, long micros) {
+            latency.record(micros);
+            statuses.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+        }
+
+        long errors() {
+            return statuses.entrySet().stream().filter(e -> e.getKey() >= 400).mapToLong(e -> e.getValue().get()).sum();
+        }
+    }
+
+    public LoadDriver(Map<String, String> options) throws IOException {
+        this.baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        this.scenario = Scenario.load(Path.of(options.getOrDefault("scenario", "src/load/scenarios/mixed.txt")));
+        this.clients = Integer.parseInt(options.getOrDefault("clients", "10"));
+        this.duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        this.warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        this.rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        this.users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        this.emailPattern = options.getOrDefault("email", "cliente%d@gerador.com");
+        this.password = options.getOrDefault("password", "Sen@1234");
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("-") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido (esperado -nome=valor): " + arg);
+            }
+            String name = arg.substring(0, arg.indexOf('=')).replaceFirst("^-+", "");
+            if (!OPTIONS.contains(name)) {
+                throw new IllegalArgumentException("Opção desconhecida: " + name + " (opções: " + new TreeSet<>(OPTIONS) + ")");
+            }
+            options.put(name, arg.substring(arg.indexOf('=') + 1));
+        }
+        String json = options.remove("json");
+        LoadDriver driver = new LoadDriver(options);
+        driver.run();
+        System.out.print(driver.report());
+        if (json != null) {
+            Files.writeString(Path.of(json), MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(driver.reportJson()));
+            System.out.println("Resultado salvo em " + json);
+        }
+    }
+
+    public void run() throws Exception {
+        System.out.printf("Entrando com %d clientes em %s...%n", clients, baseUrl);
+        List<Session> sessions = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Session>> logins = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int user = c % users;
+                logins.add(executor.submit(() -> login(user)));
+            }
+            for (Future<Session> login : logins) {
+                sessions.add(login.get());
+            }
+        }
+
+        long start = System.nanoTime();
+        measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        System.out.printf("Carga por %d s (+%d s de aquecimento), %s%n", duration.toSeconds(), warmup.toSeconds(),
+                rate > 0 ? String.format("%.0f req/s no total", rate) : "sem pausa entre requisições");
+        List<Future<?>> loops = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                Session session = sessions.get(c);
+                SplittableRandom random = new SplittableRandom(seed + c);
+                loops.add(executor.submit(() -> loop(session, random, start, end)));
+            }
+        }
+        for (Future<?> loop : loops) {
+            loop.get(); // repassa o erro de um cliente que parou (ex.: cenário inválido)
+        }
+    }
+
+    // Sessão de um cliente: token e ids conhecidos para os marcadores do cenário
+    private record Session(String token, Map<String, List<Long>> ids) {
+    }
+
+    private Session login(int user) throws IOException, InterruptedException {
+        String credentials = MAPPER.writeValueAsString(Map.of("email", String.format(emailPattern, user), "password", password));
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials)).build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login de " + String.format(emailPattern, user) + " falhou: "
+                    + response.statusCode() + " " + response.body());
+        }
+        String token = MAPPER.readTree(response.body()).get("token").asText();
+
+        JsonNode page = MAPPER.readTree(http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/orders?size=100"))
+                .header("Authorization", "Bearer " + token).build(), HttpResponse.BodyHandlers.ofString()).body());
+        Set<Long> orderIds = new LinkedHashSet<>();
+        Set<Long> openOrderIds = new LinkedHashSet<>();
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (JsonNode order : page.path("content")) {
+            orderIds.add(order.get("id").asLong());
+            if ("WAITING_PAYMENT".equals(order.path("orderStatus").asText())) {
+                openOrderIds.add(order.get("id").asLong());
+            }
+            for (JsonNode item : order.path("items")) {
+                productIds.add(item.path("product").path("id").asLong());
+            }
+        }
+        return new Session(token, Map.of("orderId", List.copyOf(orderIds), "openOrderId", List.copyOf(openOrderIds),
+                "productId", List.copyOf(productIds)));
+    }
+
+    private void loop(Session session, SplittableRandom random, long start, long end) {
+        // Intervalo entre requisições de cada cliente no modelo aberto
+        long interval = rate > 0 ? (long) (clients * 1_000_000_000L / rate) : 0;
+        long scheduled = start + (interval > 0 ? random.nextLong(interval) : 0);
+        while (true) {
+            long now = System.nanoTime();
+            if (interval > 0) {
+                if (scheduled > now) {
+                    LockSupport.parkNanos(scheduled - now);
+                }
+            } else {
+                scheduled = now;
+            }
+            if (scheduled >= end) {
+                return;
+            }
+            Scenario.Entry entry = scenario.pick(random, session.ids());
+            if (entry == null) {
+                throw new IllegalStateException("Nenhuma linha do cenário pode ser usada pela sessão: " + session.ids().keySet());
+            }
+            int status = send(session, entry, random);
+            long finished = System.nanoTime();
+            if (finished >= measureFrom && finished < end) {
+                long micros = TimeUnit.NANOSECONDS.toMicros(finished - scheduled);
+                if (status > 0) {
+                    stats.computeIfAbsent(entry.label(), label -> new Stats()).record(status, micros);
+                    all.record(micros);
+                } else {
+                    failures.incrementAndGet();
+                }
+            }
+            scheduled += interval;
+        }
+    }
+
+    private int send(Session session, Scenario.Entry entry, SplittableRandom random) {
+        String body = Scenario.expand(entry.body(), random, session.ids());
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + Scenario.expand(entry.path(), random, session.ids())))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + session.token());
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        request.method(entry.method(), body != null ? HttpRequest.BodyPublishers.ofString(body) : HttpRequest.BodyPublishers.noBody());
+        try {
+            return http.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    public String report() {
+        double seconds = duration.toMillis() / 1000.0;
+        StringBuilder out = new StringBuilder(String.format("%n%-60s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+                "Requisição", "total", "req/s", "erros", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Scenario.Entry entry : scenario.entries()) {
+            Stats entryStats = stats.get(entry.label());
+            if (entryStats != null) {
+                out.append(line(entry.label(), entryStats.latency, entryStats.errors(), seconds));
+                out.append(String.format("    status: %s%n", new TreeMap<>(entryStats.statuses)));
+            }
+        }
+        long errors = stats.values().stream().mapToLong(Stats::errors).sum();
+        out.append(line("TOTAL", all, errors, seconds));
+        if (failures.get() > 0) {
+            out.append(String.format("Falhas de conexão/timeout: %d%n", failures.get()));
+        }
+        out.append(String.format("%nHistograma de latências (%d requisições)%n", all.count())).append(all.render());
+        return out.toString();
+    }
+
+    private static String line(String label, LatencyHistogram latency, long errors, double seconds) {
+        return String.format("%-60s %9d %9.1f %8d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                label.length() > 60 ? label.substring(0, 57) + "..." : label, latency.count(), latency.count() / seconds,
+                errors, latency.percentile(50) / 1000.0, latency.percentile(90) / 1000.0, latency.percentile(99) / 1000.0,
+                latency.percentile(99.9) / 1000.0, latency.max() / 1000.0);
+    }
+
+    // Mesmo conteúdo do relatório em JSON, para comparar execuções (ex.: entre commits)
+    public ObjectNode reportJson() {
+        double seconds = duration.toMillis() / 1000.0;
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("clients", clients).put("durationSeconds", duration.toSeconds()).put("rate", rate)
+                .put("failures", failures.get());
+        root.set("total", json(all, stats.values().stream().mapToLong(Stats::errors).sum(), seconds));
+        ArrayNode requests = root.putArray("requests");
+        for (Scenario.Entry entry : scenario.entries()) {
+            Stats entryStats = stats.get(entry.label());
+            if (entryStats != null) {
+                ObjectNode node = MAPPER.createObjectNode().put("request", entry.label());
+                node.setAll(json(entryStats.latency, entryStats.errors(), seconds));
+                ObjectNode statuses = node.putObject("statuses");
+                new TreeMap<>(entryStats.statuses).forEach((status, count) -> statuses.put(status.toString(), count.get()));
+                requests.add(node);
+            }
+        }
+        return root;
+    }
+
+    private static ObjectNode json(LatencyHistogram latency, long errors, double seconds) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("count", latency.count()).put("throughput", latency.count() / seconds).put("errors", errors);
+        ObjectNode percentiles = node.putObject("latencyMs");
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            percentiles.put("p" + (p == (long) p ? String.valueOf((long) p) : String.valueOf(p)), latency.percentile(p) / 1000.0);
+        }
+        percentiles.put("max", latency.max() / 1000.0);
+        return node;
+    }
+}
@@ -0,0 +1,122 @@
+package com.criando.projeto.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Mistura de requisições lida de um arquivo texto, uma por linha: "peso MÉTODO caminho [corpo JSON]".
+// Linhas vazias e iniciadas por # são ignoradas. No caminho e no corpo:
+//   {a|b|c}      um dos valores, sorteado
+//   {1..500}     um inteiro sorteado no intervalo (inclusive)
+//   {orderId}    um pedido do cliente logado; {openOrderId} só os que aguardam pagamento
+//   {productId}  um produto que aparece nos pedidos do cliente
+// Os ids vêm da sessão (descobertos pelo GET /orders depois do login); uma linha cujos ids a sessão não tem é trocada
+// por outra no sorteio.
+public class Scenario {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([^{}\"]+)}");
+    private static final Pattern RANGE = Pattern.compile("(-?\\d+)\\.\\.(-?\\d+)");
+
+    public record Entry(int weight, String method, String path, String body) {
+
+        // Nome usado no relatório: a linha como está no arquivo, sem o corpo
+        public String label() {
+            return method + " " + path;
+        }
+
+        public boolean needs(String variable) {
+            return path.contains("{" + variable + "}") || (body != null && body.contains("{" + variable + "}"));
+        }
+    }
+
+    private final List<Entry> entries;
+    private final int totalWeight;
+
+    public Scenario(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("Cenário sem requisições.");
+        }
+        this.entries = List.copyOf(entries);
+        this.totalWeight = entries.stream().mapToInt(Entry::weight).sum();
+    }
+
+    public static Scenario load(Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file)) {
+            lineNumber++;
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\s+", 4);
+            if (parts.length < 3) {
+                throw new IllegalArgumentException(file + ":" + lineNumber + ": esperado \"peso MÉTODO caminho [corpo]\"");
+            }
+            int weight = Integer.parseInt(parts[0]);
+            if (weight <= 0) {
+                throw new IllegalArgumentException(file + ":" + lineNumber + ": peso deve ser positivo");
+            }
+            entries.add(new Entry(weight, parts[1].toUpperCase(), parts[2], parts.length == 4 ? parts[3] : null));
+        }
+        return new Scenario(entries);
+    }
+
+    public List<Entry> entries() {
+        return entries;
+    }
+
+    // Sorteia pela soma dos pesos; até 20 tentativas para achar uma linha que a sessão consiga preencher
+    public Entry pick(SplittableRandom random, Map<String, List<Long>> ids) {
+        for (int attempt = 0; attempt < 20; attempt++) {
+            int roll = random.nextInt(totalWeight);
+            for (Entry entry : entries) {
+                roll -= entry.weight();
+                if (roll < 0) {
+                    if (ids.entrySet().stream().allMatch(e -> !e.getValue().isEmpty() || !entry.needs(e.getKey()))) {
+                        return entry;
+                    }
+                    break;
+                }
+            }
+        }
+        return null;
+    }
+
+    public static String expand(String template, SplittableRandom random, Map<String, List<Long>> ids) {
+        if (template == null) {
+            return null;
+        }
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        StringBuilder out = new StringBuilder();
+        while (matcher.find()) {
+            matcher.appendReplacement(out, Matcher.quoteReplacement(value(matcher.group(1), random, ids)));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    private static String value(String placeholder, SplittableRandom random, Map<String, List<Long>> ids) {
+        List<Long> known = ids.get(placeholder);
+        if (known != null) {
+            return String.valueOf(known.get(random.nextInt(known.size())));
+        }
+        Matcher range = RANGE.matcher(placeholder);
+        if (range.matches()) {
+            long min = Long.parseLong(range.group(1));
+            long max = Long.parseLong(range.group(2));
+            return String.valueOf(min + random.nextLong(max - min + 1));
+        }
+        if (placeholder.contains("|")) {
+            String[] options = placeholder.split("\\|");
+            return options[random.nextInt(options.length)];
+        }
+        throw new IllegalArgumentException("Marcador desconhecido: {" + placeholder + "}");
+    }
+}
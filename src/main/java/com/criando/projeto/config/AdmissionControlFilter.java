@@ -0,0 +1,115 @@
+package com.criando.projeto.config;
+
+import com.criando.projeto.resource.exceptions.StandardError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Controle de admissão: no máximo maxConcurrent requisições em execução ao mesmo tempo, por padrão o tamanho do
+// pool JDBC. Com threads virtuais (spring.threads.virtual.enabled) o Tomcat não tem mais o limite de 200 threads
+// e aceitaria milhares de requisições de uma vez, todas disputando as poucas conexões do pool (e o BCrypt do login
+// disputando os núcleos); aqui elas esperam na fila do semáforo (FIFO) por até maxWait e, passado esse tempo,
+// recebem 503 com Retry-After em vez de estourar o connectionTimeout do Hikari depois de 30 s.
+// Fica antes da cadeia do Spring Security, para que a autenticação (BCrypt, busca do usuário) também entre no limite.
+// Ligado por padrão junto com as threads virtuais; com threads de plataforma o pool do Tomcat já limita.
+@Component
+@Order(-110)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final long maxWaitMillis;
+    private final Semaphore permits;
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public AdmissionControlFilter(DataSource dataSource,
+                                 @Value("${http.admission.enabled:${spring.threads.virtual.enabled:false}}") boolean enabled,
+                                 @Value("${http.admission.max-concurrent:0}") int maxConcurrent,
+                                 @Value("${http.admission.max-wait-ms:500}") long maxWaitMillis) {
+        this.enabled = enabled;
+        this.maxConcurrent = maxConcurrent > 0 ? maxConcurrent : poolSizeOf(dataSource);
+        this.maxWaitMillis = maxWaitMillis;
+        this.permits = new Semaphore(this.maxConcurrent, true);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.incrementAndGet();
+            HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+            response.setStatus(status.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), new StandardError(Instant.now(), status.value(),
+                    "Server busy", "Servidor sobrecarregado, tente novamente em instantes", request.getRequestURI()));
+            return;
+        }
+        admitted.incrementAndGet();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(enabled, maxConcurrent, maxConcurrent - permits.availablePermits(), permits.getQueueLength(),
+                admitted.get(), rejected.get());
+    }
+
+    // Tamanho máximo do pool do Hikari (spring.datasource.hikari.maximum-pool-size), que ainda não precisa ter aberto
+    // nenhuma conexão. Sem a propriedade, o Hikari só troca o -1 pelo padrão (10) ao iniciar o pool
+    private static int poolSizeOf(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                return poolSize > 0 ? poolSize : DEFAULT_POOL_SIZE;
+            }
+        } catch (SQLException e) {
+            // Não é um Hikari: usa o padrão
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+
+    // inUse = requisições em execução agora; waiting = na fila do semáforo
+    public record Stats(boolean enabled, int maxConcurrent, int inUse, int waiting, long admitted, long rejected) {
+    }
+}
@@ -0,0 +1,264 @@
+package com.criando.projeto.config;
+
+import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.entities.enums.PaymentMethod;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Perfil generator: popula o banco com volumes configuráveis (generator.*) para testes de carga, direto via JDBC em
+// lotes (batchUpdate), sem passar pelo JPA. Usar junto com o perfil do banco: test,generator ou prod,generator.
+// Os ids saem das mesmas sequences das entidades: um nextval reserva o início da faixa e, no fim, a sequence é
+// reiniciada depois dela, então os INSERTs da aplicação continuam sem colidir.
+// Os dados são determinísticos para a mesma semente (generator.seed). Se o primeiro cliente gerado já existir
+// (banco persistente reaproveitado), nada é gerado.
+// Roda antes do ApplicationReadyEvent: o ProductSearchIndex já é montado com os produtos gerados.
+@Component
+@Profile("generator")
+public class DataGenerator implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DataGenerator.class);
+
+    // allocationSize das @SequenceGenerator das entidades
+    private static final int ALLOCATION_SIZE = 50;
+    // Pedidos espalhados pelo ano anterior a esta data (fixa, para a mesma semente gerar o mesmo banco)
+    private static final Instant ORDERS_UNTIL = Instant.parse("2025-01-01T00:00:00Z");
+    private static final long ORDERS_SPAN_SECONDS = Duration.ofDays(365).toSeconds();
+    private static final String[] PRODUCT_NOUNS = {"Mesa", "Cadeira", "Mochila", "Notebook", "Cabo", "Fone",
+            "Teclado", "Monitor", "Livro", "Camiseta"};
+    private static final String[] PRODUCT_ADJECTIVES = {"Azul", "Preta", "Couro", "Gamer", "Slim", "Pro"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${generator.users:10000}")
+    private int users;
+    @Value("${generator.categories:500}")
+    private int categories;
+    @Value("${generator.categories-per-product:8}")
+    private int categoriesPerProduct;
+    @Value("${generator.products:200000}")
+    private int products;
+    @Value("${generator.orders:1000000}")
+    private int orders;
+    @Value("${generator.max-items-per-order:5}")
+    private int maxItemsPerOrder;
+    @Value("${generator.batch-size:5000}")
+    private int batchSize;
+    @Value("${generator.seed:42}")
+    private long seed;
+    @Value("${generator.password:Sen@1234}")
+    private String password;
+
+    private TransactionTemplate transactionTemplate;
+    private Dialect dialect;
+
+    public static String userEmail(int index) {
+        return "cliente" + index + "@gerador.com";
+    }
+
+    @Override
+    public void run(String... args) {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        Integer existing = jdbcTemplate.queryForObject("select count(*) from tb_user where email = ?", Integer.class, userEmail(0));
+        if (existing != null && existing > 0) {
+            log.info("Dados do gerador já existem ({}), nada foi gerado", userEmail(0));
+            return;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        long start = System.nanoTime();
+        long firstUser = insertUsers();
+        long firstCategory = insertCategories();
+        long[] productPrices = new long[products];
+        long firstProduct = insertProducts(random, firstCategory, productPrices);
+        insertOrders(random, firstUser, firstProduct, productPrices);
+        log.info("Gerador concluído em {} s", Duration.ofNanos(System.nanoTime() - start).toSeconds());
+    }
+
+    private long insertUsers() {
+        // Todos com a mesma senha: um único hash BCrypt, em vez de um por usuário
+        String passwordHash = passwordEncoder.encode(password);
+        long first = reserveIds("tb_user_seq", users);
+        Batch batch = new Batch("tb_user", "insert into tb_user (id, name, email, phone, password, role) values (?, ?, ?, ?, ?, ?)");
+        for (int i = 0; i < users; i++) {
+            batch.add(first + i, "Cliente " + i, userEmail(i), "11999999999", passwordHash, "USER");
+        }
+        batch.finish();
+        return first;
+    }
+
+    private long insertCategories() {
+        long first = reserveIds("tb_category_seq", categories);
+        Batch batch = new Batch("tb_category", "insert into tb_category (id, name) values (?, ?)");
+        for (int i = 0; i < categories; i++) {
+            batch.add(first + i, "Categoria " + i);
+        }
+        batch.finish();
+        return first;
+    }
+
+    // Cada produto entra em categories-per-product categorias distintas, sorteadas
+    private long insertProducts(SplittableRandom random, long firstCategory, long[] prices) {
+        long first = reserveIds("tb_product_seq", products);
+        int perProduct = Math.min(categoriesPerProduct, categories);
+        Batch productBatch = new Batch("tb_product", "insert into tb_product (id, name, description, price_cents) values (?, ?, ?, ?)");
+        Batch categoryBatch = new Batch("tb_product_category", "insert into tb_product_category (product_id, category_id) values (?, ?)");
+        for (int i = 0; i < products; i++) {
+            long id = first + i;
+            String name = PRODUCT_NOUNS[i % PRODUCT_NOUNS.length] + " " + PRODUCT_ADJECTIVES[random.nextInt(PRODUCT_ADJECTIVES.length)] + " " + i;
+            prices[i] = 100 + random.nextLong(500_000); // R$ 1,00 a R$ 5.000,99
+            productBatch.add(id, name, "Descrição do produto " + name, prices[i]);
+            // Sorteia a primeira e segue com um passo sorteado, sem repetir categoria no mesmo produto
+            int category = random.nextInt(categories);
+            int step = 1 + random.nextInt(Math.max(1, categories / Math.max(1, perProduct)));
+            for (int c = 0; c < perProduct; c++) {
+                categoryBatch.add(id, firstCategory + (category + (long) c * step) % categories);
+            }
+            // O vínculo referencia o produto: os produtos do lote vão antes
+            if (productBatch.isFull()) {
+                productBatch.flush();
+                categoryBatch.flush();
+            }
+        }
+        productBatch.finish();
+        categoryBatch.finish();
+        return first;
+    }
+
+    // Clientes e produtos são sorteados com viés (quadrado de um uniforme): poucos clientes com muitos pedidos e
+    // produtos "populares" em muitos itens, como no uso real. Pedidos pagos ganham o pagamento
+    private void insertOrders(SplittableRandom random, long firstUser, long firstProduct, long[] productPrices) {
+        long first = reserveIds("tb_order_seq", orders);
+        long firstPayment = reserveIds("tb_payment_seq", orders);
+        PaymentMethod[] methods = PaymentMethod.values();
+        Batch orderBatch = new Batch("tb_order", "insert into tb_order (id, moment, order_status, client_id, "
+                + "items_subtotal_cents, total_cents, item_count, version) values (?, ?, ?, ?, ?, ?, ?, 0)");
+        Batch itemBatch = new Batch("tb_order_item", "insert into tb_order_item (order_id, product_id, quantity, price_cents) values (?, ?, ?, ?)");
+        Batch paymentBatch = new Batch("tb_payment", "insert into tb_payment (id, moment, order_id, payment_method) values (?, ?, ?, ?)");
+        int[] itemProducts = new int[maxItemsPerOrder];
+        for (int i = 0; i < orders; i++) {
+            long id = first + i;
+            Instant moment = ORDERS_UNTIL.minusSeconds(random.nextLong(ORDERS_SPAN_SECONDS));
+            int roll = random.nextInt(10);
+            OrderStatus status = roll < 6 ? OrderStatus.PAID : roll < 9 ? OrderStatus.WAITING_PAYMENT : OrderStatus.CANCELED;
+            long client = firstUser + skewed(random, users);
+
+            int itemCount = 1 + random.nextInt(maxItemsPerOrder);
+            int added = 0;
+            long subtotal = 0;
+            int quantities = 0;
+            for (int n = 0; n < itemCount; n++) {
+                int product = skewed(random, products);
+                if (contains(itemProducts, added, product)) {
+                    continue; // o mesmo produto não pode aparecer duas vezes no pedido (chave do item)
+                }
+                itemProducts[added++] = product;
+                int quantity = 1 + random.nextInt(3);
+                subtotal += productPrices[product] * quantity;
+                quantities += quantity;
+                itemBatch.add(id, firstProduct + product, quantity, productPrices[product]);
+            }
+            orderBatch.add(id, Timestamp.from(moment), status.getCode(), client, subtotal, subtotal, quantities);
+            if (status == OrderStatus.PAID) {
+                paymentBatch.add(firstPayment + i, Timestamp.from(moment.plusSeconds(60)), id,
+                        methods[random.nextInt(methods.length)].getCode());
+            }
+            // Itens e pagamentos referenciam o pedido: os pedidos do lote vão antes
+            if (orderBatch.isFull()) {
+                orderBatch.flush();
+                itemBatch.flush();
+                paymentBatch.flush();
+            }
+        }
+        orderBatch.finish();
+        itemBatch.finish();
+        paymentBatch.finish();
+    }
+
+    private static int skewed(SplittableRandom random, int bound) {
+        double r = random.nextDouble();
+        return (int) (r * r * bound);
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Reserva "count" ids da sequence: o nextval devolve o fim de uma faixa já entregue ao pool do Hibernate deste
+    // processo (ids até ele podem estar em uso), então a faixa começa logo depois. A sequence é reiniciada de modo
+    // que a próxima faixa do Hibernate (valor - allocationSize + 1 até valor) comece depois do último id reservado
+    private long reserveIds(String sequence, long count) {
+        Long current = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+        long first = current + 1;
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (first + count + ALLOCATION_SIZE));
+        return first;
+    }
+
+    // Linhas acumuladas e gravadas com batchUpdate a cada batch-size linhas, cada lote na própria transação
+    // (no perfil prod as conexões do pool saem sem autocommit)
+    private final class Batch {
+        private final String table;
+        private final String sql;
+        private final List<Object[]> pending = new ArrayList<>(batchSize);
+        private final long start = System.nanoTime();
+        private long rows;
+
+        Batch(String table, String sql) {
+            this.table = table;
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            pending.add(row);
+            rows++;
+        }
+
+        boolean isFull() {
+            return pending.size() >= batchSize;
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, pending));
+            pending.clear();
+        }
+
+        void finish() {
+            flush();
+            long millis = Math.max(1, Duration.ofNanos(System.nanoTime() - start).toMillis());
+            log.info("{}: {} linhas em {} ms ({} linhas/s)", table, rows, millis, rows * 1000 / millis);
+        }
+    }
+}
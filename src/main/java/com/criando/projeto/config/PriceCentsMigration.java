@@ -0,0 +1,58 @@
+package com.criando.projeto.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Migra os preços de bancos anteriores aos centavos: o ddl-auto=update cria as colunas price_cents (com default 0),
+// mas não copia os valores nem remove as colunas price em reais, que continuariam exigidas nos INSERTs.
+// Para cada tabela que ainda tem a coluna price: copia o valor para price_cents e remove a coluna, na mesma transação.
+// Depois da primeira execução a coluna não existe mais e nada é feito. Roda antes de qualquer INSERT da aplicação.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PriceCentsMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceCentsMigration.class);
+
+    private static final List<String> TABLES = List.of("tb_product", "tb_order_item");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (String table : TABLES) {
+            if (hasPriceColumn(table)) {
+                int rows = transactionTemplate.execute(status -> migrate(table));
+                log.info("{}: {} preços copiados para price_cents e coluna price removida", table, rows);
+            }
+        }
+    }
+
+    boolean hasPriceColumn(String table) {
+        Integer columns = jdbcTemplate.queryForObject("select count(*) from information_schema.columns "
+                + "where table_schema = current_schema and lower(table_name) = ? and lower(column_name) = 'price'",
+                Integer.class, table);
+        return columns != null && columns > 0;
+    }
+
+    private int migrate(String table) {
+        int rows = jdbcTemplate.update("update " + table + " set price_cents = cast(round(price * 100) as bigint) "
+                + "where price is not null");
+        jdbcTemplate.execute("alter table " + table + " drop column price");
+        return rows;
+    }
+}
@@ -0,0 +1,53 @@
+package com.criando.projeto.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Escolhe o pool de cada conexão: transações @Transactional(readOnly = true) feitas durante uma requisição HTTP vão
+// para a réplica, todo o resto (transações de escrita e acesso sem transação) para o primário. Depois da primeira
+// transação de escrita de uma requisição, as leituras seguintes da mesma requisição também vão para o primário:
+// a réplica pode ainda não ter recebido o que acabou de ser gravado (read-your-writes).
+// Fora de requisição (inicialização, jobs @Scheduled) tudo vai para o primário: esses trechos leem para depois
+// escrever ou montar estado em memória (OrderTotalsChecker, ProductSearchIndex) e precisam do dado mais recente.
+// A decisão depende do readOnly da transação, que só é conhecido depois do begin: por isso fica atrás de um
+// LazyConnectionDataSourceProxy, que só pega a conexão de verdade no primeiro SQL (ver ReplicaDataSourceConfig)
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {PRIMARY, REPLICA}
+
+    private static final String STICKY_ATTRIBUTE = ReadReplicaRoutingDataSource.class.getName() + ".primary";
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentTarget();
+    }
+
+    public static Target currentTarget() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return Target.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Qualquer transação que não é readOnly conta como escrita
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                request.setAttribute(STICKY_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+            }
+            return Target.PRIMARY;
+        }
+        if (request.getAttribute(STICKY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+}
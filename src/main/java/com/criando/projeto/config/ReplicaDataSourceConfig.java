@@ -0,0 +1,64 @@
+package com.criando.projeto.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Réplica de leitura: só liga quando spring.datasource.replica.url está definida (senão fica o DataSource único do
+// Spring Boot). O primário continua configurado por spring.datasource.* / spring.datasource.hikari.* e a réplica por
+// spring.datasource.replica.* / spring.datasource.replica.hikari.*, com o mesmo formato.
+// O DataSource da aplicação passa a ser: LazyConnectionDataSourceProxy -> ReadReplicaRoutingDataSource -> pools
+@Configuration
+@ConditionalOnProperty("spring.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(Environment environment) {
+        DataSourceProperties properties = Binder.get(environment)
+                .bind("spring.datasource.replica", DataSourceProperties.class)
+                .get();
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        // Uma escrita que caia na réplica por engano falha em vez de divergir do primário
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    // Também é o DataSource que o AdmissionControlFilter recebe: o limite de admissão continua sendo o tamanho do
+    // pool primário (fora de transação o roteamento aponta para ele), que toda requisição de escrita usa
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource) {
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primaryDataSource, replicaDataSource));
+    }
+
+    // Por padrão o Hibernate segura a conexão até o EntityManager fechar, o que com open-in-view é o fim da
+    // requisição: uma leitura na réplica seguida de uma escrita na mesma requisição reusaria a conexão da réplica.
+    // Devolvendo a conexão ao fim de cada transação, cada transação é roteada de novo
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
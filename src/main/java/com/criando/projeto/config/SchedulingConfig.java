@@ -0,0 +1,11 @@
+package com.criando.projeto.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Habilita os jobs com @Scheduled (ex.: OrderTotalsChecker). Cada job tem seu cron configurável e
+// fica desligado quando o cron é "-"
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,65 @@
+package com.criando.projeto.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Alinha as sequences das entidades com os ids já gravados. Num banco criado quando os ids ainda eram IDENTITY, o
+// ddl-auto=update cria as sequences começando em 1 e os primeiros INSERTs colidiriam com as chaves existentes.
+// Roda antes dos demais runners (AdminInitializer, TestConfig, DataGenerator), antes de qualquer INSERT da aplicação.
+// Num banco já alinhado custa um nextval por sequence (uma faixa do pool fica sem uso).
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SequenceInitializer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceInitializer.class);
+
+    // allocationSize das @SequenceGenerator das entidades
+    private static final int ALLOCATION_SIZE = 50;
+    // sequence -> tabela cujos ids ela gera
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "tb_user_seq", "tb_user",
+            "tb_category_seq", "tb_category",
+            "tb_product_seq", "tb_product",
+            "tb_order_seq", "tb_order",
+            "tb_payment_seq", "tb_payment",
+            "tb_coupon_seq", "tb_coupon");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        SEQUENCES.forEach((sequence, table) -> align(dialect, sequence, table));
+    }
+
+    // O nextval devolve o fim da próxima faixa do Hibernate (valor - allocationSize + 1 até valor). Se a faixa
+    // alcança o maior id da tabela, a sequence é reiniciada para a faixa seguinte começar depois dele
+    void align(Dialect dialect, String sequence, String table) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        if (maxId == null) {
+            return;
+        }
+        Long current = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+        if (current - ALLOCATION_SIZE + 1 > maxId) {
+            return;
+        }
+        long restart = maxId + ALLOCATION_SIZE + 1;
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + restart);
+        log.info("Sequence {} reiniciada em {} (maior id de {}: {})", sequence, restart, table, maxId);
+    }
+}
@@ -75,9 +75,14 @@ public class TestConfig implements CommandLineRunner {
         orderItemRepository.saveAll(Arrays.asList(oi1, oi2, oi3, oi4));
 
 
+        // Os itens foram salvos direto pelo repositório: grava nos pedidos o total e a quantidade de itens
+        o1.recalculateTotals(Arrays.asList(oi1, oi2));
+        o2.recalculateTotals(Arrays.asList(oi3));
+        o3.recalculateTotals(Arrays.asList(oi4));
+
         Payment pay1 = new Payment(null, Instant.parse("2019-06-20T21:53:07Z"), o1, PaymentMethod.PAGAR_COM_PAGBANK);
         o1.setPayment(pay1);
-        orderRepository.save(o1);
+        orderRepository.saveAll(Arrays.asList(o1, o2, o3));
 
         Instant end = Instant.now();
         System.out.println("✅ Finalizou TestConfig em: " + end);
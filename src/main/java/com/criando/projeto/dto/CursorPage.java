@@ -0,0 +1,18 @@
+package com.criando.projeto.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Página de uma listagem por cursor (keyset): para buscar a próxima página basta enviar nextCursor
+// no parâmetro "cursor". nextCursor é null quando não há mais resultados.
+public record CursorPage<T>(List<T> content, int size, String nextCursor) {
+
+    // Monta a página a partir de uma consulta que buscou size + 1 linhas: a linha extra só indica que há próxima página
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, size, null);
+        }
+        List<T> page = rows.subList(0, size);
+        return new CursorPage<>(page, size, cursorOf.apply(page.get(size - 1)));
+    }
+}
@@ -0,0 +1,12 @@
+package com.criando.projeto.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+
+public record LoginRequest(
+        @NotBlank(message = "O e-mail não pode estar vazio.")
+        @Email(message = "O e-mail deve ser válido.")
+        String email,
+        @NotBlank(message = "A senha não pode estar vazia.")
+        String password) {
+}
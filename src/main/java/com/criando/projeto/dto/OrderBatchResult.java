@@ -0,0 +1,17 @@
+package com.criando.projeto.dto;
+
+import com.criando.projeto.entities.Order;
+import org.springframework.http.HttpStatus;
+
+// Resultado de um pedido do POST /orders/batch, na mesma posição (index) em que veio na requisição.
+// status segue o que o POST /orders responderia: 201 com id e total do pedido criado, ou 400/404 com o motivo em error
+public record OrderBatchResult(int index, int status, Long id, Double total, String error) {
+
+    public static OrderBatchResult created(int index, Order order) {
+        return new OrderBatchResult(index, HttpStatus.CREATED.value(), order.getId(), order.getTotal(), null);
+    }
+
+    public static OrderBatchResult failed(int index, HttpStatus status, String error) {
+        return new OrderBatchResult(index, status.value(), null, null, error);
+    }
+}
@@ -0,0 +1,17 @@
+package com.criando.projeto.dto;
+
+import com.criando.projeto.entities.enums.OrderStatus;
+
+// Projeção mínima de um pedido para checagem de acesso: só o dono e o status,
+// lidos da própria linha de tb_order pela chave primária (sem join com usuário, pagamento ou cupom)
+public record OrderOwnership(Long clientId, OrderStatus orderStatus) {
+
+    // Construtor usado pela consulta JPQL, que lê o status como o código gravado no banco
+    public OrderOwnership(Long clientId, Integer orderStatusCode) {
+        this(clientId, orderStatusCode != null ? OrderStatus.fromString(orderStatusCode.toString()) : null);
+    }
+
+    public boolean isOwnedBy(Long userId) {
+        return clientId != null && clientId.equals(userId);
+    }
+}
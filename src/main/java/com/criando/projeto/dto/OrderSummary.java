@@ -0,0 +1,29 @@
+package com.criando.projeto.dto;
+
+import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.util.Money;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.Instant;
+
+// Linha da listagem resumida de pedidos (GET /orders/summary). Total e quantidade de itens vêm das colunas
+// gravadas em tb_order, então nenhum item do pedido é carregado na memória
+public record OrderSummary(
+        Long id,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'", timezone = "GMT")
+        Instant moment,
+        OrderStatus orderStatus,
+        String clientName,
+        Double total,
+        Integer itemCount) {
+
+    // Construtor usado pela consulta (OrderRepositoryCustomImpl): status vem como código e o total em centavos
+    public OrderSummary(Long id, Instant moment, Integer orderStatusCode, String clientName,
+                        Long totalCents, Integer itemCount) {
+        this(id, moment,
+                orderStatusCode != null ? OrderStatus.fromString(orderStatusCode.toString()) : null,
+                clientName,
+                Money.toDouble(totalCents != null ? totalCents : 0L),
+                itemCount);
+    }
+}
@@ -0,0 +1,36 @@
+package com.criando.projeto.dto;
+
+import com.criando.projeto.util.Money;
+
+// Totais de um pedido como estão gravados em tb_order e como deveriam ser, recalculados pelo banco a partir dos itens.
+// Usado pelo OrderTotalsChecker para achar e corrigir divergências; version é a do pedido no momento da leitura
+public record OrderTotals(
+        Long id,
+        Long version,
+        Long storedSubtotalCents,
+        Long storedTotalCents,
+        Integer storedItemCount,
+        Long itemsCents,
+        Long itemUnits,
+        Double discountPercentage) {
+
+    public long expectedSubtotalCents() {
+        return itemsCents != null ? itemsCents : 0L;
+    }
+
+    // Mesma regra de Order: desconto do cupom sobre o subtotal, truncado no centavo
+    public long expectedTotalCents() {
+        long subtotal = expectedSubtotalCents();
+        return discountPercentage != null ? Money.applyDiscount(subtotal, discountPercentage) : subtotal;
+    }
+
+    public int expectedItemCount() {
+        return itemUnits != null ? itemUnits.intValue() : 0;
+    }
+
+    public boolean hasDrift() {
+        return storedSubtotalCents != expectedSubtotalCents()
+                || storedTotalCents != expectedTotalCents()
+                || storedItemCount != expectedItemCount();
+    }
+}
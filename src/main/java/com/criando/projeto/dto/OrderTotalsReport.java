@@ -0,0 +1,8 @@
+package com.criando.projeto.dto;
+
+import java.util.List;
+
+// Resultado de uma execução do OrderTotalsChecker: quantos pedidos foram conferidos, quantos estavam
+// com total/quantidade de itens divergentes (e foram corrigidos) e uma amostra dos IDs corrigidos
+public record OrderTotalsReport(long checked, long drifted, List<Long> driftedIds) {
+}
@@ -0,0 +1,5 @@
+package com.criando.projeto.dto;
+
+// Uma linha de tb_product_category, para o ProductSearchIndex saber as categorias de cada produto
+public record ProductCategoryLink(Long productId, Long categoryId) {
+}
@@ -0,0 +1,32 @@
+package com.criando.projeto.dto;
+
+import com.criando.projeto.util.Money;
+import com.criando.projeto.util.ProductColumns;
+
+import java.util.List;
+import java.util.Map;
+
+// Resposta do GET /products/facets: quantos produtos atendem ao filtro, quantos há em cada categoria
+// e em cada faixa de preço [min, max) (só as faixas com produtos). Valores em reais, como no JSON do produto
+public record ProductFacets(long total, List<CategoryCount> categories, List<PriceBucket> prices) {
+
+    public record CategoryCount(Long id, String name, long count) {
+    }
+
+    public record PriceBucket(Double min, Double max, long count) {
+    }
+
+    // Categorias sem nome conhecido (removidas depois da contagem) ficam de fora
+    public static ProductFacets from(ProductColumns.Counts counts, Map<Long, String> categoryNames, long bucketCents) {
+        List<CategoryCount> categories = counts.byCategory().entrySet().stream()
+                .filter(entry -> categoryNames.containsKey(entry.getKey()))
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> new CategoryCount(entry.getKey(), categoryNames.get(entry.getKey()), entry.getValue()))
+                .toList();
+        List<PriceBucket> prices = counts.byPriceBucket().entrySet().stream()
+                .map(entry -> new PriceBucket(Money.toDouble(entry.getKey()),
+                        Money.toDouble(entry.getKey() + bucketCents), entry.getValue()))
+                .toList();
+        return new ProductFacets(counts.total(), categories, prices);
+    }
+}
@@ -0,0 +1,32 @@
+package com.criando.projeto.dto;
+
+import com.criando.projeto.entities.Category;
+import com.criando.projeto.entities.Product;
+
+import java.util.List;
+
+// Cópia imutável de um produto e de suas categorias, guardada no CatalogCache no lugar da entidade: cada leitura
+// monta um Product novo, então quem o recebe pode alterá-lo à vontade e nada no cache depende de uma sessão do
+// Hibernate (as categorias precisam estar carregadas quando a cópia é feita)
+public record ProductSnapshot(Long id, String name, String description, Long priceCents,
+                              List<CategorySnapshot> categories) {
+
+    public record CategorySnapshot(Long id, String name) {
+    }
+
+    public static ProductSnapshot of(Product product) {
+        return new ProductSnapshot(product.getId(), product.getName(), product.getDescription(),
+                product.getPriceCents(), product.getCategories().stream()
+                        .map(category -> new CategorySnapshot(category.getId(), category.getName()))
+                        .toList());
+    }
+
+    public Product toProduct() {
+        Product product = new Product(id, name, description, null);
+        product.setPriceCents(priceCents);
+        for (CategorySnapshot category : categories) {
+            product.getCategories().add(new Category(category.id(), category.name()));
+        }
+        return product;
+    }
+}
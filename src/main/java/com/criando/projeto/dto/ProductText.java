@@ -0,0 +1,5 @@
+package com.criando.projeto.dto;
+
+// Só os campos do produto usados pelo ProductSearchIndex (textos e preço), para montá-lo sem carregar entidades
+public record ProductText(Long id, String name, String description, Long priceCents) {
+}
@@ -0,0 +1,9 @@
+package com.criando.projeto.dto;
+
+// Resposta do login: o token deve ser enviado no header "Authorization: Bearer <token>"
+public record TokenResponse(String token, String type, long expiresIn) {
+
+    public TokenResponse(String token, long expiresIn) {
+        this(token, "Bearer", expiresIn);
+    }
+}
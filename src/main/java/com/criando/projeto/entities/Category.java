@@ -14,7 +14,8 @@ import java.util.Set;
 public class Category implements Serializable {
     private static final long serialVersionUID = 1L;
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_category_seq")
+    @SequenceGenerator(name = "tb_category_seq", sequenceName = "tb_category_seq", allocationSize = 50)
     private Long id;
     @NotBlank
     private String name;
@@ -12,7 +12,8 @@ import jakarta.validation.constraints.NotNull;
 public class Coupon {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_coupon_seq")
+    @SequenceGenerator(name = "tb_coupon_seq", sequenceName = "tb_coupon_seq", allocationSize = 50)
     private Long id;
     @Column(unique = true)
     @NotBlank
@@ -23,7 +24,7 @@ public class Coupon {
     private Double discountPercentage;
 
     @JsonIgnore
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY) // Nunca é serializado: não precisa buscar o pedido junto com o cupom
     private Order coupon_discount;
 
     public Coupon() {
@@ -0,0 +1,125 @@
+package com.criando.projeto.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+// Resposta gravada para uma Idempotency-Key (ver IdempotencyStore). O id é o SHA-256 de usuário + método + caminho +
+// chave, então a mesma chave enviada por usuários ou endpoints diferentes nunca se confunde.
+// Enquanto a requisição original está em andamento o registro fica sem status (pendente), com um prazo curto:
+// se a instância cair no meio, a chave volta a ficar livre quando o prazo vence.
+@Entity
+@Table(name = "tb_idempotency_key", indexes = @Index(name = "idx_idempotency_key_expires_at", columnList = "expires_at"))
+// Persistable: o id já vem preenchido; com isNew() o save é um persist e uma chave repetida falha na chave
+// primária em vez de virar um merge que sobrescreveria o registro de outra requisição
+public class IdempotencyRecord implements Serializable, Persistable<String> {
+    private static final long serialVersionUID = 1L;
+
+    public static final int MAX_BODY_LENGTH = 1_000_000;
+
+    @Id
+    @Column(length = 64)
+    private String id;
+    // SHA-256 do corpo da requisição original: a mesma chave com outro corpo é recusada
+    @Column(name = "request_hash", length = 64, nullable = false)
+    private String requestHash;
+    // Identifica a requisição que reservou a chave: só ela grava a resposta ou libera a chave. Se o registro
+    // pendente vencer e outra requisição reservar a mesma chave, a primeira não mexe mais no registro da segunda
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+    private Integer status;
+    @Column(name = "content_type")
+    private String contentType;
+    @Column(length = 2048)
+    private String location;
+    @Column(length = MAX_BODY_LENGTH)
+    private byte[] body;
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+    @Transient
+    private boolean newRecord = true;
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String id, String requestHash, String claimToken, Instant expiresAt) {
+        this.id = id;
+        this.requestHash = requestHash;
+        this.claimToken = claimToken;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public String getClaimToken() {
+        return claimToken;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isPending() {
+        return status == null;
+    }
+
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    @PrePersist
+    @PostLoad
+    void markNotNew() {
+        this.newRecord = false;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        IdempotencyRecord that = (IdempotencyRecord) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+}
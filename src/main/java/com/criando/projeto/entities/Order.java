@@ -1,25 +1,42 @@
 package com.criando.projeto.entities;
 
 import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.util.Money;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonSetter;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.io.Serializable;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
 @Entity
-@Table(name = "tb_order")
+// Associações "to-one" carregadas junto com o pedido (JOIN) na listagem; os itens vêm em lote via @BatchSize
+@NamedEntityGraph(name = "Order.listing", attributeNodes = {
+        @NamedAttributeNode("client"),
+        @NamedAttributeNode("payment"),
+        @NamedAttributeNode("discount")
+})
+@Table(name = "tb_order", indexes = {
+        // Índice da listagem por cursor (OrderQueryFilter.KEYSET_SORT)
+        @Index(name = "idx_order_moment_id", columnList = "moment, id")
+})
 public class Order implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence com otimizador pooled (allocationSize): o Hibernate reserva 50 ids por ida ao banco e, ao contrário
+    // de IDENTITY, não precisa executar o INSERT na hora para saber o id, o que permite agrupar os INSERTs em lotes JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_order_seq")
+    @SequenceGenerator(name = "tb_order_seq", sequenceName = "tb_order_seq", allocationSize = 50)
     private Long id;
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'", timezone = "GMT")
     private Instant moment;
@@ -29,12 +46,32 @@ public class Order implements Serializable {
     @JsonIgnoreProperties({"email", "phone", "password", "role"})
     private User client;
     @OneToMany(mappedBy = "id.order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100) // Itens de até 100 pedidos em uma única consulta (IN), em vez de uma por pedido
     private Set<OrderItem> items = new HashSet<>();
     @OneToOne(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private Payment payment;
     @OneToOne
     @JoinColumn(name = "coupon_id", nullable = true)
     private Coupon discount;
+    // Totais gravados na própria linha do pedido, para ler, ordenar e filtrar por valor sem carregar os itens.
+    // São mantidos a cada alteração de itens/cupom pelos métodos abaixo (addItem, removeItem, changeItemQuantity,
+    // setDiscount) e conferidos em lote pelo OrderTotalsChecker
+    @ColumnDefault("0")
+    @Column(name = "items_subtotal_cents")
+    private long itemsSubtotalCents;
+    @ColumnDefault("0")
+    @Column(name = "total_cents")
+    private long totalCents;
+    @ColumnDefault("0")
+    @Column(name = "item_count")
+    private int itemCount;
+    // Controle de concorrência otimista: todo UPDATE do pedido confere e incrementa a versão, então duas escritas que
+    // partiram da mesma leitura não se sobrescrevem (a segunda falha e vira 409, ou é repetida, ver OptimisticRetry).
+    // Alterar itens ou cupom muda os totais acima, então também passa pela versão do pedido
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    private long version;
 
 
     public Order() {
@@ -54,6 +91,7 @@ public class Order implements Serializable {
         this.items = items != null ? items : new HashSet<>();
         this.discount = discount != null ? discount : null;
         this.payment = payment;
+        recalculateTotals(this.items);
     }
 
     public Long getId() {
@@ -91,21 +129,39 @@ public class Order implements Serializable {
     }
     public void setItems(Set<OrderItem> items) {
         this.items = (items != null) ? items : new HashSet<>();
+        recalculateTotals(this.items);
+    }
+    // Itens lidos do JSON da requisição: linhas repetidas do mesmo produto somam as quantidades (ver OrderItem)
+    @JsonSetter("items")
+    private void setItemsFromJson(List<OrderItem> items) {
+        setItems(items != null ? OrderItem.mergeByProduct(items) : null);
     }
     public void addItem(OrderItem item) {
-        if (item != null) {
-            this.items.add(item);
+        if (item != null && this.items.add(item)) {
+            applyItemDelta(item.getSubTotalCents(), item.getQuantity());
+        }
+    }
+    public void removeItem(OrderItem item) {
+        if (item != null && this.items.remove(item)) {
+            applyItemDelta(-item.getSubTotalCents(), -item.getQuantity());
         }
     }
+    // Altera a quantidade de um item que já está no pedido, ajustando os totais só pela diferença
+    public void changeItemQuantity(OrderItem item, int quantity) {
+        int delta = quantity - item.getQuantity();
+        item.setQuantity(quantity);
+        applyItemDelta(item.getPriceCents() * delta, delta);
+    }
 
     public Coupon getDiscount() {
         return discount;
     }
     public void setDiscount(Coupon discount) {
         this.discount = (discount != null) ? discount : null;
+        refreshTotal();
     }
     public void applyCoupon(Coupon coupon) {
-        this.discount = coupon;
+        setDiscount(coupon);
     }
 
     @PrePersist
@@ -116,15 +172,65 @@ public class Order implements Serializable {
     }
 
     public Double getTotal() {
-        Double total = 0.0;
+        return Money.toDouble(totalCents);
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @JsonIgnore
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    @JsonIgnore
+    public long getItemsSubtotalCents() {
+        return itemsSubtotalCents;
+    }
+
+    // Recalcula os totais do zero a partir dos itens informados (criação do pedido e correção de divergências)
+    public void recalculateTotals(Collection<OrderItem> orderItems) {
+        long subtotal = 0;
+        int count = 0;
+        for (OrderItem item : orderItems) {
+            subtotal += item.getSubTotalCents();
+            count += item.getQuantity();
+        }
+        this.itemsSubtotalCents = subtotal;
+        this.itemCount = count;
+        refreshTotal();
+    }
+
+    // Total calculado a partir dos itens carregados, sem usar as colunas gravadas (usado para conferência)
+    public long computeTotalCents() {
+        long subtotal = 0;
         for (OrderItem item : items) {
-            total += item.getSubTotal();
+            subtotal += item.getSubTotalCents();
         }
-        if (discount != null) {
-            total -= total * (discount.getDiscountPercentage() / 100);
+        return discountedTotal(subtotal);
+    }
+
+    private void applyItemDelta(long subtotalDeltaCents, int quantityDelta) {
+        this.itemsSubtotalCents += subtotalDeltaCents;
+        this.itemCount += quantityDelta;
+        refreshTotal();
+    }
+
+    // Total em centavos: desconto do cupom sobre o subtotal, truncado no centavo (ver Money)
+    private void refreshTotal() {
+        this.totalCents = discountedTotal(itemsSubtotalCents);
+    }
+
+    private long discountedTotal(long subtotalCents) {
+        if (discount != null && discount.getDiscountPercentage() != null) {
+            return Money.applyDiscount(subtotalCents, discount.getDiscountPercentage());
         }
-        BigDecimal totalBigDecimal = new BigDecimal(String.valueOf(total)).setScale(2, RoundingMode.DOWN);
-        return totalBigDecimal.doubleValue();
+        return subtotalCents;
     }
 
 
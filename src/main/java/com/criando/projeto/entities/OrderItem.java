@@ -1,26 +1,45 @@
 package com.criando.projeto.entities;
 
 import com.criando.projeto.entities.pk.OrderItemPk;
+import com.criando.projeto.util.Money;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.hibernate.annotations.ColumnDefault;
+import org.springframework.data.domain.Persistable;
 import org.springframework.format.annotation.NumberFormat;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 @Entity
 @Table(name = "tb_order_item")
-public class OrderItem implements Serializable {
+// Persistable: a chave composta já vem preenchida (pedido + produto), então o save do Spring Data sempre faria merge,
+// com um SELECT por item antes do INSERT. Com isNew() o saveAll de itens novos vira persist e os INSERTs saem em lote.
+public class OrderItem implements Serializable, Persistable<OrderItemPk> {
     private static final long serialVersionUID = 1L;
 
     @EmbeddedId
     private OrderItemPk id = new OrderItemPk();
     private Integer quantity;
-    @NumberFormat(pattern = "#,##0.00")
-    private Double price;
+    // Preço do produto no momento do pedido, em centavos (ver Money). O default permite criar a coluna NOT NULL numa
+    // tabela já populada; o valor vem da coluna antiga (ver PriceCentsMigration)
+    @ColumnDefault("0")
+    @Column(name = "price_cents")
+    private long priceCents;
+    @Transient
+    private boolean newItem = true;
 
     public OrderItem() {
     }
@@ -28,7 +47,7 @@ public class OrderItem implements Serializable {
         id.setOrder(order);
         id.setProduct(product);
         this.quantity = quantity;
-        this.price = product.getPrice();
+        copyPriceFrom(product);
     }
 
     @JsonIgnore
@@ -43,7 +62,7 @@ public class OrderItem implements Serializable {
     }
     public void setProduct(Product product) {
         id.setProduct(product);
-        this.price = product.getPrice();
+        copyPriceFrom(product);
     }
     public Integer getQuantity() {
         return quantity;
@@ -51,20 +70,82 @@ public class OrderItem implements Serializable {
     public void setQuantity(Integer quantity) {
         this.quantity = quantity;
     }
+
+    // Itens enviados pelo cliente: o mesmo produto em mais de uma linha vira um item só, com as quantidades somadas.
+    // Num Set a segunda linha seria descartada em silêncio, por ter a mesma chave (pedido + produto).
+    // Os itens recebidos não são alterados (o OptimisticRetry pode juntar a mesma lista de novo); se alguma das
+    // quantidades falta, o item fica sem quantidade e é recusado como qualquer item sem quantidade
+    public static Set<OrderItem> mergeByProduct(Collection<OrderItem> items) {
+        Set<OrderItem> merged = new HashSet<>();
+        Map<Long, OrderItem> byProduct = new LinkedHashMap<>();
+        for (OrderItem item : items) {
+            if (item == null) {
+                continue;
+            }
+            Long productId = item.getProduct() != null ? item.getProduct().getId() : null;
+            OrderItem first = productId != null ? byProduct.get(productId) : null;
+            if (productId == null) {
+                merged.add(item);
+            } else if (first == null) {
+                byProduct.put(productId, item);
+            } else {
+                Integer quantity = first.getQuantity() != null && item.getQuantity() != null
+                        ? first.getQuantity() + item.getQuantity() : null;
+                byProduct.put(productId, new OrderItem(null, first.getProduct(), quantity));
+            }
+        }
+        merged.addAll(byProduct.values());
+        return merged;
+    }
+
+    @NumberFormat(pattern = "#,##0.00")
     public Double getPrice() {
-        return price;
+        return Money.toDouble(priceCents);
     }
     public void setPrice(Double price) {
-        this.price = price;
+        this.priceCents = Money.toCents(price);
+    }
+    @JsonIgnore
+    public long getPriceCents() {
+        return priceCents;
+    }
+    public void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
     }
 
+    @Override
     @JsonIgnore
     public OrderItemPk getId() {
         return id;
     }
 
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newItem;
+    }
+
+    // Ao ser persistido (o INSERT só sai no flush) ou carregado do banco, o item deixa de ser novo
+    @PrePersist
+    @PostLoad
+    void markNotNew() {
+        this.newItem = false;
+    }
+
     public Double getSubTotal() {
-        return price * quantity;
+        return Money.toDouble(getSubTotalCents());
+    }
+
+    @JsonIgnore
+    public long getSubTotalCents() {
+        return priceCents * quantity;
+    }
+
+    // Produto ainda sem preço (só com o id, vindo da requisição) não altera o preço do item
+    private void copyPriceFrom(Product product) {
+        if (product != null && product.getPriceCents() != null) {
+            this.priceCents = product.getPriceCents();
+        }
     }
 
     @Override
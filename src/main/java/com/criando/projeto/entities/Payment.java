@@ -14,7 +14,8 @@ import java.util.Objects;
 public class Payment implements Serializable {
     private static final long serialVersionUID = 1L;
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_payment_seq")
+    @SequenceGenerator(name = "tb_payment_seq", sequenceName = "tb_payment_seq", allocationSize = 50)
     private Long id;
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'", timezone = "GMT")
     private Instant moment = Instant.now();
@@ -1,7 +1,9 @@
 package com.criando.projeto.entities;
 
+import com.criando.projeto.util.Money;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -16,19 +18,24 @@ import java.util.Set;
 public class Product implements Serializable {
     private static final long serialVersionUID = 1L;
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_product_seq")
+    @SequenceGenerator(name = "tb_product_seq", sequenceName = "tb_product_seq", allocationSize = 50)
     private Long id;
     @NotBlank(message = "O nome do produto não pode estar vazio.")
     private String name;
     @NotBlank
     private String description;
-    @NotNull
-    @Positive
-    private Double price;
+    // Preço em centavos (ver Money); no JSON continua sendo "price" em reais
+    @Column(name = "price_cents")
+    private Long priceCents;
     @ManyToMany
+    // A chave primária (product_id, category_id) não serve para ir da categoria aos produtos (filtro por
+    // categoria, exclusão de categoria): o índice invertido cobre esse caminho sem ler a tabela
     @JoinTable(name = "tb_product_category",
             joinColumns = @JoinColumn(name = "product_id"),
-            inverseJoinColumns = @JoinColumn(name = "category_id"))
+            inverseJoinColumns = @JoinColumn(name = "category_id"),
+            indexes = @Index(name = "idx_product_category_category_product", columnList = "category_id, product_id"))
+    @BatchSize(size = 100) // Categorias de vários produtos em uma única consulta ao serializar pedidos/listas
     private Set<Category> categories = new HashSet<>();
     @OneToMany(mappedBy = "id.product")
     private Set<OrderItem> items = new HashSet<>();
@@ -40,7 +47,7 @@ public class Product implements Serializable {
         this.id = id;
         this.name = name;
         this.description = description;
-        this.price = price;
+        setPrice(price);
     }
 
     public Long getId() {
@@ -61,11 +68,20 @@ public class Product implements Serializable {
     public void setDescription(String description) {
         this.description = description;
     }
+    @NotNull
+    @Positive
     public Double getPrice() {
-        return price;
+        return Money.toDoubleOrNull(priceCents);
     }
     public void setPrice(Double price) {
-        this.price = price;
+        this.priceCents = Money.toCentsOrNull(price);
+    }
+    @JsonIgnore
+    public Long getPriceCents() {
+        return priceCents;
+    }
+    public void setPriceCents(Long priceCents) {
+        this.priceCents = priceCents;
     }
     public Set<Category> getCategories() {
         return categories;
@@ -17,7 +17,8 @@ public class User implements Serializable {
     
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_user_seq")
+    @SequenceGenerator(name = "tb_user_seq", sequenceName = "tb_user_seq", allocationSize = 50)
     private Long id;
     @NotBlank(message = "O nome não pode estar vazio.")
     @Size(min = 3, max = 100, message = "O nome deve ter entre 3 e 100 caracteres.")
@@ -0,0 +1,34 @@
+package com.criando.projeto.queryFIlters;
+
+import com.criando.projeto.entities.Order;
+import com.criando.projeto.services.exceptions.InvalidQueryParameterException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+// Posição na listagem de pedidos ordenada por (moment, id): é a chave do último pedido da página anterior.
+// Vai para o cliente como um token opaco em base64.
+public record OrderCursor(Instant moment, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static OrderCursor of(Order order) {
+        return new OrderCursor(order.getMoment(), order.getId());
+    }
+
+    public String encode() {
+        String raw = moment.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new OrderCursor(Instant.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidQueryParameterException("Cursor inválido: " + token);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.criando.projeto.queryFIlters;
 import com.criando.projeto.entities.Order;
+import com.criando.projeto.services.exceptions.InvalidQueryParameterException;
 import lombok.Data;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import static com.criando.projeto.specifications.OrderSpec.*;
@@ -8,8 +10,18 @@ import static com.criando.projeto.specifications.OrderSpec.*;
 @Data
 public class OrderQueryFilter {
 
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    // Ordenação estável usada pelo cursor: mais recentes primeiro e o id desempata pedidos no mesmo instante
+    public static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "moment").and(Sort.by(Sort.Direction.DESC, "id"));
+
     private String orderStatus;
     private Long userId;
+    private Double minTotal;
+    private Double maxTotal;
+    private Integer size;
+    private String cursor; // nextCursor devolvido pela página anterior
 
     public Specification<Order> toSpecification() {
         Specification<Order> spec = Specification.where(null);
@@ -22,6 +34,29 @@ public class OrderQueryFilter {
             spec = spec.and(orderStatusEquals(orderStatus));
         }
 
+        if (minTotal != null) {
+            spec = spec.and(totalGreaterThanOrEqualTo(minTotal));
+        }
+
+        if (maxTotal != null) {
+            spec = spec.and(totalLessThanOrEqualTo(maxTotal));
+        }
+
+        if (cursor != null && !cursor.isEmpty()) {
+            OrderCursor position = OrderCursor.decode(cursor);
+            spec = spec.and(after(position.moment(), position.id()));
+        }
+
         return spec;
     }
+
+    public int pageSize() {
+        if (size == null) {
+            return DEFAULT_SIZE;
+        }
+        if (size < 1 || size > MAX_SIZE) {
+            throw new InvalidQueryParameterException("O parâmetro size deve estar entre 1 e " + MAX_SIZE);
+        }
+        return size;
+    }
 }
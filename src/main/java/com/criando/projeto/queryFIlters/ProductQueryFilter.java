@@ -1,5 +1,6 @@
 package com.criando.projeto.queryFIlters;
 import com.criando.projeto.entities.Product;
+import com.criando.projeto.util.Money;
 import static com.criando.projeto.specifications.ProductSpec.*;
 import lombok.Data;
 import org.springframework.data.jpa.domain.Specification;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.domain.Specification;
 
 public class ProductQueryFilter {
     private String name;
+    private String description;
     private String categoryName;
     private Double minPrice;
     private Double maxPrice;
@@ -19,6 +21,10 @@ public class ProductQueryFilter {
             spec = spec.and(nameContains(name));
         }
 
+        if (description != null && !description.isEmpty()) {
+            spec = spec.and(descriptionContains(description));
+        }
+
         if (categoryName != null && !categoryName.isEmpty()) {
             spec = spec.and(categoryNameContains(categoryName));
         }
@@ -33,4 +39,18 @@ public class ProductQueryFilter {
 
         return spec;
     }
+
+    // Chave do CatalogCache: filtros que geram a mesma consulta viram a mesma chave
+    // (texto vazio = sem filtro, preços comparados em centavos como na Specification)
+    public CacheKey cacheKey() {
+        return new CacheKey(emptyToNull(name), emptyToNull(description), emptyToNull(categoryName),
+                Money.toCentsOrNull(minPrice), Money.toCentsOrNull(maxPrice));
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    public record CacheKey(String name, String description, String categoryName, Long minPriceCents, Long maxPriceCents) {
+    }
 }
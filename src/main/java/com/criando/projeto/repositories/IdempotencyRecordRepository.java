@@ -0,0 +1,48 @@
+package com.criando.projeto.repositories;
+
+import com.criando.projeto.entities.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Transação de escrita (não readOnly): com réplica de leitura (ReplicaDataSourceConfig), a reserva da chave
+    // precisa ver o estado atual do primário, não o da réplica, que pode estar atrasada
+    @Override
+    @Transactional
+    Optional<IdempotencyRecord> findById(String id);
+
+    // Grava a resposta no registro pendente reservado com claimToken; 0 se ele não existe mais (expirou e foi
+    // removido) ou já é de outra requisição
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.status = :status, r.contentType = :contentType, r.location = :location, " +
+            "r.body = :body, r.expiresAt = :expiresAt " +
+            "where r.id = :id and r.claimToken = :claimToken and r.status is null")
+    int complete(@Param("id") String id, @Param("claimToken") String claimToken, @Param("status") int status,
+                 @Param("contentType") String contentType, @Param("location") String location,
+                 @Param("body") byte[] body, @Param("expiresAt") Instant expiresAt);
+
+    // Apaga só o registro pendente reservado com claimToken (nunca uma resposta guardada ou a reserva de outra requisição)
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id and r.claimToken = :claimToken and r.status is null")
+    int releaseClaim(@Param("id") String id, @Param("claimToken") String claimToken);
+
+    // Só remove se ainda estiver vencido: outra instância pode ter acabado de criar um registro novo com o mesmo id
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id and r.expiresAt <= :now")
+    int deleteIfExpired(@Param("id") String id, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,9 +1,56 @@
 package com.criando.projeto.repositories;
 
+import com.criando.projeto.dto.OrderOwnership;
+import com.criando.projeto.dto.OrderTotals;
 import com.criando.projeto.entities.Order;
+import com.criando.projeto.util.Money;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.data.repository.query.Param;
 
-public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>, OrderRepositoryCustom {
     boolean existsByIdAndClient_Email(Long id, String email);
+
+    // Listagem por Specification (OrderServices.findOrders): client, payment e discount vêm no mesmo SELECT
+    @Override
+    @EntityGraph("Order.listing")
+    <S extends Order, R> R findBy(Specification<Order> spec, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction);
+
+    // o.client.id usa a coluna client_id de tb_order: a busca é pela chave primária, sem join com tb_user
+    @Query("select new com.criando.projeto.dto.OrderOwnership(o.client.id, o.orderStatus) from Order o where o.id = :id")
+    Optional<OrderOwnership> findOwnershipById(@Param("id") Long id);
+
+    // Totais gravados x recalculados a partir dos itens, em lotes por id crescente (OrderTotalsChecker)
+    @Query("select new com.criando.projeto.dto.OrderTotals(o.id, o.version, o.itemsSubtotalCents, o.totalCents, o.itemCount, " +
+            "sum(i.priceCents * i.quantity), sum(i.quantity), d.discountPercentage) " +
+            "from Order o left join o.items i left join o.discount d " +
+            "where o.id > :afterId " +
+            "group by o.id, o.version, o.itemsSubtotalCents, o.totalCents, o.itemCount, d.discountPercentage " +
+            "order by o.id")
+    List<OrderTotals> findTotalsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Modifying
+    // Mesma trava otimista da entidade (ver Order.version): só grava se o pedido ainda estiver na versão lida
+    // (senão devolve 0 e nada muda) e sobe a versão, para que quem leu o pedido antes da correção não grave por cima dela
+    @Query("update Order o set o.itemsSubtotalCents = :subtotal, o.totalCents = :total, o.itemCount = :itemCount, " +
+            "o.version = o.version + 1 where o.id = :id and o.version = :readVersion")
+    int updateTotals(@Param("id") Long id, @Param("readVersion") long readVersion, @Param("subtotal") long subtotal,
+                     @Param("total") long total, @Param("itemCount") int itemCount);
+
+    @Modifying
+    // Reaplica o desconto de um cupom alterado ao subtotal gravado dos pedidos que o usam, como Money.applyDiscount
+    // (subtotal e percentual restante não são negativos: a divisão inteira do banco trunca como o floorDiv)
+    @Query("update Order o set o.totalCents = o.itemsSubtotalCents * :keptBasisPoints / " + Money.BASIS_POINTS + ", " +
+            "o.version = o.version + 1 where o.discount.id = :couponId")
+    int reapplyDiscount(@Param("couponId") Long couponId, @Param("keptBasisPoints") long keptBasisPoints);
 }
@@ -0,0 +1,21 @@
+package com.criando.projeto.repositories;
+
+import com.criando.projeto.dto.OrderSummary;
+import com.criando.projeto.entities.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Consultas de Order que não dá para expressar com métodos derivados nem com @Query
+public interface OrderRepositoryCustom {
+
+    // Resumo dos pedidos que atendem a spec, na ordem pedida, limitado a "limit" linhas
+    List<OrderSummary> findSummaries(Specification<Order> spec, Sort sort, int limit);
+
+    // Percorre todos os pedidos que atendem a spec, na ordem pedida, por um cursor só para frente (o banco entrega
+    // fetchSize linhas por vez) e os entrega em blocos de até fetchSize pedidos. Depois de cada bloco o contexto de
+    // persistência é limpo, então a memória depende do tamanho do bloco e não do total. Precisa de uma transação
+    void forEachChunk(Specification<Order> spec, Sort sort, int fetchSize, Consumer<List<Order>> chunkConsumer);
+}
@@ -0,0 +1,82 @@
+package com.criando.projeto.repositories;
+
+import com.criando.projeto.dto.OrderSummary;
+import com.criando.projeto.entities.Order;
+import com.criando.projeto.entities.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Uma única consulta só sobre tb_order (+ nome do cliente): total e quantidade de itens são as colunas
+    // gravadas no próprio pedido, sem join nem agregação dos itens
+    @Override
+    public List<OrderSummary> findSummaries(Specification<Order> spec, Sort sort, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderSummary> query = builder.createQuery(OrderSummary.class);
+        Root<Order> order = query.from(Order.class);
+        Join<Order, User> client = order.join("client", JoinType.LEFT);
+        query.select(builder.construct(OrderSummary.class,
+                order.get("id"), order.get("moment"), order.get("orderStatus"), client.get("name"),
+                order.get("totalCents"), order.get("itemCount")));
+        Predicate predicate = spec != null ? spec.toPredicate(order, query, builder) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, order, builder));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    // Stream do Hibernate = ScrollableResults só para frente: cada linha vira um pedido quando é lida, e o fetch size
+    // faz o driver buscar as linhas aos poucos em vez de trazer o resultado inteiro. Os pedidos são somente leitura
+    // (sem cópia para dirty checking) e os itens de cada bloco vêm em lote (@BatchSize) quando são acessados
+    @Override
+    public void forEachChunk(Specification<Order> spec, Sort sort, int fetchSize, Consumer<List<Order>> chunkConsumer) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Order> query = builder.createQuery(Order.class);
+        Root<Order> order = query.from(Order.class);
+        // Mesmas associações do grafo Order.listing: "to-one", então não repetem linhas
+        order.fetch("client", JoinType.LEFT);
+        order.fetch("payment", JoinType.LEFT);
+        order.fetch("discount", JoinType.LEFT);
+        Predicate predicate = spec != null ? spec.toPredicate(order, query, builder) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, order, builder));
+
+        List<Order> chunk = new ArrayList<>(fetchSize);
+        try (Stream<Order> orders = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            // O bloco é entregue e o contexto limpo antes de a próxima linha ser lida
+            orders.forEachOrdered(next -> {
+                chunk.add(next);
+                if (chunk.size() == fetchSize) {
+                    chunkConsumer.accept(chunk);
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            });
+        }
+        if (!chunk.isEmpty()) {
+            chunkConsumer.accept(chunk);
+            entityManager.clear();
+        }
+    }
+}
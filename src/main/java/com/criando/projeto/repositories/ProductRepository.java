@@ -1,9 +1,25 @@
 package com.criando.projeto.repositories;
 
+import com.criando.projeto.dto.ProductCategoryLink;
+import com.criando.projeto.dto.ProductText;
 import com.criando.projeto.entities.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
+    // Textos e preço dos produtos em páginas por id (keyset), usado para (re)construir o ProductSearchIndex
+    @Query("select new com.criando.projeto.dto.ProductText(p.id, p.name, p.description, p.priceCents) from Product p " +
+            "where p.id > :afterId order by p.id")
+    List<ProductText> findTextsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // Categorias dos produtos com id no intervalo (afterId, lastId], a mesma faixa de uma página de findTextsAfter
+    @Query("select new com.criando.projeto.dto.ProductCategoryLink(p.id, c.id) from Product p join p.categories c " +
+            "where p.id > :afterId and p.id <= :lastId")
+    List<ProductCategoryLink> findCategoryLinks(@Param("afterId") Long afterId, @Param("lastId") Long lastId);
 }
@@ -0,0 +1,77 @@
+package com.criando.projeto.resource;
+
+import com.criando.projeto.config.AdmissionControlFilter;
+import com.criando.projeto.dto.OrderTotalsReport;
+import com.criando.projeto.security.VerifiedCredentialCache;
+import com.criando.projeto.services.CatalogCache;
+import com.criando.projeto.services.IdempotencyStore;
+import com.criando.projeto.services.OrderTotalsChecker;
+import com.criando.projeto.util.BoundedTtlCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Tag(name = "Administração", description = "Endpoints de observabilidade, apenas para ADMIN")
+@RestController
+@RequestMapping(value = "/admin")
+public class AdminResources {
+
+    @Autowired
+    private VerifiedCredentialCache credentialCache;
+    @Autowired
+    private OrderTotalsChecker orderTotalsChecker;
+    @Autowired
+    private CatalogCache catalogCache;
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    @Autowired
+    private AdmissionControlFilter admissionControlFilter;
+
+
+    @GetMapping("/caches")
+    @Operation(summary = "Estatísticas dos caches", description = "Retorna hits, misses, evicções e tamanho de cada cache da aplicação")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estatísticas retornadas com sucesso"),
+            @ApiResponse(responseCode = "401", description = "Não autorizado"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    public ResponseEntity<Map<String, BoundedTtlCache.Stats>> cacheStats() {
+        Map<String, BoundedTtlCache.Stats> stats = new LinkedHashMap<>();
+        stats.put("credentials", credentialCache.stats());
+        stats.putAll(catalogCache.stats());
+        stats.put("idempotency", idempotencyStore.stats());
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/admission")
+    @Operation(summary = "Estado do controle de admissão", description = "Retorna o limite de requisições simultâneas, quantas estão em execução e na fila, e quantas foram aceitas e recusadas (503)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estado retornado com sucesso"),
+            @ApiResponse(responseCode = "401", description = "Não autorizado"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    public ResponseEntity<AdmissionControlFilter.Stats> admissionStats() {
+        return ResponseEntity.ok(admissionControlFilter.stats());
+    }
+
+    @PostMapping("/orders/totals-check")
+    @Operation(summary = "Confere os totais gravados dos pedidos", description = "Recalcula em lote o total e a quantidade de itens de todos os pedidos, corrige os divergentes e retorna o relatório")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Conferência executada com sucesso"),
+            @ApiResponse(responseCode = "401", description = "Não autorizado"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    public ResponseEntity<OrderTotalsReport> checkOrderTotals() {
+        return ResponseEntity.ok(orderTotalsChecker.check());
+    }
+}
@@ -0,0 +1,44 @@
+package com.criando.projeto.resource;
+
+import com.criando.projeto.dto.LoginRequest;
+import com.criando.projeto.dto.TokenResponse;
+import com.criando.projeto.services.AuthServices;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Autenticação", description = "Login e emissão de token JWT")
+@RestController
+@RequestMapping(value = "/auth")
+public class AuthResources {
+    @Autowired
+    private AuthServices authServices;
+
+
+    @PostMapping("/login")
+    @Operation(summary = "Login", description = "Valida email e senha e retorna um token JWT para ser usado no header Authorization: Bearer")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Token gerado com sucesso"),
+            @ApiResponse(responseCode = "401", description = "Email ou senha inválidos"),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<TokenResponse> login(@Valid @RequestBody LoginRequest request) {
+        TokenResponse token = authServices.login(request);
+        return ResponseEntity.ok(token);
+    }
+    /*
+    POST /auth/login
+    {
+        "email": "admin@admin.com",
+        "password": "Admin@123"
+    }
+     */
+}
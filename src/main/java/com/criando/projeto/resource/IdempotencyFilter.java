@@ -0,0 +1,209 @@
+package com.criando.projeto.resource;
+
+import com.criando.projeto.resource.exceptions.StandardError;
+import com.criando.projeto.services.IdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+
+// Header Idempotency-Key nas escritas de pedidos que os clientes repetem em timeout (POST /orders, /orders/batch e
+// /orders/{id}/payment): a primeira requisição com a chave executa normalmente e tem a resposta guardada
+// (IdempotencyStore); as repetições recebem a mesma resposta, com o header Idempotent-Replayed, sem chamar o
+// OrderServices de novo. Sem o header nada muda.
+// Roda depois da cadeia do Spring Security (é um filtro comum do servlet, registrado pelo @Component): só chegam
+// aqui requisições já autorizadas, e o usuário autenticado entra na chave.
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final List<String> PATHS = List.of("/orders", "/orders/batch", "/orders/{id}/payment");
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod()) || request.getHeader(KEY_HEADER) == null) {
+            return true;
+        }
+        String path = pathOf(request);
+        return PATHS.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(request, response, HttpStatus.BAD_REQUEST, "Invalid idempotency key",
+                    "O header " + KEY_HEADER + " deve ter entre 1 e " + MAX_KEY_LENGTH + " caracteres");
+            return;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        // O corpo é lido uma vez aqui (para comparar com o da requisição original) e repassado ao controller
+        byte[] body = request.getInputStream().readAllBytes();
+        String storeKey = sha256((authentication.getName() + '\n' + request.getMethod() + '\n' + pathOf(request)
+                + '\n' + key).getBytes(StandardCharsets.UTF_8));
+        String requestHash = sha256(body);
+
+        IdempotencyStore.Claim claim = idempotencyStore.begin(storeKey, requestHash);
+        switch (claim.outcome()) {
+            case REPLAY -> {
+                replay(claim.response(), response);
+                return;
+            }
+            case IN_PROGRESS -> {
+                writeError(request, response, HttpStatus.CONFLICT, "Request in progress",
+                        "Uma requisição com esta " + KEY_HEADER + " ainda está em andamento");
+                return;
+            }
+            case MISMATCH -> {
+                writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency key reused",
+                        "Esta " + KEY_HEADER + " já foi usada com outro corpo de requisição");
+                return;
+            }
+            case ACQUIRED -> {
+            }
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), cachingResponse);
+        } catch (IOException | ServletException | RuntimeException e) {
+            idempotencyStore.release(storeKey, claim.claimToken());
+            throw e;
+        }
+        try {
+            idempotencyStore.complete(storeKey, claim.claimToken(), requestHash, cachingResponse.getStatus(),
+                    cachingResponse.getContentType(), cachingResponse.getHeader(HttpHeaders.LOCATION),
+                    cachingResponse.getContentAsByteArray());
+        } catch (RuntimeException e) {
+            // A escrita já aconteceu: o cliente recebe a resposta mesmo sem ela ficar guardada
+            log.warn("Não foi possível guardar a resposta da {} {}", KEY_HEADER, key, e);
+        }
+        cachingResponse.copyBodyToResponse();
+    }
+
+    private void replay(IdempotencyStore.StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String error,
+                            String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new StandardError(Instant.now(), status.value(), error, message, request.getRequestURI()));
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível na JVM", e);
+        }
+    }
+
+    // Requisição com o corpo já lido, para o controller ler de novo
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
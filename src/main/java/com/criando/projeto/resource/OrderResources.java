@@ -1,32 +1,40 @@
 package com.criando.projeto.resource;
 
+import com.criando.projeto.dto.CursorPage;
+import com.criando.projeto.dto.OrderBatchResult;
+import com.criando.projeto.dto.OrderSummary;
 import com.criando.projeto.entities.Order;
 import com.criando.projeto.entities.OrderItem;
 import com.criando.projeto.entities.Payment;
 import com.criando.projeto.entities.enums.OrderStatus;
 import com.criando.projeto.queryFIlters.OrderQueryFilter;
+import com.criando.projeto.resource.exceptions.StandardError;
 import com.criando.projeto.resource.exceptions.ValidationError;
 import com.criando.projeto.services.OrderServices;
 import com.criando.projeto.services.exceptions.ResourceNotFoundException;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import java.io.IOException;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 @Tag(name = "Pedidos", description = "Endpoints relacionados à gestão de pedidos")
 @RestController
@@ -38,16 +46,17 @@ public class OrderResources {
 
 
     @GetMapping
-    @Operation(summary = "Buscar pedidos com filtros opcionais", description = "Retorna todos os pedidos conforme os filtros passados")
+    @Operation(summary = "Buscar pedidos com filtros opcionais", description = "Retorna uma página de pedidos conforme os filtros passados, do mais recente para o mais antigo. Para a próxima página envie o nextCursor no parâmetro cursor")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de pedidos retornada com sucesso"),
+            @ApiResponse(responseCode = "200", description = "Página de pedidos retornada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Cursor ou tamanho de página inválido"),
             @ApiResponse(responseCode = "401", description = "Não autorizado"),
             @ApiResponse(responseCode = "403", description = "Acesso negado"),
             @ApiResponse(responseCode = "422", description = "Erro de validação nos dados enviados", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ValidationError.class))),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
-    public ResponseEntity<List<Order>> findOrders(OrderQueryFilter filter) {
-        List<Order> orders = orderServices.findOrders(filter);
+    public ResponseEntity<CursorPage<Order>> findOrders(OrderQueryFilter filter) {
+        CursorPage<Order> orders = orderServices.findOrders(filter);
         return ResponseEntity.ok().body(orders);
     }
     /*
@@ -55,6 +64,51 @@ public class OrderResources {
     GET /orders?userId=1
     GET /orders?orderStatus=PAID (para user)
     GET /orders?PAID (admin)
+    GET /orders?minTotal=100&maxTotal=500
+    GET /orders?size=50
+    GET /orders?size=50&cursor=<nextCursor da página anterior>
+     */
+
+
+    @GetMapping("/summary")
+    @Operation(summary = "Buscar resumo dos pedidos", description = "Mesma listagem e filtros de GET /orders, mas cada pedido vem só com id, data, status, nome do cliente, total e quantidade de itens")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de resumos retornada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Cursor ou tamanho de página inválido"),
+            @ApiResponse(responseCode = "401", description = "Não autorizado"),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<CursorPage<OrderSummary>> findOrderSummaries(OrderQueryFilter filter) {
+        CursorPage<OrderSummary> summaries = orderServices.findOrderSummaries(filter);
+        return ResponseEntity.ok().body(summaries);
+    }
+    /*
+    GET /orders/summary
+    GET /orders/summary?orderStatus=PAID&size=50
+    GET /orders/summary?cursor=<nextCursor da página anterior>
+     */
+
+
+    @GetMapping("/export")
+    @Operation(summary = "Exportar pedidos em NDJSON", description = "Todos os pedidos dos filtros de GET /orders (sem paginação; size é ignorado), um JSON por linha (application/x-ndjson), escritos à medida que são lidos do banco. Usuário comum exporta só os próprios pedidos")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Pedidos exportados com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido"),
+            @ApiResponse(responseCode = "401", description = "Não autorizado"),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public void exportOrders(OrderQueryFilter filter, HttpServletResponse response) throws IOException {
+        // Filtro validado antes de a resposta virar NDJSON, para os erros ainda saírem como JSON do ResourceExceptionHandler
+        Specification<Order> spec = orderServices.exportSpecification(filter);
+        // Escrito direto na resposta, na thread da requisição: sem o limite de tempo das respostas assíncronas
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        orderServices.exportOrders(spec, response.getOutputStream());
+    }
+    /*
+    GET /orders/export
+    GET /orders/export?orderStatus=PAID
+    GET /orders/export?minTotal=100&maxTotal=500
      */
 
 
@@ -79,15 +133,37 @@ public class OrderResources {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Pedido criado com sucesso"),
             @ApiResponse(responseCode = "401", description = "Não autorizado"),
-            @ApiResponse(responseCode = "422", description = "Erro de validação nos dados enviados", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ValidationError.class))),
+            @ApiResponse(responseCode = "409", description = "Requisição com a mesma Idempotency-Key ainda em andamento", content = @Content(mediaType = "application/json", schema = @Schema(implementation = StandardError.class))),
+            @ApiResponse(responseCode = "422", description = "Erro de validação nos dados enviados, ou Idempotency-Key já usada com outro corpo", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ValidationError.class))),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
+    @Parameter(name = IdempotencyFilter.KEY_HEADER, in = ParameterIn.HEADER, description = "Opcional. Repetir a requisição com a mesma chave devolve a resposta da primeira, sem executá-la de novo")
     public ResponseEntity<Order> insert(@Valid @RequestBody Order obj) {
         obj = orderServices.insert(obj);
         URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(obj.getId()).toUri();
         return ResponseEntity.created(uri).body(obj);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Criar pedidos em lote", description = "Cria vários pedidos numa única transação e retorna o resultado de cada um, na ordem enviada. Pedidos com produto ou cupom inexistente são recusados sem impedir os demais")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote processado; o status de cada pedido vem no corpo (201 criado, 400 ou 404 recusado)"),
+            @ApiResponse(responseCode = "400", description = "Lote vazio ou acima do limite", content = @Content(mediaType = "application/json", schema = @Schema(implementation = StandardError.class))),
+            @ApiResponse(responseCode = "401", description = "Não autorizado"),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    @Parameter(name = IdempotencyFilter.KEY_HEADER, in = ParameterIn.HEADER, description = "Opcional. Repetir a requisição com a mesma chave devolve a resposta da primeira, sem executá-la de novo")
+    public ResponseEntity<List<OrderBatchResult>> insertBatch(@RequestBody List<Order> orders) {
+        return ResponseEntity.ok(orderServices.insertBatch(orders));
+    }
+    /*
+    POST /orders/batch
+    [
+      {"items": [{"product": {"id": 1}, "quantity": 2}]},
+      {"items": [{"product": {"id": 3}, "quantity": 1}], "discount": {"id": 1}}
+    ]
+     */
+
     @PostMapping("/{orderId}/apply-coupon/{couponId}")
     @Operation(summary = "Aplicar cupom a um pedido")
     @ApiResponses(value = {
@@ -119,6 +195,7 @@ public class OrderResources {
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor"),
             @ApiResponse(responseCode = "409", description = "Pedido já foi pago ou cancelado", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ValidationError.class)))
     })
+    @Parameter(name = IdempotencyFilter.KEY_HEADER, in = ParameterIn.HEADER, description = "Opcional. Repetir a requisição com a mesma chave devolve a resposta da primeira, sem executá-la de novo")
     public ResponseEntity<Order> updateOrderPayment(@PathVariable Long id, @RequestBody Payment payment) {
         Order updatedOrder = orderServices.setOrderPayment(id, payment);
         return ResponseEntity.ok(updatedOrder);
@@ -226,7 +303,7 @@ public class OrderResources {
             @ApiResponse(responseCode = "403", description = "Acesso negado"),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
-    public ResponseEntity<Order> updateOrderItems(@PathVariable Long id, @RequestBody Set<OrderItem> items) {
+    public ResponseEntity<Order> updateOrderItems(@PathVariable Long id, @RequestBody List<OrderItem> items) {
         // Obtém a autenticação atual (usuário logado)
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         Order updatedOrder = orderServices.updateOrderItems(id, items, authentication);
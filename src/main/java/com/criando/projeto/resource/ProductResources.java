@@ -1,5 +1,6 @@
 package com.criando.projeto.resource;
 
+import com.criando.projeto.dto.ProductFacets;
 import com.criando.projeto.entities.Product;
 import com.criando.projeto.queryFIlters.ProductQueryFilter;
 import com.criando.projeto.resource.exceptions.ValidationError;
@@ -37,10 +38,29 @@ public class ProductResources {
             @ApiResponse(responseCode = "500", description = "Erro interno no servidor")
     })
     public ResponseEntity<List<Product>> findAll(ProductQueryFilter filter) {
-        List<Product> list = productServices.findAll(filter.toSpecification());
+        List<Product> list = productServices.findAll(filter);
         return ResponseEntity.ok().body(list);
     }
 
+    @GetMapping(value = "/facets")
+    @Operation(
+            summary = "Contagens (facetas) da listagem de produtos", description = "Para os mesmos filtros da listagem, retorna o total de produtos e quantos há em cada categoria e em cada faixa de preço. O tamanho da faixa, em reais, é definido por bucketSize (padrão 100)."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Contagens retornadas com sucesso"),
+            @ApiResponse(responseCode = "400", description = "bucketSize inválido"),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor")
+    })
+    public ResponseEntity<ProductFacets> facets(ProductQueryFilter filter,
+                                                @RequestParam(defaultValue = "100") Double bucketSize) {
+        return ResponseEntity.ok().body(productServices.facets(filter, bucketSize));
+    }
+    /*
+    GET /products/facets
+    GET /products/facets?name=Mochila&bucketSize=50
+    GET /products/facets?categoryName=Computers&maxPrice=5000
+     */
+
     @GetMapping(value = "/{id}")
     @Operation(
             summary = "Buscar produto por ID", description = "Retorna os detalhes de um produto específico com base no ID fornecido."
@@ -2,8 +2,10 @@ package com.criando.projeto.resource.exceptions;
 
 import com.criando.projeto.services.exceptions.*;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -48,6 +50,20 @@ public class ResourceExceptionHandler {
         return ResponseEntity.status(status).body(err);
     }
 
+    @ExceptionHandler(InvalidQueryParameterException.class)
+    public ResponseEntity<StandardError> invalidQueryParameter(InvalidQueryParameterException e, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        StandardError err = new StandardError(Instant.now(), status.value(), "Invalid query parameter", e.getMessage(), request.getRequestURI());
+        return ResponseEntity.status(status).body(err);
+    }
+
+    @ExceptionHandler(InvalidBatchException.class)
+    public ResponseEntity<StandardError> invalidBatch(InvalidBatchException e, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        StandardError err = new StandardError(Instant.now(), status.value(), "Invalid batch", e.getMessage(), request.getRequestURI());
+        return ResponseEntity.status(status).body(err);
+    }
+
     @ExceptionHandler(InvalidPasswordLengthException.class)
     public ResponseEntity<StandardError> invalidPasswordLength(InvalidPasswordLengthException e, HttpServletRequest request) {
         HttpStatus status = HttpStatus.BAD_REQUEST;
@@ -70,6 +86,15 @@ public class ResourceExceptionHandler {
     }
 
 
+    // Outra requisição alterou o registro entre a leitura e a escrita (@Version): o cliente deve reler e tentar de novo
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<StandardError> optimisticLockingFailure(OptimisticLockingFailureException e, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.CONFLICT;
+        StandardError err = new StandardError(Instant.now(), status.value(), "Concurrent modification",
+                "O registro foi alterado por outra requisição. Recarregue e tente novamente.", request.getRequestURI());
+        return ResponseEntity.status(status).body(err);
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<StandardError> accessDeniedException(AccessDeniedException e, HttpServletRequest request) {
         HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
@@ -84,6 +109,13 @@ public class ResourceExceptionHandler {
         return ResponseEntity.status(status).body(err);
     }
 
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<StandardError> authenticationFailed(AuthenticationException e, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.UNAUTHORIZED;
+        StandardError err = new StandardError(Instant.now(), status.value(), "Credenciais inválidas", e.getMessage(), request.getRequestURI());
+        return ResponseEntity.status(status).body(err);
+    }
+
     // Se for outro erro não tratado, vamos retornar um erro genérico
     @ExceptionHandler(Exception.class)
     public ResponseEntity<StandardError> handleException(Exception e, HttpServletRequest request) {
@@ -0,0 +1,85 @@
+package com.criando.projeto.security;
+
+import com.criando.projeto.entities.User;
+import com.criando.projeto.entities.enums.UserRole;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+// Principal da aplicação: além do e-mail guarda o id e a role do usuário,
+// assim as checagens de dono/ADMIN não precisam buscar o usuário no banco de novo.
+// É o mesmo objeto para Basic Auth (UserDetailsServiceImpl) e para token JWT (JwtTokenService).
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+
+    private final Long id;
+    private final String email;
+    private final UserRole role;
+    private String password;
+
+    public AuthenticatedUser(Long id, String email, String password, UserRole role) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.role = role;
+    }
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getPassword(), user.getRole());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UserRole getRole() {
+        return role;
+    }
+
+    public boolean isAdmin() {
+        return role == UserRole.ADMIN;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    // O ProviderManager apaga o hash da senha depois da autenticação
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AuthenticatedUser that = (AuthenticatedUser) o;
+        return Objects.equals(id, that.id) && Objects.equals(email, that.email);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, email);
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{id=" + id + ", email='" + email + "', role=" + role + "}";
+    }
+}
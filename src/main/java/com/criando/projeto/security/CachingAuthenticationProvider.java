@@ -0,0 +1,55 @@
+package com.criando.projeto.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Optional;
+
+// Fica na frente do DaoAuthenticationProvider: se o par email/senha já foi verificado recentemente,
+// autentica direto pelo cache, sem consultar o banco e sem rodar o BCrypt.
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final VerifiedCredentialCache credentialCache;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, VerifiedCredentialCache credentialCache) {
+        this.delegate = delegate;
+        this.credentialCache = credentialCache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String email = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (email == null || credentials == null) {
+            return delegate.authenticate(authentication);
+        }
+        String rawPassword = credentials.toString();
+
+        Optional<UserDetails> cached = credentialCache.find(email, rawPassword);
+        if (cached.isPresent()) {
+            UserDetails user = cached.get();
+            UsernamePasswordAuthenticationToken result =
+                    UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+
+        // Cache miss: faz a verificação completa (banco + BCrypt) e guarda o resultado se der certo.
+        // A geração é lida antes: se a senha mudar durante a verificação, o hash antigo lido não vai para o cache
+        long generation = credentialCache.generation();
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.getPrincipal() instanceof UserDetails user) {
+            credentialCache.store(email, rawPassword, user, generation);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
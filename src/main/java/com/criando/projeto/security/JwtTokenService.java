@@ -0,0 +1,117 @@
+package com.criando.projeto.security;
+
+import com.criando.projeto.entities.enums.UserRole;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Gera e valida tokens JWT assinados com HMAC-SHA256 (HS256) usando jwt.secret.
+// A validação é só criptográfica (assinatura + expiração): nenhuma consulta ao banco.
+@Component
+public class JwtTokenService {
+
+    private static final String HEADER = "{\"alg\":\"HS256\",\"typ\":\"JWT\"}";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long expirationMillis;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    @Autowired
+    public JwtTokenService(@Value("${jwt.secret}") String secret,
+                           @Value("${jwt.expiration:3600000}") long expirationMillis,
+                           ObjectMapper objectMapper) {
+        this(secret, expirationMillis, objectMapper, Clock.systemUTC());
+    }
+
+    public JwtTokenService(String secret, long expirationMillis, ObjectMapper objectMapper, Clock clock) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("A propriedade jwt.secret precisa ser configurada.");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.expirationMillis = expirationMillis;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    public long getExpirationMillis() {
+        return expirationMillis;
+    }
+
+    public String generateToken(Long userId, String email, UserRole role) {
+        Instant now = clock.instant();
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", email);
+        claims.put("uid", userId);
+        claims.put("role", role.name());
+        claims.put("iat", now.getEpochSecond());
+        claims.put("exp", now.plusMillis(expirationMillis).getEpochSecond());
+        try {
+            String unsigned = encode(HEADER.getBytes(StandardCharsets.UTF_8)) + "." + encode(objectMapper.writeValueAsBytes(claims));
+            return unsigned + "." + encode(sign(unsigned));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível gerar o token", e);
+        }
+    }
+
+    // Retorna vazio se o token estiver malformado, com assinatura inválida ou expirado
+    public Optional<AuthenticatedUser> parse(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            return Optional.empty();
+        }
+        try {
+            byte[] expectedSignature = sign(parts[0] + "." + parts[1]);
+            if (!MessageDigest.isEqual(expectedSignature, DECODER.decode(parts[2]))) {
+                return Optional.empty();
+            }
+            JsonNode claims = objectMapper.readTree(DECODER.decode(parts[1]));
+            if (!claims.hasNonNull("exp") || clock.instant().getEpochSecond() >= claims.get("exp").asLong()) {
+                return Optional.empty();
+            }
+            // O token não carrega a senha: o principal fica sem credenciais
+            return Optional.of(new AuthenticatedUser(
+                    claims.get("uid").asLong(),
+                    claims.get("sub").asText(),
+                    null,
+                    UserRole.valueOf(claims.get("role").asText())));
+        } catch (Exception e) {
+            // Qualquer falha de decodificação é tratada como token inválido
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String content) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(content.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 não disponível na JVM", e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return ENCODER.encodeToString(bytes);
+    }
+}
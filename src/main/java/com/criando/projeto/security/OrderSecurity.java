@@ -1,49 +1,48 @@
 package com.criando.projeto.security;
 
-import com.criando.projeto.entities.Order;
-import com.criando.projeto.entities.User;
+import com.criando.projeto.dto.OrderOwnership;
 import com.criando.projeto.repositories.OrderRepository;
-import com.criando.projeto.repositories.UserRepository;
-import com.criando.projeto.services.exceptions.ResourceNotFoundException;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 @Component
 public class OrderSecurity {
 
     private final OrderRepository orderRepository;
 
-    @Autowired
-    private UserRepository userRepository;
-
     public OrderSecurity(OrderRepository orderRepository) {
         this.orderRepository = orderRepository;
     }
 
-    // Verifica se o usuário autenticado é o proprietário do pedido
+    // Verifica se o usuário autenticado é o proprietário do pedido.
+    // Não carrega a entidade Order (nem client, payment e discount): só uma consulta pela chave primária
     public boolean checkOrderOwnership(Authentication authentication, Long orderId) {
-        // Obtém o e-mail do usuário autenticado
-        String email = authentication.getName();
-
-        // Busca o usuário pelo e-mail
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            // Basic Auth ou token JWT: id e role já estão no principal, sem consulta ao usuário
+            Optional<OrderOwnership> ownership = orderRepository.findOwnershipById(orderId);
 
-        // Verifica se o pedido existe
-        Order order = orderRepository.findById(orderId).orElse(null);
+            // Se o pedido não existir, retorna false
+            if (ownership.isEmpty()) {
+                return false;
+            }
 
-        // Se o pedido não existir, retorna false
-        if (order == null) {
-            return false;
+            // Se for ADMIN, permite o acesso; senão, apenas se o ID do usuário for o do cliente do pedido
+            return principal.isAdmin() || ownership.get().isOwnedBy(principal.getId());
         }
 
-        // Se for ADMIN, permite o acesso
-        if ("ADMIN".equals(user.getRole().name())) {
-            return true; }
-
-            // Permite apenas se o ID do usuário autenticado for igual ao ID do cliente associado ao pedido
-            return order.getClient().getId().equals(user.getId());
+        // Outro tipo de principal: ADMIN pela authority, dono por uma consulta de existência (id do pedido + e-mail do cliente)
+        if (isAdmin(authentication)) {
+            return orderRepository.existsById(orderId);
+        }
+        return orderRepository.existsByIdAndClient_Email(orderId, authentication.getName());
     }
 
-}
\ No newline at end of file
+    private boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch("ROLE_ADMIN"::equals);
+    }
+}
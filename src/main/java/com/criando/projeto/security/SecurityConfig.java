@@ -4,12 +4,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.authentication.AuthenticationManager;
 
 @Configuration
@@ -26,6 +29,8 @@ public class SecurityConfig {
     private CustomAuthenticationEntryPoint customAuthenticationEntryPoint;
     @Autowired
     private CustomAccessDeniedHandler customAccessDeniedHandler;
+    @Autowired
+    private JwtTokenService jwtTokenService;
 
     @Bean
     public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
@@ -33,6 +38,15 @@ public class SecurityConfig {
                 .build();
     }
 
+    // Único AuthenticationProvider da aplicação: consulta o cache de credenciais antes de ir ao banco/BCrypt
+    @Bean
+    public CachingAuthenticationProvider authenticationProvider(VerifiedCredentialCache credentialCache) {
+        DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider();
+        daoProvider.setUserDetailsService(userDetailsService);
+        daoProvider.setPasswordEncoder(passwordEncoder());
+        return new CachingAuthenticationProvider(daoProvider, credentialCache);
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -42,11 +56,15 @@ public class SecurityConfig {
 
 
                 //ACESSOS A ORDERS
+                .requestMatchers(HttpMethod.GET, "/orders/summary")
+                .access("hasRole('ADMIN') or isAuthenticated()") // Precisa vir antes de /orders/{id}; o filtro por usuário fica no service
+                .requestMatchers(HttpMethod.GET, "/orders/export")
+                .access("hasRole('ADMIN') or isAuthenticated()") // Mesma regra de /orders/summary
                 .requestMatchers(HttpMethod.GET, "/orders/{id}")
                 .access("@orderSecurity.checkOrderOwnership(authentication, #id)")
                 .requestMatchers(HttpMethod.GET, "/orders")
                 .access("hasRole('ADMIN') or isAuthenticated()")// Usuário comum pode acessar somente seus próprios pedidos, lógica tá no service
-                .requestMatchers(HttpMethod.POST, "/orders")
+                .requestMatchers(HttpMethod.POST, "/orders", "/orders/batch")
                 .hasAnyRole("USER", "ADMIN") // Ambos podem criar pedidos
                 .requestMatchers(HttpMethod.PATCH, "/orders/{id}")
                 .access("hasRole('ADMIN') or @orderSecurity.checkOrderOwnership(authentication, #id)") // Admin pode tudo, usuário comum só nos próprios pedidos
@@ -97,8 +115,12 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.PATCH, "/categories/{id}").hasRole("ADMIN") // Admin pode editar qualquer categoria
                 .requestMatchers(HttpMethod.DELETE, "/categories/{id}").hasRole("ADMIN") // Admin pode deletar qualquer categoria
 
+                //ACESSO A ADMINISTRAÇÃO (métricas de cache etc.):
+                .requestMatchers("/admin/**").hasRole("ADMIN")
+
 
                 // Permissões para qualquer pessoa (SEM AUTENTICAÇÃO)
+                .requestMatchers(HttpMethod.POST, "/auth/login").permitAll() // Login que gera o token JWT
                 .requestMatchers(HttpMethod.POST, "/users").permitAll() // Permitir qualquer pessoa criar um usuário COMUM
                 .requestMatchers(HttpMethod.GET, "/products/**", "/categories/**", "/cupons/**").permitAll()  // Acesso público
 
@@ -117,6 +139,11 @@ public class SecurityConfig {
                 .authenticationEntryPoint(customAuthenticationEntryPoint)
                 .accessDeniedHandler(customAccessDeniedHandler);
 
+        // Sem sessão HTTP: cada requisição se autentica pelo token (ou Basic Auth)
+        http
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(new JwtAuthenticationFilter(jwtTokenService), BasicAuthenticationFilter.class);
+
         return http.build();
     }
 
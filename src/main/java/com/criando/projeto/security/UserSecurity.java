@@ -18,6 +18,11 @@ public class UserSecurity {
             throw new AuthenticationRequiredException("Acesso negado: usuário não autenticado");
         }
 
+        // Basic Auth ou token JWT: id e role já estão no principal, sem consulta ao banco
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.isAdmin() || principal.getId().equals(userId);
+        }
+
         // Obtém o e-mail do usuário autenticado
         String email = authentication.getName();
 
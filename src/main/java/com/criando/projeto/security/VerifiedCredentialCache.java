@@ -0,0 +1,78 @@
+package com.criando.projeto.security;
+
+import com.criando.projeto.util.BoundedTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Optional;
+
+// Guarda os pares (email, digest da senha) que já passaram pelo BCrypt, para que as próximas
+// requisições do mesmo usuário não precisem ir ao banco nem rodar o BCrypt de novo.
+// A senha nunca é guardada em texto puro: apenas um SHA-256 com salt aleatório gerado a cada inicialização.
+// Como no CatalogCache, cada invalidação avança a "geração": um login que leu o hash antigo do banco antes de a senha
+// mudar não entra no cache, porque foi verificado numa geração anterior.
+@Component
+public class VerifiedCredentialCache {
+
+    private final BoundedTtlCache<String, VerifiedCredential> cache;
+    private final byte[] salt = new byte[16];
+    private long generation;
+
+    public VerifiedCredentialCache(@Value("${security.credential-cache.max-size:10000}") int maxSize,
+                                   @Value("${security.credential-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = new BoundedTtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+        new SecureRandom().nextBytes(salt);
+    }
+
+    public Optional<UserDetails> find(String email, CharSequence rawPassword) {
+        byte[] digest = digest(rawPassword);
+        return cache.getIf(email, credential -> MessageDigest.isEqual(credential.digest(), digest))
+                .map(VerifiedCredential::user);
+    }
+
+    // Lida antes de verificar a senha no banco e repassada ao store
+    public synchronized long generation() {
+        return generation;
+    }
+
+    // Só guarda se nenhuma invalidação aconteceu desde que a verificação começou (generation() lido antes dela)
+    public void store(String email, CharSequence rawPassword, UserDetails user, long verifiedAt) {
+        VerifiedCredential credential = new VerifiedCredential(digest(rawPassword), user);
+        synchronized (this) {
+            if (generation == verifiedAt) {
+                cache.put(email, credential);
+            }
+        }
+    }
+
+    // Chamado quando a senha muda ou o usuário é removido
+    public synchronized void invalidate(String email) {
+        generation++;
+        if (email != null) {
+            cache.invalidate(email);
+        }
+    }
+
+    public BoundedTtlCache.Stats stats() {
+        return cache.stats();
+    }
+
+    private byte[] digest(CharSequence rawPassword) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(salt);
+            return sha256.digest(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível na JVM", e);
+        }
+    }
+
+    private record VerifiedCredential(byte[] digest, UserDetails user) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.criando.projeto.services;
+
+import com.criando.projeto.dto.LoginRequest;
+import com.criando.projeto.dto.TokenResponse;
+import com.criando.projeto.security.AuthenticatedUser;
+import com.criando.projeto.security.JwtTokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+@Service
+public class AuthServices {
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    // Valida email/senha uma única vez (banco + BCrypt) e devolve um token assinado.
+    // Nas próximas requisições o token é validado sem consultar o banco.
+    public TokenResponse login(LoginRequest request) {
+        Authentication authentication = authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(request.email(), request.password()));
+        // O principal já traz id e role, não é preciso buscar o usuário de novo
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        String token = jwtTokenService.generateToken(user.getId(), user.getUsername(), user.getRole());
+        return new TokenResponse(token, jwtTokenService.getExpirationMillis() / 1000);
+    }
+}
@@ -2,6 +2,7 @@ package com.criando.projeto.services;
 
 import com.criando.projeto.entities.User;
 import com.criando.projeto.repositories.UserRepository;
+import com.criando.projeto.security.AuthenticatedUser;
 import com.criando.projeto.services.exceptions.AccessDeniedException;
 import com.criando.projeto.services.exceptions.AuthenticationRequiredException;
 import com.criando.projeto.services.exceptions.ResourceNotFoundException;
@@ -41,6 +42,16 @@ public class AuthenticationFacade {
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado: " + email ));
     }
 
+    // Metodo para obter o id do usuário autenticado. O AuthenticatedUser (Basic Auth ou JWT)
+    // já carrega o id, então só consulta o banco para outros tipos de principal
+    public Long getAuthenticatedUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
+        return getAuthenticatedUser().getId();
+    }
+
     // Metodo para verificar se o usuário é ADMIN
     public boolean isAdmin(Authentication authentication) {
         return authentication.getAuthorities().stream()
@@ -58,8 +69,7 @@ public class AuthenticationFacade {
     // Metodo para aplicar o id do usuário autenticado nas requisições
     public boolean isSameUser(Long userId) {
         try {
-            User authenticatedUser = getAuthenticatedUser();
-            return authenticatedUser.getId().equals(userId);
+            return getAuthenticatedUserId().equals(userId);
         } catch (Exception e) {
             throw new AccessDeniedException("Acesso negado! O ID logado não corresponde ao ID da busca");
         }
@@ -0,0 +1,143 @@
+package com.criando.projeto.services;
+
+import com.criando.projeto.dto.ProductSnapshot;
+import com.criando.projeto.entities.Category;
+import com.criando.projeto.entities.Product;
+import com.criando.projeto.queryFIlters.ProductQueryFilter;
+import com.criando.projeto.util.BoundedTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Cache do catálogo público (GET /products/** e /categories/**): produto por id, listas de produtos por filtro
+// normalizado (ProductQueryFilter.CacheKey) e categorias. Cada escrita em produto/categoria invalida o que ela afeta.
+// Uma leitura que começou antes de uma invalidação não grava o resultado (pode ter lido o dado antigo):
+// cada invalidação avança a "geração" do cache e só entra no cache o que foi carregado na geração atual.
+// Produtos ficam como cópias imutáveis (ProductSnapshot) e as listas só guardam os ids, resolvidos por productsById:
+// nenhuma entidade é compartilhada entre requisições, e uma lista com mais de maxQueryRows produtos não é guardada.
+@Component
+public class CatalogCache {
+
+    private static final String ALL_CATEGORIES = "all";
+
+    private final BoundedTtlCache<Long, ProductSnapshot> productsById;
+    private final BoundedTtlCache<ProductQueryFilter.CacheKey, List<Long>> productQueries;
+    private final BoundedTtlCache<Long, Category> categoriesById;
+    private final BoundedTtlCache<String, List<Category>> categoryLists;
+    private final int maxQueryRows;
+    private long generation;
+
+    public CatalogCache(@Value("${catalog.cache.max-size:10000}") int maxSize,
+                        @Value("${catalog.cache.ttl-seconds:60}") long ttlSeconds,
+                        @Value("${catalog.cache.max-query-rows:500}") int maxQueryRows) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.maxQueryRows = maxQueryRows;
+        this.productsById = new BoundedTtlCache<>(maxSize, ttl);
+        this.productQueries = new BoundedTtlCache<>(maxSize, ttl);
+        this.categoriesById = new BoundedTtlCache<>(maxSize, ttl);
+        this.categoryLists = new BoundedTtlCache<>(1, ttl);
+    }
+
+    public Product product(Long id, Supplier<Product> loader) {
+        return getOrLoad(productsById, id, () -> ProductSnapshot.of(loader.get())).toProduct();
+    }
+
+    // Lista em cache só vale se todos os seus produtos ainda estiverem em productsById (podem ter sido
+    // despejados ou expirado antes dela): senão a consulta é refeita e a lista e os produtos voltam juntos
+    public List<Product> products(ProductQueryFilter.CacheKey key, Supplier<List<Product>> loader) {
+        Optional<List<Long>> ids = productQueries.get(key);
+        if (ids.isPresent()) {
+            List<Product> cached = resolve(ids.get());
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long loadedAt = currentGeneration();
+        List<Product> products = loader.get();
+        if (products.size() <= maxQueryRows) {
+            // A cópia é feita antes de devolver a lista: o chamador pode alterar os produtos carregados
+            List<ProductSnapshot> snapshots = products.stream().map(ProductSnapshot::of).toList();
+            synchronized (this) {
+                if (generation == loadedAt) {
+                    snapshots.forEach(snapshot -> productsById.put(snapshot.id(), snapshot));
+                    productQueries.put(key, snapshots.stream().map(ProductSnapshot::id).toList());
+                }
+            }
+        }
+        return products;
+    }
+
+    private List<Product> resolve(List<Long> ids) {
+        List<Product> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Optional<ProductSnapshot> snapshot = productsById.get(id);
+            if (snapshot.isEmpty()) {
+                return null;
+            }
+            products.add(snapshot.get().toProduct());
+        }
+        return products;
+    }
+
+    public Category category(Long id, Supplier<Category> loader) {
+        return getOrLoad(categoriesById, id, loader);
+    }
+
+    public List<Category> categories(Supplier<List<Category>> loader) {
+        return getOrLoad(categoryLists, ALL_CATEGORIES, () -> List.copyOf(loader.get()));
+    }
+
+    // Escrita em um produto: ele mesmo e todas as listas (o produto pode entrar ou sair de qualquer filtro)
+    public synchronized void invalidateProduct(Long id) {
+        generation++;
+        if (id != null) {
+            productsById.invalidate(id);
+        }
+        productQueries.invalidateAll();
+    }
+
+    // Escrita em uma categoria: o JSON de produto traz as categorias, então tudo sai do cache
+    public synchronized void invalidateCategories() {
+        generation++;
+        productsById.invalidateAll();
+        productQueries.invalidateAll();
+        categoriesById.invalidateAll();
+        categoryLists.invalidateAll();
+    }
+
+    // Hits, misses, evicções e tamanho de cada cache (GET /admin/caches)
+    public Map<String, BoundedTtlCache.Stats> stats() {
+        Map<String, BoundedTtlCache.Stats> stats = new LinkedHashMap<>();
+        stats.put("products", productsById.stats());
+        stats.put("productQueries", productQueries.stats());
+        stats.put("categories", categoriesById.stats());
+        stats.put("categoryLists", categoryLists.stats());
+        return stats;
+    }
+
+    private <K, V> V getOrLoad(BoundedTtlCache<K, V> cache, K key, Supplier<V> loader) {
+        Optional<V> cached = cache.get(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        long loadedAt = currentGeneration();
+        V value = loader.get();
+        synchronized (this) {
+            if (generation == loadedAt) {
+                cache.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+}
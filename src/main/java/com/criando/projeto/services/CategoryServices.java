@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,18 +19,30 @@ public class CategoryServices {
 
     @Autowired
     private CategoryRepository categoryRepository;
+    @Autowired
+    private CatalogCache catalogCache;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
+    // A transação é aberta só no carregamento do cache: a resposta que sai do cache não pega conexão do pool
     public List<Category> findAll() {
-        return categoryRepository.findAll();
+        return catalogCache.categories(() -> Transactions.readOnly(transactionManager, categoryRepository::findAll));
     }
 
     public Category findById(Long id) {
-        Optional <Category> obj =  categoryRepository.findById(id);
-        return obj.orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada! ID" + id));
+        return catalogCache.category(id, () -> Transactions.readOnly(transactionManager, () -> {
+            Optional <Category> obj =  categoryRepository.findById(id);
+            return obj.orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada! ID" + id));
+        }));
     }
 
     public Category insert(Category obj) {
-        return categoryRepository.save(obj);
+        Category saved = categoryRepository.save(obj);
+        productSearchIndex.putCategory(saved);
+        catalogCache.invalidateCategories();
+        return saved;
     }
 
 
@@ -38,7 +51,10 @@ public class CategoryServices {
             Category entity = categoryRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada! ID" + id));
             updateData(entity, obj);
-            return categoryRepository.save(entity);
+            Category saved = categoryRepository.save(entity);
+            productSearchIndex.putCategory(saved);
+            catalogCache.invalidateCategories();
+            return saved;
         } catch (ResourceNotFoundException e) {
             throw e;
         }
@@ -50,7 +66,9 @@ public class CategoryServices {
 
     public void delete(Long id) {
         try {
-            categoryRepository.deleteById(id); }
+            categoryRepository.deleteById(id);
+            productSearchIndex.removeCategory(id);
+            catalogCache.invalidateCategories(); }
         catch (EmptyResultDataAccessException e) {throw new ResourceNotFoundException(id);} //Você tentou excluir um usuário com um id que não foi encontrado.
         catch (DataIntegrityViolationException e) {throw new DatabaseException(e.getMessage());} // Essa exceção ocorre quando a tentativa de exclusão viola uma restrição de integridade no banco de dados. Isso pode acontecer, por exemplo, quando um registro está sendo referenciado por outro
     }
@@ -2,15 +2,19 @@ package com.criando.projeto.services;
 
 import com.criando.projeto.entities.Coupon;
 import com.criando.projeto.repositories.CouponRepository;
+import com.criando.projeto.repositories.OrderRepository;
 
 import com.criando.projeto.services.exceptions.DatabaseException;
 import com.criando.projeto.services.exceptions.ResourceNotFoundException;
+import com.criando.projeto.util.Money;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -18,6 +22,8 @@ public class CouponServices {
 
     @Autowired
     private CouponRepository couponRepository;
+    @Autowired
+    private OrderRepository orderRepository;
 
     public List<Coupon> findAll() {
         return couponRepository.findAll();
@@ -42,12 +48,19 @@ public class CouponServices {
     }
 
 
+    // Mudando o percentual, o total gravado dos pedidos com o cupom é recalculado na mesma transação
+    @Transactional
     public Coupon update(Long id, Coupon obj) {
         try {
             Coupon entity = couponRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Cupom não encontrado: ID " + id));
+            boolean discountChanged = !Objects.equals(entity.getDiscountPercentage(), obj.getDiscountPercentage());
             updateData(entity, obj);
-            return couponRepository.save(entity);
+            Coupon saved = couponRepository.save(entity);
+            if (discountChanged && saved.getDiscountPercentage() != null) {
+                orderRepository.reapplyDiscount(id, Money.keptBasisPoints(saved.getDiscountPercentage()));
+            }
+            return saved;
         } catch (ResourceNotFoundException e) {
             throw e;
         }
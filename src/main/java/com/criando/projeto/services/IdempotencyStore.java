@@ -0,0 +1,173 @@
+package com.criando.projeto.services;
+
+import com.criando.projeto.entities.IdempotencyRecord;
+import com.criando.projeto.repositories.IdempotencyRecordRepository;
+import com.criando.projeto.util.BoundedTtlCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+// Respostas já produzidas para cada Idempotency-Key (ver IdempotencyFilter), para uma requisição repetida receber
+// o mesmo resultado sem executar a escrita de novo. A tabela tb_idempotency_key é a fonte da verdade e vale entre
+// instâncias: a primeira requisição grava um registro pendente (INSERT pela chave primária, então só uma ganha) e,
+// ao terminar, a resposta. Um cache LRU em memória guarda as respostas prontas, para as repetições que chegam na
+// mesma instância não irem ao banco. Respostas transitórias (409, 429 e 5xx) não são guardadas: o registro é apagado e
+// a repetição roda de novo. Cada reserva tem um token, e só quem reservou grava a resposta ou libera a chave.
+// Tudo expira pelo TTL; os registros vencidos são apagados de tempos em tempos (purgeExpired).
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyRecordRepository repository;
+    private final BoundedTtlCache<String, StoredResponse> responses;
+    private final Duration ttl;
+    private final Duration pendingTimeout;
+    private final Clock clock;
+
+    @Autowired
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            @Value("${idempotency.cache.max-size:10000}") int maxSize,
+                            @Value("${idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${idempotency.pending-timeout-seconds:60}") long pendingTimeoutSeconds) {
+        this(repository, maxSize, Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(pendingTimeoutSeconds), Clock.systemUTC());
+    }
+
+    public IdempotencyStore(IdempotencyRecordRepository repository, int maxSize, Duration ttl, Duration pendingTimeout,
+                            Clock clock) {
+        this.repository = repository;
+        this.responses = new BoundedTtlCache<>(maxSize, ttl, clock);
+        this.ttl = ttl;
+        this.pendingTimeout = pendingTimeout;
+        this.clock = clock;
+    }
+
+    // Reserva a chave para esta requisição ou diz por que ela não pode seguir (já respondida, em andamento ou
+    // usada com outro corpo)
+    public Claim begin(String key, String requestHash) {
+        Instant now = clock.instant();
+        Optional<StoredResponse> cached = responses.get(key);
+        if (cached.isPresent() && !cached.get().isExpired(now)) {
+            return answered(cached.get(), requestHash);
+        }
+        // Duas tentativas: a segunda só acontece quando o registro encontrado estava vencido e foi apagado
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Optional<IdempotencyRecord> existing = repository.findById(key);
+            if (existing.isEmpty()) {
+                String claimToken = UUID.randomUUID().toString();
+                try {
+                    repository.saveAndFlush(new IdempotencyRecord(key, requestHash, claimToken, now.plus(pendingTimeout)));
+                    return Claim.acquired(claimToken);
+                } catch (DataIntegrityViolationException e) {
+                    // Outra requisição com a mesma chave gravou primeiro
+                    existing = repository.findById(key);
+                    if (existing.isEmpty()) {
+                        return Claim.inProgress();
+                    }
+                }
+            }
+            IdempotencyRecord record = existing.get();
+            if (record.isExpired(now)) {
+                repository.deleteIfExpired(key, now);
+                continue;
+            }
+            if (!record.getRequestHash().equals(requestHash)) {
+                return Claim.mismatch();
+            }
+            if (record.isPending()) {
+                return Claim.inProgress();
+            }
+            StoredResponse response = new StoredResponse(record.getStatus(), record.getContentType(),
+                    record.getLocation(), record.getBody(), record.getRequestHash(), record.getExpiresAt());
+            responses.put(key, response);
+            return Claim.replay(response);
+        }
+        return Claim.inProgress();
+    }
+
+    // Guarda a resposta da requisição que reservou a chave; respostas transitórias e grandes demais liberam a chave
+    public void complete(String key, String claimToken, String requestHash, int status, String contentType,
+                         String location, byte[] body) {
+        if (isTransient(status) || body.length > IdempotencyRecord.MAX_BODY_LENGTH) {
+            release(key, claimToken);
+            return;
+        }
+        Instant expiresAt = clock.instant().plus(ttl);
+        if (repository.complete(key, claimToken, status, contentType, location, body, expiresAt) == 0) {
+            // O registro pendente venceu durante a requisição e pode já ser de outra: não guarda nada
+            log.warn("Registro de idempotência {} venceu antes de a requisição terminar", key);
+            return;
+        }
+        responses.put(key, new StoredResponse(status, contentType, location, body, requestHash, expiresAt));
+    }
+
+    // A requisição falhou sem resposta para guardar: a chave fica livre para uma nova tentativa. Só a reserva feita
+    // com claimToken é apagada; se ela já venceu e a chave é de outra requisição, nada muda
+    public void release(String key, String claimToken) {
+        repository.releaseClaim(key, claimToken);
+    }
+
+    // Conflito com outra escrita (409), limite de requisições (429) e erro do servidor (5xx) dependem do momento:
+    // repetir a requisição pode dar outro resultado, então a resposta não fica presa à chave
+    static boolean isTransient(int status) {
+        return status == 409 || status == 429 || status >= 500;
+    }
+
+    @Scheduled(cron = "${idempotency.purge.cron:0 */10 * * * *}")
+    public void purgeExpired() {
+        int removed = repository.deleteExpired(clock.instant());
+        if (removed > 0) {
+            log.info("Idempotência: {} registros vencidos removidos", removed);
+        }
+    }
+
+    public BoundedTtlCache.Stats stats() {
+        return responses.stats();
+    }
+
+    private static Claim answered(StoredResponse response, String requestHash) {
+        return response.requestHash().equals(requestHash) ? Claim.replay(response) : Claim.mismatch();
+    }
+
+    public record StoredResponse(int status, String contentType, String location, byte[] body, String requestHash,
+                                 Instant expiresAt) {
+        boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+
+    public enum Outcome {
+        ACQUIRED, // A requisição pode seguir; depois chamar complete ou release com claimToken
+        REPLAY, // Já respondida: devolver response
+        IN_PROGRESS, // A requisição original ainda não terminou
+        MISMATCH // A chave já foi usada com outro corpo
+    }
+
+    public record Claim(Outcome outcome, StoredResponse response, String claimToken) {
+        static Claim acquired(String claimToken) {
+            return new Claim(Outcome.ACQUIRED, null, claimToken);
+        }
+
+        static Claim replay(StoredResponse response) {
+            return new Claim(Outcome.REPLAY, response, null);
+        }
+
+        static Claim inProgress() {
+            return new Claim(Outcome.IN_PROGRESS, null, null);
+        }
+
+        static Claim mismatch() {
+            return new Claim(Outcome.MISMATCH, null, null);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.criando.projeto.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Repetição limitada para operações comutativas sobre um registro versionado (ex.: somar quantidade a um item do
+// pedido): se outra escrita venceu a corrida (OptimisticLockingFailureException), a operação é refeita do zero,
+// relendo o registro, até maxAttempts vezes, com uma espera curta e aleatória entre as tentativas para os
+// concorrentes não colidirem de novo. Cada tentativa roda na sua própria transação. Só serve para operações cujo
+// resultado não depende da ordem (comutativas): as demais devem deixar o conflito virar 409 para o cliente decidir.
+@Component
+public class OptimisticRetry {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    private final TransactionOperations transactionOperations;
+    private final int maxAttempts;
+    private final Duration maxBackoff;
+
+    @Autowired
+    public OptimisticRetry(PlatformTransactionManager transactionManager,
+                           @Value("${orders.optimistic-retry.max-attempts:3}") int maxAttempts,
+                           @Value("${orders.optimistic-retry.max-backoff-ms:20}") long maxBackoffMillis) {
+        this(new TransactionTemplate(transactionManager), maxAttempts, Duration.ofMillis(maxBackoffMillis));
+    }
+
+    public OptimisticRetry(TransactionOperations transactionOperations, int maxAttempts, Duration maxBackoff) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("O número de tentativas deve ser positivo.");
+        }
+        this.transactionOperations = transactionOperations;
+        this.maxAttempts = maxAttempts;
+        this.maxBackoff = maxBackoff;
+    }
+
+    public <T> T execute(Supplier<T> operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionOperations.execute(status -> operation.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts || !backoff(attempt)) {
+                    throw e;
+                }
+                log.debug("Conflito de versão na tentativa {} de {}, repetindo", attempt, maxAttempts);
+            }
+        }
+    }
+
+    // false se a thread foi interrompida durante a espera: aí não há nova tentativa
+    private boolean backoff(int attempt) {
+        long maxMillis = maxBackoff.toMillis() * attempt;
+        if (maxMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxMillis + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
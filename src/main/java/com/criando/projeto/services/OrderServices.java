@@ -2,22 +2,44 @@ package com.criando.projeto.services;
 
 import com.criando.projeto.entities.*;
 import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.dto.CursorPage;
+import com.criando.projeto.dto.OrderBatchResult;
+import com.criando.projeto.dto.OrderSummary;
+import com.criando.projeto.queryFIlters.OrderCursor;
 import com.criando.projeto.queryFIlters.OrderQueryFilter;
 import com.criando.projeto.repositories.*;
 import com.criando.projeto.services.exceptions.*;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 //@Component registra a classe como componente, para que ela possa ser injetado automaticamente com o AutoWired
@@ -38,35 +60,98 @@ public class OrderServices {
     private UserRepository userRepository;
     @Autowired
     private AuthenticationFacade authenticationFacade; // Para pegar o usuário logado
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+    @Value("${orders.export.fetch-size:500}")
+    private int exportFetchSize; // Linhas por ida ao banco e pedidos por bloco na exportação
+    @Value("${orders.batch.max-size:1000}")
+    private int batchMaxSize; // Máximo de pedidos por POST /orders/batch
 
 
 
-    public List<Order> findOrders(OrderQueryFilter filter) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    @Transactional(readOnly = true)
+    public CursorPage<Order> findOrders(OrderQueryFilter filter) {
+        restrictToAuthenticatedUser(filter);
+        int size = filter.pageSize();
+        // Gera a Specification a partir do filtro (inclui a posição do cursor, se houver)
+        Specification<Order> spec = filter.toSpecification();
+        // Busca um pedido a mais que o tamanho da página só para saber se existe próxima página (sem COUNT)
+        List<Order> orders = orderRepository.findBy(spec,
+                query -> query.sortBy(OrderQueryFilter.KEYSET_SORT).limit(size + 1).all());
+        return CursorPage.of(withItems(orders), size, order -> OrderCursor.of(order).encode());
+    }
+
+    // Mesma listagem e mesmo cursor de findOrders, mas só com id, moment, status, nome do cliente e total (calculado no banco)
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummary> findOrderSummaries(OrderQueryFilter filter) {
+        restrictToAuthenticatedUser(filter);
+        int size = filter.pageSize();
+        List<OrderSummary> summaries = orderRepository.findSummaries(filter.toSpecification(), OrderQueryFilter.KEYSET_SORT, size + 1);
+        return CursorPage.of(summaries, size, summary -> new OrderCursor(summary.moment(), summary.id()).encode());
+    }
 
-        // Se o usuário for do role USER, ele só pode ver os próprios pedidos
+    // Filtro da exportação (GET /orders/export): os mesmos critérios de findOrders, restritos ao usuário logado.
+    // Separado de exportOrders para o filtro ser validado (ex.: cursor inválido vira 400) antes de a resposta começar
+    public Specification<Order> exportSpecification(OrderQueryFilter filter) {
+        restrictToAuthenticatedUser(filter);
+        return filter.toSpecification();
+    }
+
+    // Todos os pedidos da spec (sem página), na ordem da listagem, escritos como NDJSON (um JSON por linha) à medida
+    // que são lidos do banco. Nem a lista inteira de pedidos nem um array JSON único ficam na memória: cada bloco é
+    // escrito, enviado e descartado. Devolve quantos pedidos foram exportados
+    @Transactional(readOnly = true)
+    public long exportOrders(Specification<Order> spec, OutputStream out) throws IOException {
+        // Sem flush a cada pedido (o flush é feito uma vez por bloco) e sem o espaço que o Jackson põe entre valores
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null);
+        long[] exported = {0};
+        try {
+            orderRepository.forEachChunk(spec, OrderQueryFilter.KEYSET_SORT, exportFetchSize, orders -> {
+                try {
+                    for (Order order : orders) {
+                        writer.writeValue(generator, order);
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                exported[0] += orders.size();
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.close();
+        return exported[0];
+    }
+
+    // Se o usuário for do role USER, ele só pode ver os próprios pedidos
+    private void restrictToAuthenticatedUser(OrderQueryFilter filter) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authenticationFacade.isUser(authentication)) {
             // Define automaticamente o userId para o id do usuário logado
-            Long userId = authenticationFacade.getAuthenticatedUser().getId();
-            filter.setUserId(userId);
+            filter.setUserId(authenticationFacade.getAuthenticatedUserId());
         }
-        // Gera a Specification a partir do filtro
-        Specification<Order> spec = filter.toSpecification();
-        // Busca os pedidos com base na Specification
-        return orderRepository.findAll(spec);
     }
 
 
+    @Transactional(readOnly = true)
     public Order findById(Long id, Authentication authentication) {
         Order order = orderRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado" + id));
         if (!authenticationFacade.isAdmin(authentication) && !authenticationFacade.isSameUser(order.getClient().getId())) {
             throw new AccessDeniedException("Você não tem permissão para acessar este pedido.");
         }
-        return order;
+        return withItems(order);
     }
 
 
 
+    @Transactional
     public Order insert(Order order) {
         String email = authenticationFacade.getAuthenticatedUserEmail();
         User user = userRepository.findByEmail(email)
@@ -81,26 +166,137 @@ public class OrderServices {
         if (coupon != null) {
             order.setDiscount(coupon);
         }
-        // Salva o pedido sem itens
-        var savedOrder = orderRepository.save(order);
-        // Processa cada item para buscar o produto e definir corretamente o preço
+        // Busca todos os produtos da requisição em uma única consulta, antes de salvar o pedido,
+        // para não deixar um pedido sem itens gravado quando algum produto não existe
+        Map<Long, Product> products = findProductsOf(orderItems);
+        // Atualiza os dados de cada OrderItem com o produto encontrado e define corretamente o preço
         orderItems.forEach(orderItem -> {
-            // Buscar o produto no banco de dados
-            Product product = productRepository.findById(orderItem.getProduct().getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado: ID " + orderItem.getProduct().getId()));
-            // Atualizar os dados do OrderItem com os dados do produto encontrado, de acordo com os atributos do order item
-            orderItem.setOrder(savedOrder);
+            Product product = products.get(orderItem.getProduct().getId());
             orderItem.setProduct(product);
             orderItem.setPrice(product.getPrice()); // Define o preço do produto no pedido
         });
+        // Total e quantidade de itens já vão gravados no INSERT do pedido
+        order.recalculateTotals(orderItems);
+        // Salva o pedido sem itens
+        var savedOrder = orderRepository.save(order);
+        orderItems.forEach(orderItem -> orderItem.setOrder(savedOrder));
         // Salva todos os itens com as informações do produto
         var savedItems = orderItemRepository.saveAll(orderItems);
         // Associa os itens ao pedido
         savedOrder.setItems(new HashSet<>(savedItems));
-        return savedOrder;
+        return withItems(savedOrder);
     }
 
 
+    // Criação em lote (POST /orders/batch), numa única transação: o cliente é buscado uma vez, os produtos e os cupons
+    // de todos os pedidos em uma consulta cada (findAllById) e os pedidos aceitos são gravados juntos, com os INSERTs
+    // de pedidos e de itens em lotes JDBC. Pedido com produto/cupom inexistente ou item sem produto/quantidade é
+    // recusado sozinho, sem impedir os outros; o resultado de cada um vem na posição em que foi enviado
+    @Transactional
+    public List<OrderBatchResult> insertBatch(List<Order> orders) {
+        if (orders == null || orders.isEmpty()) {
+            throw new InvalidBatchException("O lote deve ter pelo menos um pedido");
+        }
+        if (orders.size() > batchMaxSize) {
+            throw new InvalidBatchException("O lote deve ter no máximo " + batchMaxSize + " pedidos");
+        }
+        String email = authenticationFacade.getAuthenticatedUserEmail();
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado" + email));
+        Map<Long, Product> products = findAllById(orders.stream()
+                .filter(order -> order.getItems() != null)
+                .flatMap(order -> order.getItems().stream())
+                .map(OrderItem::getProduct)
+                .filter(Objects::nonNull)
+                .map(Product::getId), productRepository::findAllById, Product::getId);
+        Map<Long, Coupon> coupons = findAllById(orders.stream()
+                .map(Order::getDiscount)
+                .filter(Objects::nonNull)
+                .map(Coupon::getId), couponRepository::findAllById, Coupon::getId);
+
+        OrderBatchResult[] results = new OrderBatchResult[orders.size()];
+        List<Order> accepted = new ArrayList<>();
+        List<OrderItem> acceptedItems = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            OrderBatchResult rejection = checkBatchOrder(i, order, products, coupons);
+            if (rejection != null) {
+                results[i] = rejection;
+                continue;
+            }
+            Set<OrderItem> orderItems = order.getItems() != null ? order.getItems() : Set.of();
+            // Mesmo preparo do insert, com produtos e cupom já carregados
+            order.setClient(user);
+            order.setItems(new HashSet<>());
+            // Cupom sem id conta como sem cupom, como no insert
+            order.setDiscount(order.getDiscount() != null && order.getDiscount().getId() != null
+                    ? coupons.get(order.getDiscount().getId()) : null);
+            orderItems.forEach(orderItem -> {
+                Product product = products.get(orderItem.getProduct().getId());
+                orderItem.setProduct(product);
+                orderItem.setPrice(product.getPrice());
+                orderItem.setOrder(order);
+            });
+            order.recalculateTotals(orderItems);
+            accepted.add(order);
+            acceptedItems.addAll(orderItems);
+        }
+        // Pedidos primeiro (ids da sequence, sem INSERT imediato), depois todos os itens
+        orderRepository.saveAll(accepted);
+        orderItemRepository.saveAll(acceptedItems);
+        for (int i = 0; i < orders.size(); i++) {
+            if (results[i] == null) {
+                results[i] = OrderBatchResult.created(i, orders.get(i));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    // Motivo de um pedido do lote ser recusado, ou null se ele pode ser criado
+    private OrderBatchResult checkBatchOrder(int index, Order order, Map<Long, Product> products, Map<Long, Coupon> coupons) {
+        if (order == null) {
+            return OrderBatchResult.failed(index, HttpStatus.BAD_REQUEST, "Pedido vazio");
+        }
+        if (order.getItems() != null) {
+            for (OrderItem item : order.getItems()) {
+                if (item.getProduct() == null || item.getProduct().getId() == null) {
+                    return OrderBatchResult.failed(index, HttpStatus.BAD_REQUEST, "Item sem produto");
+                }
+                if (item.getQuantity() == null || item.getQuantity() < 1) {
+                    return OrderBatchResult.failed(index, HttpStatus.BAD_REQUEST,
+                            "Quantidade inválida para o produto ID " + item.getProduct().getId());
+                }
+            }
+            List<Long> missingIds = order.getItems().stream()
+                    .map(item -> item.getProduct().getId())
+                    .filter(id -> !products.containsKey(id))
+                    .distinct()
+                    .toList();
+            if (missingIds.size() == 1) {
+                return OrderBatchResult.failed(index, HttpStatus.NOT_FOUND, "Produto não encontrado: ID " + missingIds.get(0));
+            }
+            if (!missingIds.isEmpty()) {
+                return OrderBatchResult.failed(index, HttpStatus.NOT_FOUND, "Produtos não encontrados: IDs " + missingIds);
+            }
+        }
+        if (order.getDiscount() != null && order.getDiscount().getId() != null
+                && !coupons.containsKey(order.getDiscount().getId())) {
+            return OrderBatchResult.failed(index, HttpStatus.NOT_FOUND, "Cupom não encontrado: ID " + order.getDiscount().getId());
+        }
+        return null;
+    }
+
+    // Uma consulta só para todos os ids (sem repetidos nem nulos), devolvida como mapa por id
+    private static <T> Map<Long, T> findAllById(Stream<Long> ids, Function<List<Long>, List<T>> finder, Function<T, Long> idOf) {
+        List<Long> distinctIds = ids.filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.isEmpty()) {
+            return Map.of();
+        }
+        return finder.apply(distinctIds).stream().collect(Collectors.toMap(idOf, entity -> entity));
+    }
+
+
+    @Transactional
     public Order setOrderPayment(Long orderId, Payment payment) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado. ID:" + orderId));
@@ -121,10 +317,11 @@ public class OrderServices {
             order.setOrderStatus(OrderStatus.PAID); // Ou outro status como "COMPLETED"
         }
         // Salva o pedido com os dados atualizados
-        return orderRepository.save(order);
+        return withItems(orderRepository.save(order));
     }
 
 
+    @Transactional
     public Order setOrDeleteCoupon(Long orderId, Long couponId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado. ID:" + orderId));
@@ -147,11 +344,12 @@ public class OrderServices {
             order.setDiscount(null);
         }
         // Salvar o pedido com as alterações
-        return orderRepository.save(order);
+        return withItems(orderRepository.save(order));
     }
 
 
 
+    @Transactional
     public Order update(Long id, Order obj) {
         try {
             Order entity = orderRepository.findById(id)
@@ -162,7 +360,7 @@ public class OrderServices {
             }
             validateOrderStatus(entity);
             updateData(entity, obj);
-            return orderRepository.save(entity);
+            return withItems(orderRepository.save(entity));
         } catch (ResourceNotFoundException e) {
             throw e;
         }
@@ -193,47 +391,81 @@ public class OrderServices {
 
 
 
-    public Order updateOrderItems(Long orderId, Set<OrderItem> newItems, Authentication authentication) {
-
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado. ID:" + orderId));
-        if (!authenticationFacade.isAdmin(authentication) && !authenticationFacade.isSameUser(order.getClient().getId())) {
-            throw new AccessDeniedException("Você não tem permissão para editar este pedido.");
-        }
-        validateOrderStatus(order);
-        updateItemsInOrder(order, newItems);
-        return orderRepository.save(order);
+    // Somar quantidades e incluir itens é comutativo: se outra requisição alterou o pedido no meio (conflito de
+    // versão), a operação é refeita sobre o pedido relido em vez de perder a soma ou devolver 409.
+    // Sem @Transactional: cada tentativa roda na própria transação, aberta pelo OptimisticRetry
+    public Order updateOrderItems(Long orderId, Collection<OrderItem> newItems, Authentication authentication) {
+        return optimisticRetry.execute(() -> {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado. ID:" + orderId));
+            if (!authenticationFacade.isAdmin(authentication) && !authenticationFacade.isSameUser(order.getClient().getId())) {
+                throw new AccessDeniedException("Você não tem permissão para editar este pedido.");
+            }
+            validateOrderStatus(order);
+            // Cópias dos itens enviados: uma tentativa que falhou pode ter deixado os originais ligados ao pedido antigo
+            // Linhas repetidas do mesmo produto somam as quantidades (ver OrderItem.mergeByProduct)
+            updateItemsInOrder(order, OrderItem.mergeByProduct(newItems).stream()
+                    .map(item -> new OrderItem(null, item.getProduct(), item.getQuantity()))
+                    .toList());
+            return withItems(orderRepository.save(order));
+        });
     }
 
     // Metodo responsável por atualizar ou adicionar itens ao pedido
-    private void updateItemsInOrder(Order order, Set<OrderItem> newItems) {
+    private void updateItemsInOrder(Order order, List<OrderItem> newItems) {
         // Mapeia os itens existentes do pedido para um Map, usando o ID do produto como chave
         Map<Long, OrderItem> existingItemsMap = order.getItems().stream()
                 .collect(Collectors.toMap(item -> item.getProduct().getId(), item -> item));
+        // Só os produtos que ainda não estão no pedido precisam ser buscados, todos em uma única consulta
+        List<OrderItem> itemsToAdd = newItems.stream()
+                .filter(newItem -> !existingItemsMap.containsKey(newItem.getProduct().getId()))
+                .toList();
+        Map<Long, Product> products = findProductsOf(itemsToAdd);
         for (OrderItem newItem : newItems) {
             OrderItem existingItem = existingItemsMap.get(newItem.getProduct().getId());
             if (existingItem != null) {
-                existingItem.setQuantity(existingItem.getQuantity() + newItem.getQuantity());
+                order.changeItemQuantity(existingItem, existingItem.getQuantity() + newItem.getQuantity());
             } else {
-                addNewItemToOrder(order, newItem);
+                addNewItemToOrder(order, newItem, products.get(newItem.getProduct().getId()));
             }
         }
     }
 
     // Metodo auxiliar para adicionar um novo item ao pedido
-    private void addNewItemToOrder(Order order, OrderItem newItem) {
-        // Busca o produto no banco para garantir que estamos associando um produto válido
-        Product product = productRepository.findById(newItem.getProduct().getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado: ID " + newItem.getProduct().getId()));
+    private void addNewItemToOrder(Order order, OrderItem newItem, Product product) {
         newItem.setOrder(order);
         newItem.setProduct(product);
         newItem.setPrice(product.getPrice());
-        order.getItems().add(newItem);
+        order.addItem(newItem); // Também soma o item aos totais gravados do pedido
+    }
+
+    // Busca os produtos dos itens com um único findAllById, em vez de um findById por item.
+    // Se algum produto não existir, todos os IDs não encontrados são informados juntos na mesma exceção
+    private Map<Long, Product> findProductsOf(Collection<OrderItem> items) {
+        Set<Long> ids = items.stream()
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Product> products = productRepository.findAllById(ids.stream().filter(Objects::nonNull).toList()).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        List<Long> missingIds = ids.stream()
+                .filter(id -> !products.containsKey(id))
+                .toList();
+        if (missingIds.size() == 1) {
+            throw new ResourceNotFoundException("Produto não encontrado: ID " + missingIds.get(0));
+        }
+        if (!missingIds.isEmpty()) {
+            throw new ResourceNotFoundException("Produtos não encontrados: IDs " + missingIds);
+        }
+        return products;
     }
 
 
 
 
+    @Transactional
     public Order updateOrderStatus(Long id, OrderStatus status) {
         Order entity = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado. ID:" + id));;
@@ -246,9 +478,10 @@ public class OrderServices {
             throw new InvalidOrderStatusException(status.toString(), "O status fornecido não é válido.");
         }
         entity.setOrderStatus(status);
-        return orderRepository.save(entity);
+        return withItems(orderRepository.save(entity));
     }
 
+    @Transactional
     public Order removeProductFromOrder(Long orderId, Long productId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido não encontrado. ID:" + orderId));
@@ -262,10 +495,11 @@ public class OrderServices {
                 .filter(item -> item.getProduct().getId().equals(productId))
                 .findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado no pedido"));
-        order.getItems().remove(itemToRemove);
-        return orderRepository.save(order);
+        order.removeItem(itemToRemove); // Também desconta o item dos totais gravados do pedido
+        return withItems(orderRepository.save(order));
     }
 
+    @Transactional
     public void delete(Long id) {
         try {
             Order order = orderRepository.findById(id)
@@ -281,6 +515,8 @@ public class OrderServices {
             order.getItems().clear();
             orderRepository.save(order);
             orderRepository.deleteById(id);
+            // Dentro da transação o DELETE só iria ao banco no commit, fora deste try: o flush traz a violação para cá
+            orderRepository.flush();
         } catch (EmptyResultDataAccessException e) {
             throw new ResourceNotFoundException(id);
         } catch (DataIntegrityViolationException e) {
@@ -288,6 +524,18 @@ public class OrderServices {
         }
     }
 
+    // Sem open-in-view a resposta é serializada depois do fim da transação: os itens, os produtos e as categorias
+    // (lazy) que vão no JSON do pedido são carregados aqui, com a sessão ainda aberta, em lotes (@BatchSize)
+    private Order withItems(Order order) {
+        withItems(List.of(order));
+        return order;
+    }
+
+    private List<Order> withItems(List<Order> orders) {
+        orders.forEach(order -> order.getItems().forEach(item -> Hibernate.initialize(item.getProduct().getCategories())));
+        return orders;
+    }
+
     private Coupon applyCouponToOrder(Order order) {
         if (order == null) {
             throw new ResourceNotFoundException("Pedido não encontrado.");
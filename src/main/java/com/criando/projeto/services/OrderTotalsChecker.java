@@ -0,0 +1,88 @@
+package com.criando.projeto.services;
+
+import com.criando.projeto.dto.OrderTotals;
+import com.criando.projeto.dto.OrderTotalsReport;
+import com.criando.projeto.repositories.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Confere os totais gravados em tb_order (total, subtotal dos itens e quantidade de itens) contra o que os itens
+// e o cupom dão hoje. Percorre os pedidos em lotes por id, recalcula cada lote com uma única consulta agrupada
+// e corrige (e registra no log) os pedidos divergentes.
+// Roda pelo cron orders.totals-check.cron (desligado por padrão) ou sob demanda em POST /admin/orders/totals-check.
+@Component
+public class OrderTotalsChecker {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderTotalsChecker.class);
+    private static final int MAX_REPORTED_IDS = 100;
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public OrderTotalsChecker(OrderRepository orderRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${orders.totals-check.batch-size:1000}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${orders.totals-check.cron:-}")
+    public void scheduledCheck() {
+        check();
+    }
+
+    public OrderTotalsReport check() {
+        long checked = 0;
+        long drifted = 0;
+        List<Long> driftedIds = new ArrayList<>();
+        long afterId = 0;
+        while (true) {
+            long lastId = afterId;
+            List<OrderTotals> corrected = new ArrayList<>();
+            // Cada lote em sua própria transação: a leitura e as correções do lote são atômicas
+            List<OrderTotals> page = transactionTemplate.execute(status -> {
+                List<OrderTotals> rows = orderRepository.findTotalsAfter(lastId, Limit.of(batchSize));
+                for (OrderTotals row : rows) {
+                    if (!row.hasDrift()) {
+                        continue;
+                    }
+                    // Pedido alterado depois da leitura: quem o alterou já regravou os totais pela entidade
+                    if (orderRepository.updateTotals(row.id(), row.version(), row.expectedSubtotalCents(),
+                            row.expectedTotalCents(), row.expectedItemCount()) == 0) {
+                        log.info("Pedido {} alterado durante a conferência de totais: correção ignorada", row.id());
+                        continue;
+                    }
+                    corrected.add(row);
+                }
+                return rows;
+            });
+            for (OrderTotals row : corrected) {
+                drifted++;
+                if (driftedIds.size() < MAX_REPORTED_IDS) {
+                    driftedIds.add(row.id());
+                }
+                log.warn("Total divergente no pedido {}: gravado {} centavos / {} itens, recalculado {} centavos / {} itens",
+                        row.id(), row.storedTotalCents(), row.storedItemCount(),
+                        row.expectedTotalCents(), row.expectedItemCount());
+            }
+            checked += page.size();
+            if (page.size() < batchSize) {
+                break;
+            }
+            afterId = page.get(page.size() - 1).id();
+        }
+        log.info("Conferência de totais: {} pedidos conferidos, {} corrigidos", checked, drifted);
+        return new OrderTotalsReport(checked, drifted, driftedIds);
+    }
+}
@@ -0,0 +1,360 @@
+package com.criando.projeto.services;
+
+import com.criando.projeto.dto.ProductCategoryLink;
+import com.criando.projeto.dto.ProductFacets;
+import com.criando.projeto.dto.ProductText;
+import com.criando.projeto.entities.Category;
+import com.criando.projeto.entities.Product;
+import com.criando.projeto.repositories.CategoryRepository;
+import com.criando.projeto.repositories.ProductRepository;
+import com.criando.projeto.util.PriceRangeIndex;
+import com.criando.projeto.util.ProductColumns;
+import com.criando.projeto.util.TrigramIndex;
+import org.hibernate.Hibernate;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice em memória do catálogo para os filtros do GET /products não virarem LIKE '%x%' e faixas de preço
+// sem índice no banco (que percorrem a tabela inteira). Cada filtro vira um bitmap de ids de produto:
+// nome e descrição por trigramas (TrigramIndex), categoria pelos produtos de cada categoria cujo nome casa,
+// preço por busca binária no array ordenado de preços (PriceRangeIndex). Os bitmaps são intersectados e o
+// filtro consulta "id in (...)". É montado ao subir a aplicação e mantido a cada escrita do
+// ProductServices/CategoryServices. Enquanto o índice não está pronto, ou quando sobram ids demais para um IN,
+// a busca devolve vazio e o filtro usa as Specifications de sempre.
+// Guarda também um retrato colunar (ProductColumns) para as contagens do GET /products/facets.
+// Os bitmaps são de int: se aparecer um id acima de Integer.MAX_VALUE, o índice deixa de responder.
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final int maxIds;
+    private final int pageSize;
+
+    private volatile Indexes current = new Indexes();
+    private Indexes building; // só acessado com o lock do objeto
+    private volatile boolean ready;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              CategoryRepository categoryRepository,
+                              @Value("${catalog.search.max-ids:1000}") int maxIds,
+                              @Value("${catalog.search.page-size:5000}") int pageSize) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.maxIds = maxIds;
+        this.pageSize = pageSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    // Lê todos os produtos (em páginas, só os campos indexados) e categorias e troca o índice de uma vez.
+    // Escritas que chegam durante a leitura vão para os dois índices e a página (que pode ter sido lida antes
+    // da escrita) não sobrescreve esses produtos, então nada se perde nem volta ao valor antigo na troca
+    public void rebuild() {
+        long start = System.nanoTime();
+        Indexes fresh = new Indexes();
+        synchronized (this) {
+            building = fresh;
+        }
+        try {
+            for (Category category : categoryRepository.findAll()) {
+                fresh.putCategory(category.getId(), category.getName());
+            }
+            long lastId = 0L;
+            List<ProductText> page;
+            do {
+                page = productRepository.findTextsAfter(lastId, Limit.of(pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                long pageLastId = page.get(page.size() - 1).id();
+                Map<Long, List<Long>> categoriesByProduct = new HashMap<>();
+                for (ProductCategoryLink link : productRepository.findCategoryLinks(lastId, pageLastId)) {
+                    categoriesByProduct.computeIfAbsent(link.productId(), id -> new ArrayList<>()).add(link.categoryId());
+                }
+                synchronized (this) {
+                    for (ProductText product : page) {
+                        if (fresh.written.contains(product.id())) {
+                            continue;
+                        }
+                        fresh.putProduct(product.id(), product.name(), product.description(), product.priceCents(),
+                                categoriesByProduct.getOrDefault(product.id(), List.of()));
+                    }
+                }
+                lastId = pageLastId;
+            } while (page.size() == pageSize);
+            fresh.prices.compact();
+            synchronized (this) {
+                current = fresh;
+                ready = true;
+            }
+            log.info("Índice de busca do catálogo montado: {} produtos em {} ms",
+                    fresh.names.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            synchronized (this) {
+                building = null;
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // As categorias só são atualizadas se a coleção estiver carregada (fora da sessão ela é lazy);
+    // caso contrário o produto continua nas categorias que já tinha no índice
+    public synchronized void putProduct(Product product) {
+        List<Long> categoryIds = null;
+        if (Hibernate.isInitialized(product.getCategories())) {
+            categoryIds = product.getCategories().stream().map(Category::getId).toList();
+        }
+        current.putProduct(product.getId(), product.getName(), product.getDescription(), product.getPriceCents(),
+                categoryIds);
+        if (building != null) {
+            building.putProduct(product.getId(), product.getName(), product.getDescription(), product.getPriceCents(),
+                    categoryIds);
+            building.written.add(product.getId());
+        }
+    }
+
+    public synchronized void removeProduct(Long id) {
+        current.removeProduct(id);
+        if (building != null) {
+            building.removeProduct(id);
+            building.written.add(id);
+        }
+    }
+
+    public synchronized void putCategory(Category category) {
+        current.putCategory(category.getId(), category.getName());
+        if (building != null) {
+            building.putCategory(category.getId(), category.getName());
+        }
+    }
+
+    public synchronized void removeCategory(Long id) {
+        current.removeCategory(id);
+        if (building != null) {
+            building.removeCategory(id);
+        }
+    }
+
+    // Ids dos produtos que atendem a todos os filtros informados (null = sem aquele filtro), com a mesma semântica
+    // das Specifications: textos por "contém" diferenciando maiúsculas, preços em centavos com limites inclusivos.
+    // Vazio quando o índice não pode responder ou o resultado passa de catalog.search.max-ids
+    public Optional<List<Long>> findIds(String name, String description, String categoryName,
+                                        Long minPriceCents, Long maxPriceCents) {
+        Indexes indexes = current;
+        if (!ready) {
+            return Optional.empty();
+        }
+        RoaringBitmap result;
+        indexes.lock.readLock().lock();
+        try {
+            if (indexes.overflow) {
+                return Optional.empty();
+            }
+            result = match(indexes, name, description, categoryName, minPriceCents, maxPriceCents);
+        } finally {
+            indexes.lock.readLock().unlock();
+        }
+        if (result == null) {
+            return Optional.empty();
+        }
+        if (result.getCardinality() > maxIds) {
+            return Optional.empty();
+        }
+        List<Long> ids = new ArrayList<>(result.getCardinality());
+        result.forEach((int id) -> ids.add((long) id));
+        return Optional.of(ids);
+    }
+
+    // Contagens por categoria e faixa de preço dos produtos que atendem ao filtro (sem limite de ids).
+    // Vazio quando o índice não pode responder
+    public Optional<ProductFacets> facets(String name, String description, String categoryName,
+                                          Long minPriceCents, Long maxPriceCents, long bucketCents) {
+        Indexes indexes = current;
+        if (!ready) {
+            return Optional.empty();
+        }
+        indexes.lock.readLock().lock();
+        try {
+            if (indexes.overflow) {
+                return Optional.empty();
+            }
+            RoaringBitmap matches = match(indexes, name, description, categoryName, minPriceCents, maxPriceCents);
+            return Optional.of(ProductFacets.from(indexes.columns.count(matches, bucketCents),
+                    indexes.categoryNameById, bucketCents));
+        } finally {
+            indexes.lock.readLock().unlock();
+        }
+    }
+
+    // Quantas faixas de preço seriam necessárias (o ProductServices recusa tamanhos que gerariam faixas demais)
+    public long bucketCount(long bucketCents) {
+        return current.columns.bucketCount(bucketCents);
+    }
+
+    // Bitmap dos produtos que atendem aos filtros; null quando não há nenhum filtro. Chamado com o lock de leitura
+    private static RoaringBitmap match(Indexes indexes, String name, String description, String categoryName,
+                                       Long minPriceCents, Long maxPriceCents) {
+        // Preço e categoria primeiro (baratos: busca binária e união de bitmaps prontos); os textos depois,
+        // confirmando só os candidatos que já passaram pelos outros filtros
+        RoaringBitmap result = null;
+        if (minPriceCents != null || maxPriceCents != null) {
+            result = indexes.prices.between(minPriceCents, maxPriceCents);
+        }
+        if (categoryName != null) {
+            result = intersect(result, indexes.productsInCategoriesNamed(categoryName));
+        }
+        if (name != null) {
+            result = intersect(result, search(indexes.names, name, result));
+        }
+        if (description != null) {
+            result = intersect(result, search(indexes.descriptions, description, result));
+        }
+        return result;
+    }
+
+    private static RoaringBitmap intersect(RoaringBitmap current, RoaringBitmap filter) {
+        if (current == null) {
+            return filter;
+        }
+        current.and(filter);
+        return current;
+    }
+
+    private static RoaringBitmap search(TrigramIndex index, String term, RoaringBitmap candidates) {
+        long[] keys = candidates == null
+                ? index.search(term)
+                : index.search(term, key -> candidates.contains((int) key));
+        return toBitmap(keys);
+    }
+
+    private static RoaringBitmap toBitmap(long[] keys) {
+        int[] ids = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            ids[i] = (int) keys[i];
+        }
+        return RoaringBitmap.bitmapOfUnordered(ids);
+    }
+
+    // Uma escrita passa por vários índices (textos, preços, categorias, colunas), cada um com seu próprio lock:
+    // o lock de Indexes envolve a escrita inteira e a busca inteira, então uma busca nunca mistura um produto já
+    // atualizado em um índice com o valor antigo em outro. Com ele, overflow e productsByCategory também só são
+    // lidos e alterados sob o lock
+    private static final class Indexes {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final TrigramIndex names = new TrigramIndex();
+        private final TrigramIndex descriptions = new TrigramIndex();
+        private final TrigramIndex categoryNames = new TrigramIndex();
+        private final PriceRangeIndex prices = new PriceRangeIndex();
+        private final Map<Long, RoaringBitmap> productsByCategory = new HashMap<>();
+        private final Map<Long, String> categoryNameById = new ConcurrentHashMap<>();
+        private final ProductColumns columns = new ProductColumns();
+        private final Set<Long> written = new HashSet<>(); // produtos alterados durante o rebuild
+        private boolean overflow;
+
+        // categoryIds null = manter as categorias que o produto já tem no índice
+        void putProduct(Long id, String name, String description, Long priceCents, List<Long> categoryIds) {
+            lock.writeLock().lock();
+            try {
+                if (id > Integer.MAX_VALUE) {
+                    overflow = true;
+                    return;
+                }
+                int key = id.intValue();
+                names.put(id, name);
+                descriptions.put(id, description);
+                if (priceCents != null) {
+                    prices.put(key, priceCents);
+                } else {
+                    prices.remove(key);
+                }
+                columns.put(key, priceCents, categoryIds);
+                if (categoryIds != null) {
+                    productsByCategory.values().forEach(products -> products.remove(key));
+                    for (Long categoryId : categoryIds) {
+                        productsByCategory.computeIfAbsent(categoryId, c -> new RoaringBitmap()).add(key);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void removeProduct(Long id) {
+            if (id > Integer.MAX_VALUE) {
+                return;
+            }
+            int key = id.intValue();
+            lock.writeLock().lock();
+            try {
+                names.remove(id);
+                descriptions.remove(id);
+                prices.remove(key);
+                columns.remove(key);
+                productsByCategory.values().forEach(products -> products.remove(key));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void putCategory(Long id, String name) {
+            lock.writeLock().lock();
+            try {
+                categoryNames.put(id, name);
+                if (name != null) {
+                    categoryNameById.put(id, name);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void removeCategory(Long id) {
+            lock.writeLock().lock();
+            try {
+                categoryNames.remove(id);
+                categoryNameById.remove(id);
+                productsByCategory.remove(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // União dos produtos das categorias cujo nome contém o termo. Chamado com o lock de leitura
+        RoaringBitmap productsInCategoriesNamed(String term) {
+            RoaringBitmap result = new RoaringBitmap();
+            for (long categoryId : categoryNames.search(term)) {
+                RoaringBitmap products = productsByCategory.get(categoryId);
+                if (products != null) {
+                    result.or(products);
+                }
+            }
+            return result;
+        }
+    }
+}
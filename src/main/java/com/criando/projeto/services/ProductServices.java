@@ -1,17 +1,29 @@
 package com.criando.projeto.services;
 
+import com.criando.projeto.dto.ProductFacets;
 import com.criando.projeto.entities.Category;
 import com.criando.projeto.entities.Product;
+import com.criando.projeto.queryFIlters.ProductQueryFilter;
 import com.criando.projeto.repositories.CategoryRepository;
 import com.criando.projeto.repositories.ProductRepository;
+import com.criando.projeto.services.exceptions.InvalidQueryParameterException;
 import com.criando.projeto.services.exceptions.ResourceNotFoundException;
+import com.criando.projeto.specifications.ProductSpec;
+import com.criando.projeto.util.Money;
+import com.criando.projeto.util.ProductColumns;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 public class ProductServices {
@@ -20,32 +32,127 @@ public class ProductServices {
     private ProductRepository productRepository;
     @Autowired
     private CategoryRepository categoryRepository;
+    @Autowired
+    private CatalogCache catalogCache;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
+    @Transactional(readOnly = true)
     public List<Product> findAll(Specification<Product> spec) {
-        return productRepository.findAll(spec);
+        return withCategories(productRepository.findAll(spec));
+    }
+
+    // Listagem pública: consulta o banco só quando o filtro (normalizado) não está no CatalogCache.
+    // Os filtros de texto são resolvidos pelo ProductSearchIndex (busca por id em vez de LIKE).
+    // A transação é aberta só no carregamento: a resposta que sai do cache não pega conexão do pool
+    public List<Product> findAll(ProductQueryFilter filter) {
+        return catalogCache.products(filter.cacheKey(), () -> Transactions.readOnly(transactionManager,
+                () -> withCategories(productRepository.findAll(searchSpecification(filter)))));
     }
 
+    // Consulta do filtro resolvida pelo ProductSearchIndex: os filtros viram bitmaps de ids intersectados em memória
+    // e o banco só busca "id in (...)". A Specification do filtro é usada quando o índice não responde
+    // (ainda não montado ou ids demais)
+    public Specification<Product> searchSpecification(ProductQueryFilter filter) {
+        ProductQueryFilter.CacheKey key = filter.cacheKey();
+        return productSearchIndex.findIds(key.name(), key.description(), key.categoryName(),
+                        key.minPriceCents(), key.maxPriceCents())
+                .map(ProductSpec::idIn)
+                .orElseGet(filter::toSpecification);
+    }
+
+
+    // Contagens por categoria e faixa de preço dos produtos do filtro (GET /products/facets), numa passada pelo
+    // retrato colunar do ProductSearchIndex. Enquanto o índice não está pronto, conta os produtos da Specification
+    @Transactional(readOnly = true)
+    public ProductFacets facets(ProductQueryFilter filter, Double bucketSize) {
+        long bucketCents = bucketSize != null ? Money.toCents(bucketSize) : 0L;
+        if (bucketCents <= 0) {
+            throw new InvalidQueryParameterException("O parâmetro bucketSize deve ser maior que zero");
+        }
+        checkBucketCount(productSearchIndex.bucketCount(bucketCents));
+        ProductQueryFilter.CacheKey key = filter.cacheKey();
+        return productSearchIndex.facets(key.name(), key.description(), key.categoryName(),
+                        key.minPriceCents(), key.maxPriceCents(), bucketCents)
+                .orElseGet(() -> countFacets(productRepository.findAll(filter.toSpecification()), bucketCents));
+    }
 
+    // Sem o índice: conta direto nos produtos, por id Long (ids além do int dos bitmaps também entram)
+    private ProductFacets countFacets(List<Product> products, long bucketCents) {
+        Map<Long, String> categoryNames = new HashMap<>();
+        Map<Long, Long> byCategory = new HashMap<>();
+        TreeMap<Long, Long> byPriceBucket = new TreeMap<>();
+        long maxPriceCents = 0;
+        for (Product product : products) {
+            for (Category category : product.getCategories()) {
+                categoryNames.put(category.getId(), category.getName());
+                byCategory.merge(category.getId(), 1L, Long::sum);
+            }
+            Long priceCents = product.getPriceCents();
+            if (priceCents != null) {
+                long price = Math.max(priceCents, 0);
+                maxPriceCents = Math.max(maxPriceCents, price);
+                byPriceBucket.merge(price / bucketCents * bucketCents, 1L, Long::sum);
+            }
+        }
+        checkBucketCount(maxPriceCents / bucketCents + 1);
+        return ProductFacets.from(new ProductColumns.Counts(products.size(), byCategory, byPriceBucket),
+                categoryNames, bucketCents);
+    }
+
+    private void checkBucketCount(long buckets) {
+        if (buckets > ProductColumns.MAX_BUCKETS) {
+            throw new InvalidQueryParameterException("O parâmetro bucketSize gera faixas de preço demais (máximo "
+                    + ProductColumns.MAX_BUCKETS + ")");
+        }
+    }
+
+
+    // Como na listagem, a transação só existe no carregamento do cache
     public Product findById(Long id) {
-        Optional <Product> obj =  productRepository.findById(id);
-        return obj.orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado. ID: " + id));
+        return catalogCache.product(id, () -> Transactions.readOnly(transactionManager, () -> {
+            Optional <Product> obj =  productRepository.findById(id);
+            Product product = obj.orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado. ID: " + id));
+            return withCategories(List.of(product)).get(0);
+        }));
+    }
+
+    // O produto guardado no cache (ou devolvido sem open-in-view) é serializado depois, fora desta sessão: as
+    // categorias (lazy) já vão carregadas
+    private List<Product> withCategories(List<Product> products) {
+        products.forEach(product -> Hibernate.initialize(product.getCategories()));
+        return products;
     }
 
 
+    @Transactional
     public Product insert(Product product, Long categoryId) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada. ID: " + categoryId));
         product.getCategories().add(category);
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        Transactions.afterCommit(() -> {
+            productSearchIndex.putProduct(saved);
+            catalogCache.invalidateProduct(saved.getId());
+        });
+        return saved;
     }
 
 
+    @Transactional
     public Product update(Long id, Product obj) {
         try {
             Product entity = productRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado. ID: " + id)); // Lança 404 se não encontrar
             updateData(entity, obj);
-            return productRepository.save(entity);
+            Product saved = withCategories(List.of(productRepository.save(entity))).get(0);
+            Transactions.afterCommit(() -> {
+                productSearchIndex.putProduct(saved);
+                catalogCache.invalidateProduct(id);
+            });
+            return saved;
         } catch (ResourceNotFoundException e) {
             throw e;
         }
@@ -60,6 +167,7 @@ public class ProductServices {
     }
 
 
+    @Transactional
     public Product updatePartial(Long id, Product newData) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado: ID " + id));
@@ -76,13 +184,23 @@ public class ProductServices {
             product.getCategories().clear();
             product.getCategories().addAll(newData.getCategories());
         }
-        return productRepository.save(product);
+        Product saved = withCategories(List.of(productRepository.save(product))).get(0);
+        Transactions.afterCommit(() -> {
+            productSearchIndex.putProduct(saved);
+            catalogCache.invalidateProduct(id);
+        });
+        return saved;
     }
 
 
+    @Transactional
     public void delete(Long id) {
         try {
             productRepository.deleteById(id);
+            Transactions.afterCommit(() -> {
+                productSearchIndex.removeProduct(id);
+                catalogCache.invalidateProduct(id);
+            });
         } catch (EmptyResultDataAccessException e) {
             throw new ResourceNotFoundException("Produto não encontrado: ID " + id);
         }
@@ -0,0 +1,39 @@
+package com.criando.projeto.services;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+// Auxiliares de transação compartilhados pelos services
+final class Transactions {
+
+    private Transactions() {
+    }
+
+    // Caches e índices só mudam depois do commit: antes dele, uma leitura concorrente ainda veria no banco
+    // (e guardaria de volta no cache) o dado antigo; se a transação for desfeita, nada muda.
+    // Fora de transação (ex.: testes de unidade) roda na hora
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Transação só leitura em volta do carregamento de um cache: o @Transactional no método pegaria uma conexão do
+    // pool já na entrada, mesmo quando a resposta sai do cache. readOnly mantém a leitura na réplica, se houver
+    static <T> T readOnly(PlatformTransactionManager transactionManager, Supplier<T> loader) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> loader.get());
+    }
+}
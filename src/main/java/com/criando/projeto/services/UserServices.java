@@ -3,6 +3,7 @@ package com.criando.projeto.services;
 import com.criando.projeto.entities.User;
 import com.criando.projeto.repositories.UserRepository;
 import com.criando.projeto.security.UserSecurity;
+import com.criando.projeto.security.VerifiedCredentialCache;
 import com.criando.projeto.services.exceptions.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -11,6 +12,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 import java.util.List;
@@ -27,12 +29,15 @@ public class UserServices {
     private AuthenticationFacade authenticationFacade;
     @Autowired
     private UserSecurity userSecurity;
+    @Autowired
+    private VerifiedCredentialCache credentialCache; // Credenciais já verificadas pelo BCrypt
 
 
 
 
 
 
+    @Transactional(readOnly = true)
     public List<User> findAll() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         // Se o usuário for do role USER, ele só pode ver o próprio usuário
@@ -47,12 +52,14 @@ public class UserServices {
     }
 
 
+    @Transactional(readOnly = true)
     public User findById(Long id) {
         Optional <User> obj =  userRepository.findById(id);
         return obj.orElseThrow(() -> new ResourceNotFoundException(id));
     }
 
 
+    @Transactional
     public User insert(User obj) {
         Optional<User> existingUser = userRepository.findByEmail(obj.getEmail());
         if (existingUser.isPresent()) {
@@ -65,6 +72,7 @@ public class UserServices {
     }
 
 
+    @Transactional
     public void delete(Long id) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         // Verifica se o usuário tem permissão para deletar (próprio usuário ou admin)
@@ -72,7 +80,15 @@ public class UserServices {
             throw new AccessDeniedException("Você não tem permissão para excluir este usuário.");
         }
         try {
+            // Remove do cache de credenciais para que a conta excluída não continue autenticando. Só depois do commit:
+            // antes dele, um login concorrente ainda leria a conta no banco e a guardaria de volta no cache
+            userRepository.findById(id).ifPresent(user -> {
+                String email = user.getEmail();
+                Transactions.afterCommit(() -> credentialCache.invalidate(email));
+            });
             userRepository.deleteById(id);
+            // Dentro da transação o DELETE só iria ao banco no commit, fora deste try: o flush traz a violação para cá
+            userRepository.flush();
         } catch (EmptyResultDataAccessException e) {
             throw new ResourceNotFoundException(id);
         } catch (DataIntegrityViolationException e) {
@@ -82,6 +98,7 @@ public class UserServices {
 
 
 
+    @Transactional
     public User updatePatch(Long id, User obj, Authentication authentication) {
         try {
             User entity = userRepository.findById(id)
@@ -106,6 +123,9 @@ public class UserServices {
         }
         if (obj.getEmail() != null) {
             validateEmail(entity, obj.getEmail());  // Validação do email
+            String oldEmail = entity.getEmail();
+            // O email antigo deixa de valer para login (depois do commit, como no delete)
+            Transactions.afterCommit(() -> credentialCache.invalidate(oldEmail));
             entity.setEmail(obj.getEmail());
         }
         if (obj.getPhone() != null) {
@@ -114,6 +134,9 @@ public class UserServices {
         if (obj.getPassword() != null) {
             validatePassword(obj.getPassword());
             entity.setPassword(passwordEncoder.encode(obj.getPassword())); // Criptografando a senha, se for fornecida
+            String email = entity.getEmail();
+            // A senha antiga não pode continuar válida no cache (depois do commit, como no delete)
+            Transactions.afterCommit(() -> credentialCache.invalidate(email));
         }
     }
 
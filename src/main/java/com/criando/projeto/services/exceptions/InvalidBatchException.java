@@ -0,0 +1,9 @@
+package com.criando.projeto.services.exceptions;
+
+public class InvalidBatchException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidBatchException(String message) {
+        super(message);
+    }
+}
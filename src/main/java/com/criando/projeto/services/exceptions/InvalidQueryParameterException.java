@@ -0,0 +1,9 @@
+package com.criando.projeto.services.exceptions;
+
+public class InvalidQueryParameterException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidQueryParameterException(String message) {
+        super(message);
+    }
+}
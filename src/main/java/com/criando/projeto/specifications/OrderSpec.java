@@ -2,8 +2,11 @@ package com.criando.projeto.specifications;
 
 import com.criando.projeto.entities.Order;
 import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.util.Money;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.time.Instant;
+
 public class OrderSpec {
 
     // Filtro por status (aceita nome ou código)
@@ -38,4 +41,33 @@ public class OrderSpec {
             return builder.equal(root.get("client").get("id"), userId);
         };
     }
+
+    // Filtro por valor do pedido, na coluna total_cents gravada em tb_order (ver Money)
+    public static Specification<Order> totalGreaterThanOrEqualTo(Double minTotal) {
+        return (root, query, builder) -> {
+            if (minTotal == null) {
+                return null;
+            }
+            return builder.greaterThanOrEqualTo(root.get("totalCents"), Money.toCents(minTotal));
+        };
+    }
+
+    public static Specification<Order> totalLessThanOrEqualTo(Double maxTotal) {
+        return (root, query, builder) -> {
+            if (maxTotal == null) {
+                return null;
+            }
+            return builder.lessThanOrEqualTo(root.get("totalCents"), Money.toCents(maxTotal));
+        };
+    }
+
+    // Keyset: pedidos que vêm depois de (moment, id) na ordenação moment DESC, id DESC.
+    // Assim a página N custa o mesmo que a primeira, sem OFFSET
+    public static Specification<Order> after(Instant moment, Long id) {
+        return (root, query, builder) -> builder.or(
+                builder.lessThan(root.get("moment"), moment),
+                builder.and(
+                        builder.equal(root.get("moment"), moment),
+                        builder.lessThan(root.get("id"), id)));
+    }
 }
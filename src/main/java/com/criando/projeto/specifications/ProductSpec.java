@@ -1,11 +1,16 @@
 package com.criando.projeto.specifications;
 
+import com.criando.projeto.entities.Category;
 import com.criando.projeto.entities.Product;
+import com.criando.projeto.util.Money;
 import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.ObjectUtils;
 
+import java.util.Collection;
+
 public class ProductSpec {
 
     //filtro por nome
@@ -20,27 +25,54 @@ public class ProductSpec {
     //request: products?name=Mochila
 
 
+    //filtro por descrição
+    public static Specification<Product> descriptionContains(String description) {
+        return (root, query, builder) -> {
+            if (ObjectUtils.isEmpty(description)) {
+                return null;
+            }
+            return builder.like(root.get("description"), "%" + description + "%");
+        };
+    }
+    //request: products?description=couro
+
+
+    // Produtos com esses ids (resultado dos filtros resolvidos pelo ProductSearchIndex)
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, query, builder) -> {
+            if (ids.isEmpty()) {
+                return builder.disjunction();
+            }
+            return root.get("id").in(ids);
+        };
+    }
+
+
     //filtro por categoria
     public static Specification<Product> categoryNameContains(String categoryName) {
         return (root, query, builder) -> {
             if (ObjectUtils.isEmpty(categoryName)) {
                 return null;
             }
-            // Como Category é uma coleção, usa um JOIN
-            Join<Object, Object> join = root.join("categories", JoinType.INNER);
-            return builder.like(join.get("name"), "%" + categoryName + "%");
+            // Category é uma coleção: um JOIN repetiria o produto para cada categoria que casa.
+            // EXISTS só testa se há alguma, então cada produto volta uma vez (sem distinct)
+            Subquery<Integer> sub = query.subquery(Integer.class);
+            Root<Product> product = sub.correlate(root);
+            Join<Product, Category> category = product.join("categories");
+            sub.select(builder.literal(1)).where(builder.like(category.get("name"), "%" + categoryName + "%"));
+            return builder.exists(sub);
         };
     }
     //request: http://localhost:8080/products?categoryName=Eletrônicos
 
 
-    //Filtro por preço
+    //Filtro por preço (o preço é guardado em centavos, ver Money)
     public static Specification<Product> priceGreaterThanOrEqualTo(Double minPrice) {
         return (root, query, builder) -> {
             if (minPrice == null) {
                 return null;
             }
-            return builder.greaterThanOrEqualTo(root.get("price"), minPrice);
+            return builder.greaterThanOrEqualTo(root.get("priceCents"), Money.toCents(minPrice));
         };
     }
 
@@ -49,7 +81,7 @@ public class ProductSpec {
             if (maxPrice == null) {
                 return null;
             }
-            return builder.lessThanOrEqualTo(root.get("price"), maxPrice);
+            return builder.lessThanOrEqualTo(root.get("priceCents"), Money.toCents(maxPrice));
         };
     }
     //requests:
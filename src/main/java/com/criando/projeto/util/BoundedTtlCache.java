@@ -0,0 +1,108 @@
+package com.criando.projeto.util;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+// Cache em memória com tamanho máximo (LRU) e expiração por tempo (TTL).
+// Guarda também contadores de hit, miss e evicção para acompanhar a eficiência do cache.
+public class BoundedTtlCache<K, V> {
+
+    private final int maxSize;
+    private final Duration ttl;
+    private final Clock clock;
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public BoundedTtlCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, Clock.systemUTC());
+    }
+
+    public BoundedTtlCache(int maxSize, Duration ttl, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("O tamanho máximo do cache deve ser positivo.");
+        }
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.clock = clock;
+        // accessOrder = true: a entrada menos usada recentemente é a primeira a sair
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                if (size() > BoundedTtlCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized Optional<V> get(K key) {
+        return getIf(key, value -> true);
+    }
+
+    // Só conta como hit se a entrada existir, não estiver expirada e atender à condição
+    public synchronized Optional<V> getIf(K key, Predicate<? super V> condition) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return Optional.empty();
+        }
+        if (entry.isExpired(clock.instant())) {
+            entries.remove(key);
+            evictions++;
+            misses++;
+            return Optional.empty();
+        }
+        if (!condition.test(entry.value())) {
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        return Optional.of(entry.value());
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new CacheEntry<>(value, clock.instant().plus(ttl)));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), maxSize);
+    }
+
+    private record CacheEntry<V>(V value, Instant expiresAt) {
+        boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size, int maxSize) {
+        @JsonProperty("hitRatio")
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.criando.projeto.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Valores em dinheiro guardados como centavos em long (Product, OrderItem e totais do pedido).
+// Somas e descontos são feitos com aritmética inteira: exatos e sem criar objetos.
+// A conversão de/para decimal só acontece na borda (JSON e parâmetros de filtro).
+public final class Money {
+
+    private static final int SCALE = 2;
+    private static final double CENTS_PER_UNIT = 100.0;
+    public static final long BASIS_POINTS = 10_000L; // 100% = 10000 centésimos de ponto percentual
+
+    private Money() {
+    }
+
+    // 90.5 -> 9050. Arredonda meio centavo para cima (2.675 -> 268), a partir do valor decimal escrito
+    public static long toCents(double value) {
+        return BigDecimal.valueOf(value).setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // Versão que aceita nulo, para campos opcionais (filtros, atualização parcial)
+    public static Long toCentsOrNull(Double value) {
+        return value != null ? toCents(value) : null;
+    }
+
+    // 9050 -> 90.5 (o double mais próximo do valor decimal exato)
+    public static double toDouble(long cents) {
+        return cents / CENTS_PER_UNIT;
+    }
+
+    public static Double toDoubleOrNull(Long cents) {
+        return cents != null ? toDouble(cents) : null;
+    }
+
+    // Aplica um desconto percentual (ex.: 12.5) e trunca para baixo no centavo,
+    // como o total do pedido sempre fez
+    public static long applyDiscount(long cents, double percentage) {
+        return Math.floorDiv(cents * keptBasisPoints(percentage), BASIS_POINTS);
+    }
+
+    // Parte que sobra depois do desconto, em centésimos de ponto percentual (12.5% -> 8750)
+    public static long keptBasisPoints(double percentage) {
+        return BASIS_POINTS - Math.round(percentage * 100);
+    }
+}
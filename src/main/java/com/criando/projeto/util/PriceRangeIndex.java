@@ -0,0 +1,175 @@
+package com.criando.projeto.util;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice de preços (em centavos) ordenado, para responder "preço entre min e max" com duas buscas binárias.
+// Guarda dois arrays paralelos (preço e id) ordenados pelo preço; a faixa é o trecho entre as duas posições e o
+// resultado sai como bitmap de ids (RoaringBitmap), pronto para intersectar com os outros filtros.
+// Escritas não reordenam o array a cada vez: vão para "pending" e a entrada antiga fica marcada em "stale".
+// Quando as pendentes passam de 1/16 do índice, tudo é mesclado de volta nos arrays ordenados.
+public class PriceRangeIndex {
+
+    private static final int MIN_PENDING_TO_COMPACT = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] prices = new long[0];
+    private int[] ids = new int[0];
+    private RoaringBitmap baseIds = new RoaringBitmap();
+    private final RoaringBitmap stale = new RoaringBitmap();
+    private final Map<Integer, Long> pending = new HashMap<>();
+
+    public void put(int id, long priceCents) {
+        lock.writeLock().lock();
+        try {
+            if (baseIds.contains(id)) {
+                stale.add(id);
+            }
+            pending.put(id, priceCents);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (baseIds.contains(id)) {
+                stale.add(id);
+            }
+            pending.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return baseIds.getCardinality() - stale.getCardinality() + pending.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids com min <= preço <= max; null em min ou max deixa a faixa aberta daquele lado
+    public RoaringBitmap between(Long minCents, Long maxCents) {
+        lock.readLock().lock();
+        try {
+            int from = minCents == null ? 0 : firstIndexAtLeast(minCents);
+            int to = maxCents == null ? prices.length : firstIndexAbove(maxCents);
+            RoaringBitmap result = slice(from, to);
+            result.andNot(stale);
+            for (Map.Entry<Integer, Long> entry : pending.entrySet()) {
+                long price = entry.getValue();
+                if ((minCents == null || price >= minCents) && (maxCents == null || price <= maxCents)) {
+                    result.add(entry.getKey().intValue());
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids da base entre as posições from e to, lidos direto do array (sem cópia nem ordenação). Quando a faixa
+    // pega mais da metade da base, parte do baseIds pronto e tira só o que ficou de fora: o trabalho é sempre
+    // proporcional à menor das duas partes
+    private RoaringBitmap slice(int from, int to) {
+        if (from >= to) {
+            return new RoaringBitmap();
+        }
+        RoaringBitmap result = new RoaringBitmap();
+        if (to - from <= prices.length / 2) {
+            result.addN(ids, from, to - from);
+            return result;
+        }
+        result.addN(ids, 0, from);
+        result.addN(ids, to, prices.length - to);
+        return RoaringBitmap.andNot(baseIds, result);
+    }
+
+    private int firstIndexAtLeast(long value) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int firstIndexAbove(long value) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Mescla as pendentes nos arrays ordenados já (ex.: no fim de uma carga inteira)
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            if (!pending.isEmpty() || !stale.isEmpty()) {
+                mergePending();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (pending.size() >= Math.max(MIN_PENDING_TO_COMPACT, prices.length >> 4)) {
+            mergePending();
+        }
+    }
+
+    private void mergePending() {
+        // Pendentes ordenadas por preço, depois uma intercalação com a base (já ordenada), pulando as antigas
+        List<Map.Entry<Integer, Long>> sorted = new ArrayList<>(pending.entrySet());
+        sorted.sort(Map.Entry.comparingByValue());
+        int capacity = prices.length - stale.getCardinality() + sorted.size();
+        long[] newPrices = new long[capacity];
+        int[] newIds = new int[capacity];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < prices.length || j < sorted.size()) {
+            if (i < prices.length && stale.contains(ids[i])) {
+                i++;
+                continue;
+            }
+            boolean takeBase = j == sorted.size() || (i < prices.length && prices[i] <= sorted.get(j).getValue());
+            if (takeBase) {
+                newPrices[n] = prices[i];
+                newIds[n++] = ids[i++];
+            } else {
+                newPrices[n] = sorted.get(j).getValue();
+                newIds[n++] = sorted.get(j++).getKey();
+            }
+        }
+        prices = newPrices;
+        ids = newIds;
+        baseIds = RoaringBitmap.bitmapOfUnordered(newIds);
+        stale.clear();
+        pending.clear();
+    }
+}
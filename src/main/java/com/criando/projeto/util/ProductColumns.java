@@ -0,0 +1,315 @@
+package com.criando.projeto.util;
+
+import org.roaringbitmap.BatchIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Retrato colunar do catálogo para contagens (facetas): um array primitivo por atributo, com uma linha por produto,
+// em vez de um objeto por produto. O preço fica em long[] e as categorias numa máscara de bits por produto
+// (um bit por "slot", a posição densa de cada categoria; "words" longs por produto, um a cada 64 categorias).
+// Como as categorias, os produtos ocupam linhas densas (rowById): os arrays crescem com a quantidade de produtos,
+// não com o maior id, e um produto removido cede a linha ao último.
+// Contar por categoria e por faixa de preço é uma única passada pelos ids, lendo só arrays contíguos.
+// Ids são int (mesmo limite dos bitmaps do ProductSearchIndex).
+public class ProductColumns {
+
+    public static final int MAX_BUCKETS = 10_000;
+
+    private static final long NO_PRICE = Long.MIN_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final IntIntMap rowById = new IntIntMap();
+    private int[] idByRow = new int[1024];
+    private int rows;
+    private long[] prices = newPrices(1024);
+    private int words = 1;
+    private long[] categoryMasks = new long[1024];
+    private final Map<Long, Integer> slotByCategory = new HashMap<>();
+    private long[] categoryBySlot = new long[64];
+    // Maior preço entre os produtos vivos: define quantas faixas de preço a contagem precisa
+    private long maxPriceCents;
+
+    // categoryIds null = manter as categorias que o produto já tem
+    public void put(int id, Long priceCents, Collection<Long> categoryIds) {
+        lock.writeLock().lock();
+        try {
+            int row = rowById.get(id);
+            long oldPrice = NO_PRICE;
+            if (row < 0) {
+                row = rows++;
+                ensureCapacity(rows);
+                idByRow[row] = id;
+                rowById.put(id, row);
+                live.add(id);
+            } else {
+                oldPrice = prices[row];
+            }
+            prices[row] = priceCents != null ? priceCents : NO_PRICE;
+            if (priceCents != null && priceCents >= maxPriceCents) {
+                maxPriceCents = priceCents;
+            } else if (oldPrice != NO_PRICE && oldPrice >= maxPriceCents) {
+                recomputeMaxPrice(); // o produto mais caro ficou mais barato ou sem preço
+            }
+            if (categoryIds != null) {
+                Arrays.fill(categoryMasks, row * words, (row + 1) * words, 0L);
+                for (Long categoryId : categoryIds) {
+                    int slot = slotOf(categoryId);
+                    categoryMasks[row * words + (slot >>> 6)] |= 1L << slot;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            int row = rowById.get(id);
+            if (row >= 0) {
+                long oldPrice = prices[row];
+                // A última linha vai para o lugar da removida: as linhas continuam de 0 a rows - 1
+                int last = --rows;
+                if (row != last) {
+                    int movedId = idByRow[last];
+                    prices[row] = prices[last];
+                    System.arraycopy(categoryMasks, last * words, categoryMasks, row * words, words);
+                    idByRow[row] = movedId;
+                    rowById.put(movedId, row);
+                }
+                prices[last] = NO_PRICE;
+                Arrays.fill(categoryMasks, last * words, (last + 1) * words, 0L);
+                rowById.remove(id);
+                live.remove(id);
+                if (oldPrice != NO_PRICE && oldPrice >= maxPriceCents) {
+                    recomputeMaxPrice();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Quantas faixas de preço de bucketCents seriam necessárias para cobrir do zero ao maior preço
+    public long bucketCount(long bucketCents) {
+        lock.readLock().lock();
+        try {
+            return maxPriceCents / bucketCents + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Conta, numa passada só pelos ids de "matches" (null = todos os produtos), quantos produtos há por categoria
+    // e por faixa de preço [k * bucketCents, (k + 1) * bucketCents). Produtos sem preço não entram nas faixas
+    public Counts count(RoaringBitmap matches, long bucketCents) {
+        lock.readLock().lock();
+        try {
+            // Ids removidos depois de o filtro ser calculado ficam de fora
+            RoaringBitmap ids = matches == null ? live : RoaringBitmap.and(matches, live);
+            int[] perSlot = new int[slotByCategory.size()];
+            int[] perBucket = new int[(int) Math.min(maxPriceCents / bucketCents + 1, MAX_BUCKETS)];
+            int lastBucket = perBucket.length - 1;
+            IntIntMap rowById = this.rowById;
+            long[] prices = this.prices;
+            long[] categoryMasks = this.categoryMasks;
+            int words = this.words;
+            // Faixa = preço / bucketCents, mas por multiplicação (divisão de long é cara em 1 milhão de produtos);
+            // o arredondamento do double é corrigido comparando com os limites exatos da faixa
+            double perCent = 1.0 / bucketCents;
+            int[] batch = new int[256];
+            BatchIterator iterator = ids.getBatchIterator();
+            while (iterator.hasNext()) {
+                int size = iterator.nextBatch(batch);
+                for (int i = 0; i < size; i++) {
+                    int row = rowById.get(batch[i]);
+                    long price = prices[row];
+                    if (price != NO_PRICE) {
+                        // Product valida preço positivo; o que passar do limite vai para a última faixa
+                        long bucket = (long) (Math.max(price, 0) * perCent);
+                        if (bucket * bucketCents > price) {
+                            bucket--;
+                        } else if ((bucket + 1) * bucketCents <= price) {
+                            bucket++;
+                        }
+                        perBucket[(int) Math.min(Math.max(bucket, 0), lastBucket)]++;
+                    }
+                    for (int w = 0; w < words; w++) {
+                        long mask = categoryMasks[row * words + w];
+                        while (mask != 0) {
+                            perSlot[(w << 6) + Long.numberOfTrailingZeros(mask)]++;
+                            mask &= mask - 1;
+                        }
+                    }
+                }
+            }
+            Map<Long, Long> byCategory = new LinkedHashMap<>();
+            for (int slot = 0; slot < perSlot.length; slot++) {
+                if (perSlot[slot] > 0) {
+                    byCategory.put(categoryBySlot[slot], (long) perSlot[slot]);
+                }
+            }
+            TreeMap<Long, Long> byPriceBucket = new TreeMap<>();
+            for (int bucket = 0; bucket < perBucket.length; bucket++) {
+                if (perBucket[bucket] > 0) {
+                    byPriceBucket.put(bucket * bucketCents, (long) perBucket[bucket]);
+                }
+            }
+            return new Counts(ids.getLongCardinality(), byCategory, byPriceBucket);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Uma passada pelos preços dos vivos; só acontece quando sai (ou fica mais barato) o produto mais caro
+    private void recomputeMaxPrice() {
+        long max = 0;
+        for (int row = 0; row < rows; row++) {
+            long price = prices[row];
+            if (price != NO_PRICE && price > max) {
+                max = price;
+            }
+        }
+        maxPriceCents = max;
+    }
+
+    private int slotOf(Long categoryId) {
+        Integer existing = slotByCategory.get(categoryId);
+        if (existing != null) {
+            return existing;
+        }
+        int slot = slotByCategory.size();
+        if (slot == words * 64) {
+            widenMasks();
+        }
+        if (slot == categoryBySlot.length) {
+            categoryBySlot = Arrays.copyOf(categoryBySlot, slot * 2);
+        }
+        categoryBySlot[slot] = categoryId;
+        slotByCategory.put(categoryId, slot);
+        return slot;
+    }
+
+    // Mais de 64 * words categorias: cada produto ganha mais um long na máscara
+    private void widenMasks() {
+        int newWords = words + 1;
+        int products = categoryMasks.length / words;
+        long[] widened = new long[products * newWords];
+        for (int row = 0; row < products; row++) {
+            System.arraycopy(categoryMasks, row * words, widened, row * newWords, words);
+        }
+        categoryMasks = widened;
+        words = newWords;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > prices.length) {
+            int newLength = Math.max(capacity, prices.length * 2);
+            long[] newPrices = newPrices(newLength);
+            System.arraycopy(prices, 0, newPrices, 0, prices.length);
+            prices = newPrices;
+            categoryMasks = Arrays.copyOf(categoryMasks, newLength * words);
+            idByRow = Arrays.copyOf(idByRow, newLength);
+        }
+    }
+
+    private static long[] newPrices(int length) {
+        long[] array = new long[length];
+        Arrays.fill(array, NO_PRICE);
+        return array;
+    }
+
+    // Total de produtos, contagem por id de categoria e por início da faixa de preço (em centavos, ordenado)
+    public record Counts(long total, Map<Long, Long> byCategory, TreeMap<Long, Long> byPriceBucket) {
+    }
+
+    // Mapa int -> int de endereçamento aberto (sondagem linear), sem objetos por produto: id -> linha.
+    // Linhas são >= 0; -1 marca posição vazia (e é o retorno de get para id ausente)
+    private static final class IntIntMap {
+        private int[] keys = new int[2048];
+        private int[] values = empty(2048);
+        private int size;
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; values[i] >= 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(int key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (values[i] >= 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] < 0) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        void remove(int key) {
+            int mask = keys.length - 1;
+            int hole = hash(key) & mask;
+            while (values[hole] >= 0 && keys[hole] != key) {
+                hole = (hole + 1) & mask;
+            }
+            if (values[hole] < 0) {
+                return;
+            }
+            size--;
+            // Puxa para o buraco as entradas seguintes que o alcançam a partir da posição de origem,
+            // para nenhuma busca parar no buraco antes de achar a sua chave
+            for (int i = (hole + 1) & mask; values[i] >= 0; i = (i + 1) & mask) {
+                int home = hash(keys[i]) & mask;
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    keys[hole] = keys[i];
+                    values[hole] = values[i];
+                    hole = i;
+                }
+            }
+            values[hole] = -1;
+        }
+
+        private void resize(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[capacity];
+            values = empty(capacity);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] >= 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        private static int[] empty(int length) {
+            int[] array = new int[length];
+            Arrays.fill(array, -1);
+            return array;
+        }
+    }
+}
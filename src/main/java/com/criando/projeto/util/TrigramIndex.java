@@ -0,0 +1,325 @@
+package com.criando.projeto.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+// Índice invertido de trigramas (sequências de 3 caracteres) para busca por "contém" (o mesmo que LIKE '%x%'),
+// sem percorrer todos os textos. Cada texto vira um documento com número sequencial; cada trigrama aponta para a
+// lista ordenada dos documentos que o contêm. A busca intersecta as listas dos trigramas do termo e confirma
+// cada candidato procurando o termo no texto, então o resultado é exato (diferencia maiúsculas, como o LIKE).
+// Atualizar um texto marca o documento antigo como removido e cria outro no fim: as listas continuam ordenadas
+// só com inserções no final. Termos com menos de 3 caracteres são resolvidos percorrendo os textos em memória.
+// Os textos ficam todos num único char[] (início e tamanho de cada documento em arrays paralelos), na ordem dos
+// documentos: a confirmação dos candidatos lê memória contígua em vez de um objeto String espalhado por candidato.
+// Documentos removidos ocupam espaço nas listas e nos arrays até a compactação, que renumera só os vivos (na mesma
+// ordem, então as listas continuam ordenadas) quando os removidos passam a ser mais que os vivos.
+public class TrigramIndex {
+
+    private static final int GRAM = 3;
+    // Abaixo disso não compensa compactar: o espaço desperdiçado é pequeno
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+    private static final long[] NONE = new long[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Map<Long, Integer> docByKey = new HashMap<>();
+    private long[] keys = new long[1024];
+    private int[] starts = new int[1024];
+    private int[] lengths = new int[1024]; // -1 = documento removido
+    private char[] chars = new char[16 * 1024];
+    private int charCount;
+    private int docCount;
+    private int liveCount;
+
+    public void put(long key, String text) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            if (text == null || text.isEmpty()) {
+                return;
+            }
+            int doc = docCount;
+            ensureCapacity(docCount + 1);
+            appendText(doc, text);
+            docCount++;
+            keys[doc] = key;
+            docByKey.put(key, doc);
+            liveCount++;
+            for (long gram : distinctGrams(text)) {
+                postings.computeIfAbsent(gram, g -> new IntList()).add(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docByKey.clear();
+            keys = new long[1024];
+            starts = new int[1024];
+            lengths = new int[1024];
+            chars = new char[16 * 1024];
+            charCount = 0;
+            docCount = 0;
+            liveCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Chaves (ids) cujo texto contém o termo, em ordem de inserção
+    public long[] search(String term) {
+        return search(term, key -> true);
+    }
+
+    // Mesma busca, mas só confirma o texto das chaves aceitas pelo filtro: quando outro critério
+    // já reduziu os candidatos, evita comparar textos que seriam descartados de qualquer jeito
+    public long[] search(String term, LongPredicate accept) {
+        if (term == null || term.isEmpty()) {
+            return NONE;
+        }
+        lock.readLock().lock();
+        try {
+            if (term.length() < GRAM) {
+                return scan(term, accept);
+            }
+            long[] grams = distinctGrams(term);
+            IntList[] lists = new IntList[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = postings.get(grams[i]);
+                if (lists[i] == null) {
+                    return NONE;
+                }
+            }
+            // Começa pela lista mais curta: a interseção nunca fica maior que ela
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            int[] candidates = Arrays.copyOf(lists[0].values, lists[0].size);
+            int count = candidates.length;
+            for (int i = 1; i < lists.length && count > 0; i++) {
+                count = intersect(candidates, count, lists[i]);
+            }
+            long[] result = new long[count];
+            int found = 0;
+            char[] pattern = term.toCharArray();
+            for (int i = 0; i < count; i++) {
+                int doc = candidates[i];
+                if (lengths[doc] >= 0 && accept.test(keys[doc]) && contains(doc, pattern)) {
+                    result[found++] = keys[doc];
+                }
+            }
+            return found == result.length ? result : Arrays.copyOf(result, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] scan(String term, LongPredicate accept) {
+        long[] result = new long[Math.min(liveCount, 1024)];
+        int found = 0;
+        char[] pattern = term.toCharArray();
+        for (int doc = 0; doc < docCount; doc++) {
+            if (lengths[doc] >= 0 && accept.test(keys[doc]) && contains(doc, pattern)) {
+                if (found == result.length) {
+                    result = Arrays.copyOf(result, Math.max(1, found * 2));
+                }
+                result[found++] = keys[doc];
+            }
+        }
+        return Arrays.copyOf(result, found);
+    }
+
+    // Documentos alocados, vivos e removidos (para os testes acompanharem a compactação)
+    int documentCount() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(long key) {
+        Integer doc = docByKey.remove(key);
+        if (doc != null) {
+            // O documento continua nas listas de trigramas, mas removido nunca passa na confirmação
+            lengths[doc] = -1;
+            liveCount--;
+            int dead = docCount - liveCount;
+            if (dead >= MIN_DEAD_TO_COMPACT && dead > liveCount) {
+                compact();
+            }
+        }
+    }
+
+    // Renumera os documentos vivos em ordem (0, 1, 2...), copiando os textos para um char[] sem os removidos, e
+    // troca os números nas listas de trigramas; listas que ficam vazias saem do mapa
+    private void compact() {
+        int[] renumbered = new int[docCount];
+        int capacity = Math.max(1024, liveCount * 2);
+        long[] newKeys = new long[capacity];
+        int[] newStarts = new int[capacity];
+        int[] newLengths = new int[capacity];
+        long liveChars = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (lengths[doc] >= 0) {
+                liveChars += lengths[doc];
+            }
+        }
+        char[] newChars = new char[Math.toIntExact(Math.max(16 * 1024, liveChars * 2))];
+        int live = 0;
+        int charsUsed = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (lengths[doc] < 0) {
+                renumbered[doc] = -1;
+                continue;
+            }
+            System.arraycopy(chars, starts[doc], newChars, charsUsed, lengths[doc]);
+            newKeys[live] = keys[doc];
+            newStarts[live] = charsUsed;
+            newLengths[live] = lengths[doc];
+            docByKey.put(keys[doc], live);
+            charsUsed += lengths[doc];
+            renumbered[doc] = live++;
+        }
+        postings.values().removeIf(list -> list.retainRenumbered(renumbered) == 0);
+        keys = newKeys;
+        starts = newStarts;
+        lengths = newLengths;
+        chars = newChars;
+        charCount = charsUsed;
+        docCount = live;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int newLength = Math.max(capacity, keys.length * 2);
+            keys = Arrays.copyOf(keys, newLength);
+            starts = Arrays.copyOf(starts, newLength);
+            lengths = Arrays.copyOf(lengths, newLength);
+        }
+    }
+
+    private void appendText(int doc, String text) {
+        int length = text.length();
+        // addExact: com mais de 2^31 caracteres de texto vivo o índice falha em vez de corromper as posições
+        int needed = Math.addExact(charCount, length);
+        if (needed > chars.length) {
+            chars = Arrays.copyOf(chars, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, chars.length * 2L)));
+        }
+        text.getChars(0, length, chars, charCount);
+        starts[doc] = charCount;
+        lengths[doc] = length;
+        charCount += length;
+    }
+
+    // O mesmo que String.contains, direto no char[] dos textos
+    private boolean contains(int doc, char[] pattern) {
+        int start = starts[doc];
+        int last = start + lengths[doc] - pattern.length;
+        char first = pattern[0];
+        for (int i = start; i <= last; i++) {
+            if (chars[i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < pattern.length && chars[i + j] == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Interseção de duas listas ordenadas; o resultado fica no começo de "candidates"
+    private static int intersect(int[] candidates, int count, IntList other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < other.size; i++) {
+            int doc = candidates[i];
+            while (j < other.size && other.values[j] < doc) {
+                j++;
+            }
+            if (j < other.size && other.values[j] == doc) {
+                candidates[kept++] = doc;
+            }
+        }
+        return kept;
+    }
+
+    // Cada trigrama vira um long com os 3 chars (16 bits cada), sem criar Strings
+    private static long[] distinctGrams(String text) {
+        int n = text.length() - GRAM + 1;
+        if (n <= 0) {
+            return NONE;
+        }
+        long[] grams = new long[n];
+        for (int i = 0; i < n; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    // Lista de int que cresce sem boxing (posting list de um trigrama)
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        // Troca cada documento pelo novo número (-1 = removido, sai da lista) e devolve o novo tamanho.
+        // A renumeração preserva a ordem, então a lista continua ordenada
+        int retainRenumbered(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = renumbered[values[i]];
+                if (doc >= 0) {
+                    values[kept++] = doc;
+                }
+            }
+            size = kept;
+            if (kept < values.length / 4) {
+                values = Arrays.copyOf(values, Math.max(4, kept));
+            }
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.criando.projeto.config;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AdmissionControlFilterTest {
+
+    private AdmissionControlFilter filtro(boolean enabled, int maxConcurrent, long maxWaitMillis) {
+        AdmissionControlFilter filter = new AdmissionControlFilter(mock(DataSource.class), enabled, maxConcurrent, maxWaitMillis);
+        ReflectionTestUtils.setField(filter, "objectMapper", JsonMapper.builder().findAndAddModules().build());
+        return filter;
+    }
+
+    private static MockHttpServletRequest requisicao() {
+        return new MockHttpServletRequest("GET", "/orders");
+    }
+
+    @Test
+    @DisplayName("Com todas as vagas ocupadas, a requisição deve esperar até o limite e receber 503 com Retry-After")
+    void doFilter_SemVaga() throws Exception {
+        AdmissionControlFilter filter = filtro(true, 1, 50);
+        CountDownLatch emExecucao = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        FilterChain lenta = (request, response) -> {
+            emExecucao.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> primeira = executor.submit(() -> {
+                filter.doFilter(requisicao(), new MockHttpServletResponse(), lenta);
+                return null;
+            });
+            assertThat(emExecucao.await(5, TimeUnit.SECONDS)).isTrue();
+
+            FilterChain chain = mock(FilterChain.class);
+            MockHttpServletResponse recusada = new MockHttpServletResponse();
+            filter.doFilter(requisicao(), recusada, chain);
+
+            assertThat(recusada.getStatus()).isEqualTo(503);
+            assertThat(recusada.getHeader("Retry-After")).isEqualTo("1");
+            assertThat(recusada.getContentAsString()).contains("\"status\":503");
+            verify(chain, never()).doFilter(any(), any());
+            assertThat(filter.stats().inUse()).isEqualTo(1);
+
+            liberar.countDown();
+            primeira.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Vaga devolvida: a próxima passa
+        FilterChain chain = mock(FilterChain.class);
+        filter.doFilter(requisicao(), new MockHttpServletResponse(), chain);
+        verify(chain).doFilter(any(), any());
+        assertThat(filter.stats()).isEqualTo(new AdmissionControlFilter.Stats(true, 1, 0, 0, 2, 1));
+    }
+
+    @Test
+    @DisplayName("A vaga deve ser devolvida mesmo quando a requisição lança exceção")
+    void doFilter_ExcecaoDevolveVaga() throws Exception {
+        AdmissionControlFilter filter = filtro(true, 1, 0);
+        FilterChain falha = (request, response) -> {
+            throw new IllegalStateException("falhou");
+        };
+
+        try {
+            filter.doFilter(requisicao(), new MockHttpServletResponse(), falha);
+        } catch (Exception e) {
+            // esperado
+        }
+
+        assertThat(filter.stats().inUse()).isZero();
+    }
+
+    @Test
+    @DisplayName("Desligado, não deve limitar nada")
+    void doFilter_Desligado() throws Exception {
+        AdmissionControlFilter filter = filtro(false, 1, 0);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch emExecucao = new CountDownLatch(1);
+            executor.submit(() -> {
+                filter.doFilter(requisicao(), new MockHttpServletResponse(), (request, response) -> {
+                    emExecucao.countDown();
+                    try {
+                        liberar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                return null;
+            });
+            assertThat(emExecucao.await(5, TimeUnit.SECONDS)).isTrue();
+
+            FilterChain chain = mock(FilterChain.class);
+            filter.doFilter(requisicao(), new MockHttpServletResponse(), chain);
+
+            verify(chain).doFilter(any(), any());
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Sem limite configurado, deve usar o tamanho máximo do pool do Hikari")
+    void maxConcurrent_TamanhoDoPool() throws Exception {
+        HikariDataSource hikari = new HikariDataSource();
+        hikari.setMaximumPoolSize(7);
+        try {
+            AdmissionControlFilter filter = new AdmissionControlFilter(hikari, true, 0, 0);
+            assertThat(filter.stats().maxConcurrent()).isEqualTo(7);
+        } finally {
+            hikari.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Pool sem tamanho configurado e ainda não iniciado deve usar o padrão do Hikari")
+    void maxConcurrent_PoolSemTamanho() {
+        try (HikariDataSource hikari = new HikariDataSource()) {
+            AdmissionControlFilter filter = new AdmissionControlFilter(hikari, true, 0, 0);
+            assertThat(filter.stats().maxConcurrent()).isEqualTo(10);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.criando.projeto.config;
+
+import com.criando.projeto.entities.Product;
+import com.criando.projeto.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Perfil generator com volumes pequenos sobre o H2 dos testes (lotes de 100 linhas, para passar por vários lotes)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:generator",
+        "spring.jpa.show-sql=false",
+        "generator.users=50",
+        "generator.categories=20",
+        "generator.categories-per-product=4",
+        "generator.products=300",
+        "generator.orders=1000",
+        "generator.max-items-per-order=3",
+        "generator.batch-size=100",
+        "generator.password=Sen@1234"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "generator"})
+class DataGeneratorTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataGenerator dataGenerator;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    @Test
+    @DisplayName("Deve gerar os volumes configurados, com os totais dos pedidos batendo com os itens")
+    void volumes() {
+        assertThat(count("select count(*) from tb_user where email like '%@gerador.com'")).isEqualTo(50);
+        assertThat(count("select count(*) from tb_category where name like 'Categoria %'")).isEqualTo(20);
+        assertThat(count("select count(*) from tb_product where description like 'Descrição do produto %'")).isEqualTo(300);
+        assertThat(count("select count(*) from tb_product_category pc join tb_product p on p.id = pc.product_id "
+                + "where p.description like 'Descrição do produto %'")).isEqualTo(300 * 4);
+        assertThat(count("select count(*) from tb_order o join tb_user u on u.id = o.client_id "
+                + "where u.email like '%@gerador.com'")).isEqualTo(1000);
+        // Totais gravados = soma dos itens, e só pedidos pagos têm pagamento
+        assertThat(count("select count(*) from tb_order o where o.total_cents <> "
+                + "(select coalesce(sum(i.price_cents * i.quantity), 0) from tb_order_item i where i.order_id = o.id) "
+                + "or o.item_count <> (select coalesce(sum(i.quantity), 0) from tb_order_item i where i.order_id = o.id)"))
+                .isZero();
+        assertThat(count("select count(*) from tb_order o where o.item_count = 0")).isZero();
+        assertThat(count("select count(*) from tb_payment p join tb_order o on o.id = p.order_id where o.order_status <> 2"))
+                .isZero();
+        assertThat(count("select count(*) from tb_payment")).isGreaterThan(0);
+    }
+
+    @Test
+    @DisplayName("Depois da geração, os INSERTs da aplicação devem usar ids fora das faixas geradas")
+    void sequencesAvancadas() {
+        long primeiroGerado = jdbcTemplate.queryForObject(
+                "select min(id) from tb_product where description like 'Descrição do produto %'", Long.class);
+        long ultimoGerado = jdbcTemplate.queryForObject(
+                "select max(id) from tb_product where description like 'Descrição do produto %'", Long.class);
+        // Mais de uma faixa do pool (allocationSize 50): passa pelos ids que sobraram antes da geração e pela sequence
+        List<Product> novos = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            novos.add(new Product(null, "Produto novo " + i, "Descrição", 10.0));
+        }
+
+        productRepository.saveAll(novos);
+
+        assertThat(novos).extracting(Product::getId)
+                .doesNotHaveDuplicates()
+                .noneMatch(id -> id >= primeiroGerado && id <= ultimoGerado);
+    }
+
+    @Test
+    @DisplayName("Rodar de novo sobre um banco já populado não deve gerar nada")
+    void naoDuplica() {
+        int pedidos = count("select count(*) from tb_order");
+
+        dataGenerator.run();
+
+        assertThat(count("select count(*) from tb_order")).isEqualTo(pedidos);
+    }
+
+    @Test
+    @DisplayName("Os clientes gerados devem conseguir entrar e ver os próprios pedidos; os produtos entram na busca")
+    void loginEPedidos() throws Exception {
+        String login = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"" + DataGenerator.userEmail(0) + "\", \"password\": \"Sen@1234\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode token = objectMapper.readTree(login).get("token");
+
+        // O viés do sorteio concentra pedidos nos primeiros clientes
+        mockMvc.perform(get("/orders").header("Authorization", "Bearer " + token.asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", greaterThan(0)))
+                .andExpect(jsonPath("$.content[0].client.name").value("Cliente 0"));
+
+        mockMvc.perform(get("/products").param("name", "Mochila"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(30));
+    }
+}
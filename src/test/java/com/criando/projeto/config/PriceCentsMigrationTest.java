@@ -0,0 +1,45 @@
+package com.criando.projeto.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Banco próprio: o teste recria as colunas price de um banco anterior aos centavos
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:pricecents")
+@ActiveProfiles("test")
+class PriceCentsMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PriceCentsMigration priceCentsMigration;
+
+    @Test
+    @DisplayName("Deve copiar os preços em reais para price_cents e remover as colunas antigas")
+    void migraColunasAntigas() {
+        jdbcTemplate.execute("alter table tb_product add column price double precision");
+        jdbcTemplate.execute("alter table tb_order_item add column price double precision default 0 not null");
+        long produto = jdbcTemplate.queryForObject("select min(id) from tb_product", Long.class);
+        jdbcTemplate.update("update tb_product set price = 12.35, price_cents = null where id = ?", produto);
+        jdbcTemplate.update("update tb_order_item set price = 0.29, price_cents = 0");
+
+        priceCentsMigration.run(null);
+
+        assertThat(jdbcTemplate.queryForObject("select price_cents from tb_product where id = ?", Long.class, produto))
+                .isEqualTo(1235L);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tb_order_item where price_cents <> 29", Integer.class))
+                .isZero();
+        assertThat(priceCentsMigration.hasPriceColumn("tb_product")).isFalse();
+        assertThat(priceCentsMigration.hasPriceColumn("tb_order_item")).isFalse();
+
+        // Segunda execução: sem coluna price, nada a fazer
+        priceCentsMigration.run(null);
+        assertThat(jdbcTemplate.queryForObject("select price_cents from tb_product where id = ?", Long.class, produto))
+                .isEqualTo(1235L);
+    }
+}
@@ -0,0 +1,212 @@
+package com.criando.projeto.config;
+
+import com.criando.projeto.entities.*;
+import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.entities.enums.UserRole;
+import com.criando.projeto.repositories.*;
+import com.criando.projeto.security.AuthenticatedUser;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Réplica de leitura com dois bancos H2 em memória: o que é gravado vai só para o primário e a "replicação" é uma
+// cópia completa feita pelo teste (SCRIPT/RUNSCRIPT), então dá para ver de qual banco cada leitura veio
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routingprimary",
+        "spring.datasource.hikari.maximum-pool-size=7",
+        "spring.datasource.replica.url=jdbc:h2:mem:routingreplica",
+        "spring.datasource.replica.username=sa",
+        "spring.datasource.replica.password=",
+        "spring.datasource.replica.hikari.maximum-pool-size=3",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:routingreplica";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+    @Autowired
+    private AdmissionControlFilter admissionControlFilter;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User cliente;
+    private Product produto;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        replicar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    // Copia o primário inteiro (esquema e dados) para a réplica, por uma conexão própria: o pool da réplica é read-only
+    private void replicar() throws Exception {
+        Path script = Files.createTempFile("replica", ".sql");
+        try {
+            new JdbcTemplate(primaryDataSource).execute("SCRIPT TO '" + script + "'");
+            try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DROP ALL OBJECTS");
+                statement.execute("RUNSCRIPT FROM '" + script + "'");
+            }
+        } finally {
+            Files.deleteIfExists(script);
+        }
+    }
+
+    private Order criarPedido() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 8);
+        cliente = userRepository.save(new User(null, "Cliente " + sufixo, sufixo + "@replica.com", "11999999999", "Sen@123", UserRole.USER));
+        produto = productRepository.save(new Product(null, "Produto " + sufixo, "Descrição", 10.0));
+        Order order = new Order(null, Instant.now(), OrderStatus.WAITING_PAYMENT, cliente);
+        order.addItem(new OrderItem(order, produto, 2));
+        return orderRepository.save(order);
+    }
+
+    private static RequestPostProcessor como(Long id, String email, UserRole role) {
+        AuthenticatedUser principal = new AuthenticatedUser(id, email, null, role);
+        return authentication(UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+
+    private static Integer quantidade(HikariDataSource dataSource, Order order) {
+        return new JdbcTemplate(dataSource).queryForObject(
+                "select quantity from tb_order_item where order_id = ?", Integer.class, order.getId());
+    }
+
+    @Test
+    @DisplayName("Listagem (readOnly) deve ler da réplica: pedido gravado só aparece depois de replicado")
+    void findOrders_LeDaReplica() throws Exception {
+        criarPedido();
+        RequestPostProcessor admin = como(-1L, "admin@replica.com", UserRole.ADMIN);
+
+        mockMvc.perform(get("/orders").param("userId", cliente.getId().toString()).with(admin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty());
+
+        replicar();
+
+        mockMvc.perform(get("/orders").param("userId", cliente.getId().toString()).with(admin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].client.id").value(cliente.getId()));
+    }
+
+    @Test
+    @DisplayName("Depois de uma escrita, as leituras da mesma requisição devem ir para o primário")
+    void leituraDepoisDeEscrita_MesmaRequisicao() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(ReadReplicaRoutingDataSource.currentTarget()).isEqualTo(ReadReplicaRoutingDataSource.Target.PRIMARY);
+
+        Category categoria = categoryRepository.save(new Category(null, "Categoria " + UUID.randomUUID()));
+        assertThat(categoryRepository.findById(categoria.getId())).isPresent();
+
+        // Outra requisição, sem escrita: lê da réplica, que ainda não tem a categoria
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(categoryRepository.findById(categoria.getId())).isEmpty();
+
+        // Fora de requisição (jobs, inicialização): primário
+        RequestContextHolder.resetRequestAttributes();
+        assertThat(categoryRepository.findById(categoria.getId())).isPresent();
+    }
+
+    @Test
+    @DisplayName("Com open-in-view, leitura na réplica seguida de escrita na mesma requisição deve gravar no primário")
+    void updateOrderItems_EscreveNoPrimario() throws Exception {
+        Order order = criarPedido();
+        replicar();
+
+        // A checagem de dono (OrderSecurity) lê da réplica; a alteração é uma transação de escrita
+        mockMvc.perform(patch("/orders/{id}/items", order.getId())
+                        .with(como(cliente.getId(), cliente.getEmail(), UserRole.USER))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"product\": {\"id\": " + produto.getId() + "}, \"quantity\": 1}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].quantity").value(3));
+
+        assertThat(quantidade(primaryDataSource, order)).isEqualTo(3);
+        assertThat(quantidade(replicaDataSource, order)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Com um EntityManager aberto na requisição toda (open-in-view), cada transação deve ser roteada de novo")
+    void openInView_LeituraNaReplicaDepoisEscritaNoPrimario() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        // O mesmo que o OpenEntityManagerInViewInterceptor faz antes do controller
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        Category categoria;
+        try {
+            assertThat(categoryRepository.findById(1L)).isPresent();
+            categoria = categoryRepository.save(new Category(null, "Categoria " + UUID.randomUUID()));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            EntityManagerFactoryUtils.closeEntityManager(entityManager);
+        }
+
+        Integer noPrimario = new JdbcTemplate(primaryDataSource)
+                .queryForObject("select count(*) from tb_category where id = ?", Integer.class, categoria.getId());
+        assertThat(noPrimario).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("O controle de admissão deve continuar limitado ao tamanho do pool primário")
+    void admissao_TamanhoDoPoolPrimario() {
+        assertThat(admissionControlFilter.stats().maxConcurrent()).isEqualTo(7);
+        assertThat(replicaDataSource.isReadOnly()).isTrue();
+    }
+}
@@ -0,0 +1,49 @@
+package com.criando.projeto.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Banco próprio: os testes mexem direto nas sequences
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:sequences")
+@ActiveProfiles("test")
+class SequenceInitializerTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private SequenceInitializer sequenceInitializer;
+
+    private long nextval(String sequence) {
+        return jdbcTemplate.queryForObject("select next value for " + sequence, Long.class);
+    }
+
+    @Test
+    @DisplayName("Deve avançar a sequence que ficou atrás dos ids já gravados na tabela")
+    void sequenceAtrasada() {
+        // Como num banco que tinha ids IDENTITY: linha com id além de tudo o que a sequence já entregou
+        jdbcTemplate.update("insert into tb_category (id, name) values (?, ?)", 10_000L, "Categoria antiga");
+
+        sequenceInitializer.run(null);
+
+        // A próxima faixa do Hibernate (valor - 49 até valor) começa depois do maior id
+        assertThat(nextval("tb_category_seq") - 49).isGreaterThan(10_000L);
+    }
+
+    @Test
+    @DisplayName("Não deve reiniciar uma sequence que já está à frente da tabela")
+    void sequenceAlinhada() {
+        sequenceInitializer.run(null);
+        long antes = nextval("tb_product_seq");
+
+        sequenceInitializer.run(null);
+
+        // Só o nextval da verificação: nenhum restart para trás
+        assertThat(nextval("tb_product_seq")).isEqualTo(antes + 100);
+    }
+}
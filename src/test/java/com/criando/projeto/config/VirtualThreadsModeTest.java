@@ -0,0 +1,53 @@
+package com.criando.projeto.config;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Modo de threads virtuais ligado (spring.threads.virtual.enabled): o Tomcat e o executor do @Async usam threads
+// virtuais e o controle de admissão passa a valer, limitado ao pool JDBC
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:virtualthreads",
+        "spring.jpa.show-sql=false",
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=6"
+})
+@ActiveProfiles("test")
+class VirtualThreadsModeTest {
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+    @Autowired
+    private AdmissionControlFilter admissionControlFilter;
+    @Autowired
+    private TaskExecutor applicationTaskExecutor;
+
+    @Test
+    @DisplayName("Tomcat e @Async devem rodar em threads virtuais, com admissão limitada ao pool JDBC")
+    void virtualThreads() throws Exception {
+        Connector connector = ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector();
+        assertThat(connector.getProtocolHandler().getExecutor()).isInstanceOf(VirtualThreadExecutor.class);
+
+        assertThat(applicationTaskExecutor).isInstanceOf(SimpleAsyncTaskExecutor.class);
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+        applicationTaskExecutor.execute(() -> virtual.complete(Thread.currentThread().isVirtual()));
+        assertThat(virtual.get(5, TimeUnit.SECONDS)).isTrue();
+
+        AdmissionControlFilter.Stats stats = admissionControlFilter.stats();
+        assertThat(stats.enabled()).isTrue();
+        assertThat(stats.maxConcurrent()).isEqualTo(6);
+    }
+}
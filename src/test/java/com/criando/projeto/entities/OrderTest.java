@@ -50,6 +50,21 @@ class OrderTest {
         assertEquals(esperadoArredondado.doubleValue(), order.getTotal());
     }
 
+    @Test
+    @DisplayName("Deve calcular o total com desconto sem erro de arredondamento")
+    void testGetTotalComDescontoExato() {
+        // Em double, 8.2 - 8.2 * 0.1 = 7.379999999999999, que truncado virava 7.37
+        OrderItem barato = new OrderItem();
+        barato.setProduct(new Product(2L, "Caneta", "Azul", 8.2));
+        barato.setQuantity(1);
+        order.removeItem(item);
+        order.addItem(barato);
+        order.setDiscount(coupon);
+
+        assertEquals(738L, order.getTotalCents());
+        assertEquals(7.38, order.getTotal());
+    }
+
     @Test
     @DisplayName("Deve setar data automaticamente se nula no persist")
     void testPrePersist() {
@@ -0,0 +1,48 @@
+package com.criando.projeto.repositories;
+
+import com.criando.projeto.entities.IdempotencyRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class IdempotencyRecordRepositoryTest {
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Test
+    @DisplayName("Deve liberar e concluir só a reserva feita com o mesmo token")
+    void releaseECompleteSoDoDono() {
+        Instant expiresAt = Instant.parse("2030-01-01T00:00:00Z");
+        repository.saveAndFlush(new IdempotencyRecord("k", "h", "dono", expiresAt));
+
+        assertThat(repository.releaseClaim("k", "outro")).isZero();
+        assertThat(repository.complete("k", "outro", 201, "application/json", null, new byte[0], expiresAt)).isZero();
+        assertThat(repository.findById("k")).get().matches(IdempotencyRecord::isPending);
+
+        assertThat(repository.releaseClaim("k", "dono")).isEqualTo(1);
+        assertThat(repository.existsById("k")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Não deve apagar uma resposta já guardada")
+    void releaseNaoApagaResposta() {
+        Instant expiresAt = Instant.parse("2030-01-01T00:00:00Z");
+        repository.saveAndFlush(new IdempotencyRecord("k", "h", "dono", expiresAt));
+        byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(repository.complete("k", "dono", 201, "application/json", null, body, expiresAt)).isEqualTo(1);
+
+        assertThat(repository.releaseClaim("k", "dono")).isZero();
+        assertThat(repository.existsById("k")).isTrue();
+    }
+}
@@ -8,6 +8,7 @@ import com.criando.projeto.entities.enums.OrderStatus;
 import com.criando.projeto.entities.User;
 import com.criando.projeto.entities.enums.UserRole;
 import com.criando.projeto.entities.pk.OrderItemPk;
+import com.criando.projeto.support.SqlStatementCounter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,7 +22,8 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.criando.projeto.support.SqlStatementCounter")
 @ActiveProfiles("test")
 class OrderItemRepositoryTest {
 
@@ -122,4 +124,22 @@ class OrderItemRepositoryTest {
         Optional<OrderItem> result = orderItemRepository.findById(orderItem.getId());
         assertThat(result).isEmpty();
     }
+
+    @Test
+    @DisplayName("Deve inserir itens novos sem consultar cada um antes (persist em vez de merge)")
+    void deveInserirItensNovosSemSelect() {
+        Product teclado = productRepository.save(new Product(null, "Teclado", "Teclado mecânico", 300.0));
+        Product mouse = productRepository.save(new Product(null, "Mouse", "Mouse sem fio", 150.0));
+        orderItemRepository.flush();
+        SqlStatementCounter.reset();
+
+        orderItemRepository.saveAll(List.of(new OrderItem(order, teclado, 1), new OrderItem(order, mouse, 3)));
+        orderItemRepository.flush();
+
+        List<String> statements = SqlStatementCounter.statements();
+        assertThat(statements).noneMatch(sql -> sql.toLowerCase().startsWith("select"));
+        // Os dois itens vão no mesmo lote JDBC: o INSERT é preparado uma única vez
+        assertThat(statements).filteredOn(sql -> sql.toLowerCase().startsWith("insert into tb_order_item")).hasSize(1);
+        assertThat(orderItemRepository.findAll()).hasSize(3);
+    }
 }
@@ -1,6 +1,14 @@
 package com.criando.projeto.repositories;
 
+import com.criando.projeto.dto.OrderOwnership;
+import com.criando.projeto.dto.OrderSummary;
+import com.criando.projeto.dto.OrderTotals;
+import com.criando.projeto.entities.Coupon;
 import com.criando.projeto.entities.Order;
+import com.criando.projeto.entities.OrderItem;
+import com.criando.projeto.entities.Product;
+import com.criando.projeto.queryFIlters.OrderCursor;
+import com.criando.projeto.queryFIlters.OrderQueryFilter;
 import com.criando.projeto.entities.User;
 import com.criando.projeto.entities.enums.OrderStatus;
 import com.criando.projeto.entities.enums.UserRole;
@@ -8,9 +16,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -25,6 +36,15 @@ class OrderRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
     private User client;
     private Order order;
 
@@ -79,6 +99,129 @@ class OrderRepositoryTest {
         assertThat(exists).isFalse();
     }
 
+    @Test
+    @DisplayName("Deve retornar apenas o dono e o status da order")
+    void deveRetornarDonoEStatusDaOrder() {
+        Optional<OrderOwnership> ownership = orderRepository.findOwnershipById(order.getId());
+
+        assertThat(ownership).isPresent();
+        assertThat(ownership.get().clientId()).isEqualTo(client.getId());
+        assertThat(ownership.get().orderStatus()).isEqualTo(OrderStatus.WAITING_PAYMENT);
+        assertThat(ownership.get().isOwnedBy(client.getId())).isTrue();
+        assertThat(orderRepository.findOwnershipById(-1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve percorrer as orders por cursor sem repetir nem pular registros")
+    void devePaginarPorCursor() {
+        // Duas orders do setup têm o mesmo moment: o id desempata
+        orderRepository.save(new Order(null, Instant.parse("2020-01-01T00:00:00Z"), OrderStatus.PAID, client));
+        orderRepository.save(new Order(null, Instant.parse("2018-01-01T00:00:00Z"), OrderStatus.PAID, client));
+
+        List<Long> vistos = new ArrayList<>();
+        OrderQueryFilter filter = new OrderQueryFilter();
+        List<Order> pagina;
+        do {
+            pagina = orderRepository.findBy(filter.toSpecification(),
+                    query -> query.sortBy(OrderQueryFilter.KEYSET_SORT).limit(2).all());
+            pagina.forEach(o -> vistos.add(o.getId()));
+            if (!pagina.isEmpty()) {
+                filter.setCursor(OrderCursor.of(pagina.get(pagina.size() - 1)).encode());
+            }
+        } while (pagina.size() == 2);
+
+        List<Long> esperados = orderRepository.findAll(OrderQueryFilter.KEYSET_SORT).stream().map(Order::getId).toList();
+        assertThat(vistos).hasSize(4).doesNotHaveDuplicates().containsExactlyElementsOf(esperados);
+    }
+
+    @Test
+    @DisplayName("Deve recalcular no banco os totais e apontar os pedidos divergentes")
+    void deveApontarTotaisDivergentes() {
+        Product livro = productRepository.save(new Product(null, "Livro", "Descrição", 90.5));
+        order.addItem(new OrderItem(order, livro, 2));
+        order = orderRepository.saveAndFlush(order);
+        // Simula um total gravado errado (ex.: item alterado por fora do OrderServices)
+        assertThat(orderRepository.updateTotals(order.getId(), order.getVersion(), 0L, 0L, 0)).isEqualTo(1);
+
+        List<OrderTotals> totais = orderRepository.findTotalsAfter(0L, Limit.of(10));
+
+        assertThat(totais).hasSize(2).extracting(OrderTotals::id).isSorted();
+        OrderTotals divergente = totais.stream().filter(t -> t.id().equals(order.getId())).findFirst().orElseThrow();
+        assertThat(divergente.hasDrift()).isTrue();
+        assertThat(divergente.expectedTotalCents()).isEqualTo(18100L);
+        assertThat(divergente.expectedItemCount()).isEqualTo(2);
+        assertThat(totais).filteredOn(t -> !t.id().equals(order.getId())).noneMatch(OrderTotals::hasDrift);
+        assertThat(orderRepository.findTotalsAfter(order.getId(), Limit.of(10)))
+                .allMatch(t -> t.id() > order.getId());
+    }
+
+    @Test
+    @DisplayName("Não deve corrigir os totais de um pedido que mudou de versão depois da leitura")
+    void naoDeveCorrigirTotaisDeVersaoAntiga() {
+        Product livro = productRepository.save(new Product(null, "Livro", "Descrição", 90.5));
+        order.addItem(new OrderItem(order, livro, 2));
+        order = orderRepository.saveAndFlush(order);
+        long versaoLida = order.getVersion();
+        order.setOrderStatus(OrderStatus.PAID);
+        order = orderRepository.saveAndFlush(order);
+
+        int atualizados = orderRepository.updateTotals(order.getId(), versaoLida, 0L, 0L, 0);
+
+        assertThat(atualizados).isZero();
+        OrderTotals totais = orderRepository.findTotalsAfter(0L, Limit.of(10)).stream()
+                .filter(t -> t.id().equals(order.getId())).findFirst().orElseThrow();
+        assertThat(totais.version()).isEqualTo(order.getVersion());
+        assertThat(totais.storedTotalCents()).isEqualTo(18100L);
+    }
+
+    @Test
+    @DisplayName("Deve reaplicar no banco o novo percentual do cupom ao total gravado dos pedidos que o usam")
+    void deveReaplicarDescontoDoCupom() {
+        Product livro = productRepository.save(new Product(null, "Livro", "Descrição", 90.5));
+        Coupon cupom = couponRepository.save(new Coupon(null, "DEZ", 10.0));
+        order.setDiscount(cupom);
+        order.addItem(new OrderItem(order, livro, 3));
+        order = orderRepository.saveAndFlush(order);
+        cupom.setDiscountPercentage(12.5);
+        couponRepository.saveAndFlush(cupom);
+
+        int atualizados = orderRepository.reapplyDiscount(cupom.getId(), 8750L);
+
+        assertThat(atualizados).isEqualTo(1);
+        OrderTotals totais = orderRepository.findTotalsAfter(0L, Limit.of(10)).stream()
+                .filter(t -> t.id().equals(order.getId())).findFirst().orElseThrow();
+        // 271,50 com 12,5% de desconto = 237,5625, truncado no centavo
+        assertThat(totais.storedTotalCents()).isEqualTo(23756L);
+        assertThat(totais.hasDrift()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve trazer no resumo o total e a quantidade de itens gravados no pedido")
+    void deveResumirOrdersComTotalCalculadoNoBanco() {
+        Product livro = productRepository.save(new Product(null, "Livro", "Descrição", 90.5));
+        Product tv = productRepository.save(new Product(null, "TV", "Descrição", 2190.0));
+        Coupon cupom = couponRepository.save(new Coupon(null, "DEZ", 10.0));
+        order.setDiscount(cupom);
+        order.addItem(new OrderItem(order, livro, 3));
+        order.addItem(new OrderItem(order, tv, 1));
+        order = orderRepository.save(order);
+
+        List<OrderSummary> resumos = orderRepository.findSummaries(
+                new OrderQueryFilter().toSpecification(), OrderQueryFilter.KEYSET_SORT, 10);
+
+        assertThat(resumos).hasSize(2);
+        OrderSummary comItens = resumos.stream().filter(r -> r.id().equals(order.getId())).findFirst().orElseThrow();
+        assertThat(comItens.total()).isEqualTo(order.getTotal()).isEqualTo(2215.35);
+        assertThat(order.computeTotalCents()).isEqualTo(221535L);
+        assertThat(comItens.itemCount()).isEqualTo(4);
+        assertThat(comItens.clientName()).isEqualTo("Maria");
+        assertThat(comItens.orderStatus()).isEqualTo(OrderStatus.WAITING_PAYMENT);
+        OrderSummary semItens = resumos.stream().filter(r -> !r.id().equals(order.getId())).findFirst().orElseThrow();
+        assertThat(semItens.total()).isZero();
+        // Mesma ordenação da listagem completa: moment DESC, id DESC
+        assertThat(resumos).extracting(OrderSummary::id).isSortedAccordingTo(java.util.Comparator.reverseOrder());
+    }
+
     @Test
     @DisplayName("Deve salvar uma nova order")
     void deveSalvarOrder() {
@@ -1,12 +1,19 @@
 package com.criando.projeto.repositories;
 
+import com.criando.projeto.dto.ProductCategoryLink;
+import com.criando.projeto.dto.ProductText;
 import com.criando.projeto.entities.Category;
 import com.criando.projeto.entities.Product;
+import com.criando.projeto.specifications.ProductSpec;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
@@ -24,6 +31,9 @@ class ProductRepositoryTest {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Product prod1;
     private Product prod2;
     private Category category;
@@ -95,4 +105,52 @@ class ProductRepositoryTest {
         Optional<Product> result = productRepository.findById(prod2.getId());
         assertThat(result).isEmpty();
     }
+
+    @Test
+    @DisplayName("Deve listar os textos dos produtos em páginas por id")
+    void deveListarTextosEmPaginas() {
+        List<ProductText> primeira = productRepository.findTextsAfter(0L, Limit.of(1));
+        List<ProductText> segunda = productRepository.findTextsAfter(primeira.get(0).id(), Limit.of(1));
+
+        assertThat(primeira).containsExactly(new ProductText(prod1.getId(), "Notebook", "Notebook potente", 350000L));
+        assertThat(segunda).containsExactly(new ProductText(prod2.getId(), "Smartphone", "Celular moderno", 250000L));
+        assertThat(productRepository.findTextsAfter(prod2.getId(), Limit.of(1))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve listar as categorias dos produtos de uma faixa de ids")
+    void deveListarCategoriasPorFaixaDeIds() {
+        List<ProductCategoryLink> links = productRepository.findCategoryLinks(prod1.getId() - 1, prod1.getId());
+
+        assertThat(links).containsExactly(new ProductCategoryLink(prod1.getId(), category.getId()));
+    }
+
+    @Test
+    @DisplayName("Filtro por categoria deve trazer uma vez o produto que está em várias categorias que casam")
+    void filtroPorCategoriaSemDuplicados() {
+        Category outra = categoryRepository.save(new Category(null, "Eletrônicos Usados"));
+        Product produto = productRepository.findById(prod1.getId()).orElseThrow();
+        produto.getCategories().add(outra);
+        productRepository.save(produto);
+
+        List<Product> result = productRepository.findAll(ProductSpec.categoryNameContains("Eletrônicos"));
+        Page<Product> page = productRepository.findAll(ProductSpec.categoryNameContains("Eletrônicos"),
+                PageRequest.of(0, 10));
+
+        assertThat(result).extracting(Product::getName).containsExactlyInAnyOrder("Notebook", "Smartphone");
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(productRepository.findAll(ProductSpec.categoryNameContains("Usados")))
+                .extracting(Product::getName).containsExactly("Notebook");
+    }
+
+    @Test
+    @DisplayName("Deve criar o índice (category_id, product_id) na tabela de produtos por categoria")
+    void deveCriarIndiceDeCategoria() {
+        List<String> columns = jdbcTemplate.queryForList("""
+                select column_name from information_schema.index_columns
+                where table_name = 'TB_PRODUCT_CATEGORY' and index_name = 'IDX_PRODUCT_CATEGORY_CATEGORY_PRODUCT'
+                order by ordinal_position""", String.class);
+
+        assertThat(columns).containsExactly("CATEGORY_ID", "PRODUCT_ID");
+    }
 }
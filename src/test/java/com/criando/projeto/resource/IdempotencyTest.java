@@ -0,0 +1,203 @@
+package com.criando.projeto.resource;
+
+import com.criando.projeto.entities.Order;
+import com.criando.projeto.entities.Product;
+import com.criando.projeto.entities.User;
+import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.entities.enums.UserRole;
+import com.criando.projeto.repositories.IdempotencyRecordRepository;
+import com.criando.projeto.repositories.OrderRepository;
+import com.criando.projeto.repositories.ProductRepository;
+import com.criando.projeto.repositories.UserRepository;
+import com.criando.projeto.security.AuthenticatedUser;
+import com.criando.projeto.services.OrderServices;
+import com.criando.projeto.specifications.OrderSpec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Idempotency-Key de ponta a ponta: repetições de POST /orders e POST /orders/{id}/payment recebem a resposta
+// da primeira requisição sem o OrderServices rodar de novo
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    @MockitoSpyBean
+    private OrderServices orderServices;
+
+    private User criarCliente() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(new User(null, "Cliente " + sufixo, sufixo + "@idempotency.com", "11999999999", "Sen@123", UserRole.USER));
+    }
+
+    private static RequestPostProcessor como(User user) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getEmail(), null, user.getRole());
+        return authentication(UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+
+    private String pedido(Product product, int quantity) {
+        return "{\"orderStatus\": \"WAITING_PAYMENT\", \"items\": [{\"product\": {\"id\": " + product.getId() + "}, \"quantity\": " + quantity + "}]}";
+    }
+
+    private MockHttpServletResponse criarPedido(User cliente, String chave, String corpo) throws Exception {
+        var request = post("/orders").with(como(cliente)).contentType(MediaType.APPLICATION_JSON).content(corpo);
+        if (chave != null) {
+            request = request.header(IdempotencyFilter.KEY_HEADER, chave);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    @Test
+    @DisplayName("Repetir POST /orders com a mesma chave deve devolver o mesmo pedido sem criar outro")
+    void insert_Repetido() throws Exception {
+        User cliente = criarCliente();
+        Product produto = productRepository.save(new Product(null, "Produto", "Descrição", 10.0));
+        String chave = UUID.randomUUID().toString();
+
+        MockHttpServletResponse primeira = criarPedido(cliente, chave, pedido(produto, 2));
+        MockHttpServletResponse repetida = criarPedido(cliente, chave, pedido(produto, 2));
+
+        assertThat(primeira.getStatus()).isEqualTo(201);
+        assertThat(primeira.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(repetida.getStatus()).isEqualTo(201);
+        assertThat(repetida.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(repetida.getHeader(HttpHeaders.LOCATION)).isEqualTo(primeira.getHeader(HttpHeaders.LOCATION));
+        assertThat(repetida.getContentAsString()).isEqualTo(primeira.getContentAsString());
+        assertThat(orderRepository.count(OrderSpec.byUserId(cliente.getId()))).isEqualTo(1);
+        verify(orderServices, times(1)).insert(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("A mesma chave com outro corpo deve retornar 422; sem chave cada requisição cria um pedido")
+    void insert_CorpoDiferenteESemChave() throws Exception {
+        User cliente = criarCliente();
+        Product produto = productRepository.save(new Product(null, "Produto", "Descrição", 10.0));
+        String chave = UUID.randomUUID().toString();
+
+        assertThat(criarPedido(cliente, chave, pedido(produto, 1)).getStatus()).isEqualTo(201);
+        assertThat(criarPedido(cliente, chave, pedido(produto, 5)).getStatus()).isEqualTo(422);
+        assertThat(criarPedido(cliente, null, pedido(produto, 1)).getStatus()).isEqualTo(201);
+        assertThat(criarPedido(cliente, null, pedido(produto, 1)).getStatus()).isEqualTo(201);
+
+        assertThat(orderRepository.count(OrderSpec.byUserId(cliente.getId()))).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("A mesma chave de outro usuário não deve devolver a resposta guardada")
+    void insert_ChavePorUsuario() throws Exception {
+        User cliente = criarCliente();
+        User outro = criarCliente();
+        Product produto = productRepository.save(new Product(null, "Produto", "Descrição", 10.0));
+        String chave = UUID.randomUUID().toString();
+
+        criarPedido(cliente, chave, pedido(produto, 1));
+        MockHttpServletResponse doOutro = criarPedido(outro, chave, pedido(produto, 1));
+
+        assertThat(doOutro.getStatus()).isEqualTo(201);
+        assertThat(doOutro.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(orderRepository.count(OrderSpec.byUserId(outro.getId()))).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Repetir o pagamento com a mesma chave deve devolver 200 de novo em vez de 400 (pedido já pago)")
+    void updateOrderPayment_Repetido() throws Exception {
+        User cliente = criarCliente();
+        Order order = orderRepository.save(new Order(null, Instant.now(), OrderStatus.WAITING_PAYMENT, cliente));
+        String chave = UUID.randomUUID().toString();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/orders/{id}/payment", order.getId()).with(como(cliente))
+                            .header(IdempotencyFilter.KEY_HEADER, chave)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"paymentMethod\": 1}"))
+                    .andExpect(status().isOk());
+        }
+        // Sem a chave, a repetição chega ao service e o pedido já pago é recusado
+        mockMvc.perform(post("/orders/{id}/payment", order.getId()).with(como(cliente))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"paymentMethod\": 1}"))
+                .andExpect(status().isBadRequest());
+
+        verify(orderServices, times(2)).setOrderPayment(eq(order.getId()), any());
+    }
+
+    @Test
+    @DisplayName("Depois de um 409 (conflito de concorrência), repetir com a mesma chave deve executar o pedido de novo")
+    void insert_ConflitoLiberaChave() throws Exception {
+        User cliente = criarCliente();
+        Product produto = productRepository.save(new Product(null, "Produto", "Descrição", 10.0));
+        String chave = UUID.randomUUID().toString();
+        doThrow(new ObjectOptimisticLockingFailureException(Order.class, 1L))
+                .doCallRealMethod()
+                .when(orderServices).insert(any(Order.class));
+
+        MockHttpServletResponse conflito = criarPedido(cliente, chave, pedido(produto, 1));
+        MockHttpServletResponse repetida = criarPedido(cliente, chave, pedido(produto, 1));
+
+        assertThat(conflito.getStatus()).isEqualTo(409);
+        assertThat(repetida.getStatus()).isEqualTo(201);
+        assertThat(repetida.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(orderRepository.count(OrderSpec.byUserId(cliente.getId()))).isEqualTo(1);
+        verify(orderServices, times(2)).insert(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("Resposta 4xx também deve ser guardada; chave inválida deve retornar 400")
+    void insert_ErroGuardadoEChaveInvalida() throws Exception {
+        User cliente = criarCliente();
+        String chave = UUID.randomUUID().toString();
+        String corpo = "{\"orderStatus\": \"WAITING_PAYMENT\", \"items\": [{\"product\": {\"id\": 999999}, \"quantity\": 1}]}";
+
+        assertThat(criarPedido(cliente, chave, corpo).getStatus()).isEqualTo(404);
+        MockHttpServletResponse repetida = criarPedido(cliente, chave, corpo);
+        assertThat(repetida.getStatus()).isEqualTo(404);
+        assertThat(repetida.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(idempotencyRecordRepository.count()).isPositive();
+
+        mockMvc.perform(post("/orders").with(como(cliente))
+                        .header(IdempotencyFilter.KEY_HEADER, "x".repeat(256))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(corpo))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE));
+    }
+}
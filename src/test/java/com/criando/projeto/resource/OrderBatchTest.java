@@ -0,0 +1,190 @@
+package com.criando.projeto.resource;
+
+import com.criando.projeto.entities.Coupon;
+import com.criando.projeto.entities.Product;
+import com.criando.projeto.entities.User;
+import com.criando.projeto.entities.enums.UserRole;
+import com.criando.projeto.repositories.CouponRepository;
+import com.criando.projeto.repositories.OrderRepository;
+import com.criando.projeto.repositories.ProductRepository;
+import com.criando.projeto.repositories.UserRepository;
+import com.criando.projeto.security.AuthenticatedUser;
+import com.criando.projeto.specifications.OrderSpec;
+import com.criando.projeto.support.SqlStatementCounter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// POST /orders/batch de ponta a ponta: o número de comandos SQL preparados não cresce com o tamanho do lote
+// (produtos e cupons numa consulta cada, INSERTs em lotes JDBC) e pedidos inválidos não derrubam os outros
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orderbatch",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.criando.projeto.support.SqlStatementCounter"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderBatchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CouponRepository couponRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private User criarCliente() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(new User(null, "Cliente " + sufixo, sufixo + "@batch.com", "11999999999", "Sen@123", UserRole.USER));
+    }
+
+    private static RequestPostProcessor como(User user) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getEmail(), null, user.getRole());
+        return authentication(UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+
+    // Lote com "quantidade" pedidos de 2 itens cada
+    private List<Map<String, Object>> lote(int quantidade, Product primeiro, Product segundo) {
+        List<Map<String, Object>> pedidos = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            pedidos.add(Map.of("items", List.of(
+                    Map.of("product", Map.of("id", primeiro.getId()), "quantity", 1),
+                    Map.of("product", Map.of("id", segundo.getId()), "quantity", 2))));
+        }
+        return pedidos;
+    }
+
+    // A sequence dos pedidos é consultada uma vez a cada 50 ids (allocationSize), conforme onde o bloco atual termina
+    private static List<String> semSequence(List<String> statements) {
+        return statements.stream().filter(sql -> !sql.startsWith("select next value")).toList();
+    }
+
+    private JsonNode enviar(User cliente, Object corpo) throws Exception {
+        String body = mockMvc.perform(post("/orders/batch").with(como(cliente))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(corpo)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    @Test
+    @DisplayName("Lote 4 vezes maior deve preparar o mesmo número de comandos SQL")
+    void insertBatch_ComandosConstantes() throws Exception {
+        User cliente = criarCliente();
+        Product primeiro = new Product(null, "Produto A", "Descrição", 10.0);
+        Product segundo = new Product(null, "Produto B", "Descrição", 20.0);
+        productRepository.saveAll(List.of(primeiro, segundo));
+        enviar(cliente, lote(1, primeiro, segundo));
+
+        SqlStatementCounter.reset();
+        JsonNode pequeno = enviar(cliente, lote(10, primeiro, segundo));
+        List<String> sqlPequeno = semSequence(SqlStatementCounter.statements());
+
+        SqlStatementCounter.reset();
+        JsonNode grande = enviar(cliente, lote(40, primeiro, segundo));
+        List<String> sqlGrande = semSequence(SqlStatementCounter.statements());
+
+        assertThat(pequeno).hasSize(10);
+        assertThat(grande).hasSize(40);
+        assertThat(grande).allSatisfy(resultado -> {
+            assertThat(resultado.get("status").asInt()).isEqualTo(201);
+            assertThat(resultado.get("total").asDouble()).isEqualTo(50.0);
+        });
+        assertThat(sqlGrande)
+                .as("SQL do lote de 40: %s%nSQL do lote de 10: %s", sqlGrande, sqlPequeno)
+                .hasSameSizeAs(sqlPequeno);
+        assertThat(orderRepository.count(OrderSpec.byUserId(cliente.getId()))).isEqualTo(51);
+    }
+
+    @Test
+    @DisplayName("Pedido com produto ou cupom inexistente deve ser recusado sem impedir os outros")
+    void insertBatch_FalhaParcial() throws Exception {
+        User cliente = criarCliente();
+        Product produto = productRepository.save(new Product(null, "Produto C", "Descrição", 100.0));
+        Coupon cupom = couponRepository.save(new Coupon(null, "LOTE" + UUID.randomUUID().toString().substring(0, 6), 10.0));
+
+        JsonNode resultados = enviar(cliente, List.of(
+                Map.of("items", List.of(Map.of("product", Map.of("id", produto.getId()), "quantity", 1)),
+                        "discount", Map.of("id", cupom.getId())),
+                Map.of("items", List.of(Map.of("product", Map.of("id", 999_999), "quantity", 1))),
+                Map.of("items", List.of(Map.of("product", Map.of("id", produto.getId()), "quantity", 1)),
+                        "discount", Map.of("id", 999_999)),
+                Map.of("items", List.of(Map.of("product", Map.of("id", produto.getId()), "quantity", 3)))));
+
+        assertThat(resultados).hasSize(4);
+        assertThat(resultados.get(0).get("status").asInt()).isEqualTo(201);
+        assertThat(resultados.get(0).get("total").asDouble()).isEqualTo(90.0);
+        assertThat(resultados.get(1).get("status").asInt()).isEqualTo(404);
+        assertThat(resultados.get(1).get("error").asText()).isEqualTo("Produto não encontrado: ID 999999");
+        assertThat(resultados.get(2).get("status").asInt()).isEqualTo(404);
+        assertThat(resultados.get(3).get("status").asInt()).isEqualTo(201);
+        assertThat(resultados.get(3).get("total").asDouble()).isEqualTo(300.0);
+        assertThat(orderRepository.count(OrderSpec.byUserId(cliente.getId()))).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Cupom sem id deve contar como pedido sem cupom, como no pedido avulso")
+    void insertBatch_CupomSemId() throws Exception {
+        User cliente = criarCliente();
+        Product produto = productRepository.save(new Product(null, "Produto D", "Descrição", 40.0));
+
+        // Nenhum pedido do lote tem cupom com id: a busca de cupons não acha nada
+        JsonNode resultados = enviar(cliente, List.of(
+                Map.of("items", List.of(Map.of("product", Map.of("id", produto.getId()), "quantity", 2)),
+                        "discount", Map.of())));
+
+        assertThat(resultados).hasSize(1);
+        assertThat(resultados.get(0).get("status").asInt()).isEqualTo(201);
+        assertThat(resultados.get(0).get("total").asDouble()).isEqualTo(80.0);
+    }
+
+    @Test
+    @DisplayName("O mesmo produto em duas linhas do pedido deve somar as quantidades")
+    void insertBatch_ProdutoRepetido() throws Exception {
+        User cliente = criarCliente();
+        Product produto = productRepository.save(new Product(null, "Produto E", "Descrição", 10.0));
+
+        JsonNode resultados = enviar(cliente, List.of(
+                Map.of("items", List.of(
+                        Map.of("product", Map.of("id", produto.getId()), "quantity", 1),
+                        Map.of("product", Map.of("id", produto.getId()), "quantity", 2)))));
+
+        assertThat(resultados.get(0).get("status").asInt()).isEqualTo(201);
+        assertThat(resultados.get(0).get("total").asDouble()).isEqualTo(30.0);
+    }
+
+    @Test
+    @DisplayName("Lote vazio deve retornar 400")
+    void insertBatch_Vazio() throws Exception {
+        mockMvc.perform(post("/orders/batch").with(como(criarCliente()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+}
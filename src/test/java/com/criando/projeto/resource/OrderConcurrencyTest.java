@@ -0,0 +1,134 @@
+package com.criando.projeto.resource;
+
+import com.criando.projeto.entities.Order;
+import com.criando.projeto.entities.OrderItem;
+import com.criando.projeto.entities.Product;
+import com.criando.projeto.entities.User;
+import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.entities.enums.UserRole;
+import com.criando.projeto.repositories.OrderItemRepository;
+import com.criando.projeto.repositories.OrderRepository;
+import com.criando.projeto.repositories.ProductRepository;
+import com.criando.projeto.repositories.UserRepository;
+import com.criando.projeto.security.AuthenticatedUser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+
+// @Version em Order de ponta a ponta: somas concorrentes de quantidade não se perdem (OptimisticRetry refaz a
+// operação), e uma escrita feita sobre uma leitura antiga é recusada em vez de sobrescrever a outra
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orderconcurrency",
+        "spring.jpa.show-sql=false",
+        "orders.optimistic-retry.max-attempts=50"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderConcurrencyTest {
+
+    private static final int CLIENTES = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User cliente;
+    private Product produto;
+
+    private Order criarPedido() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 8);
+        cliente = userRepository.save(new User(null, "Cliente " + sufixo, sufixo + "@concorrencia.com", "11999999999", "Sen@123", UserRole.USER));
+        produto = productRepository.save(new Product(null, "Produto " + sufixo, "Descrição", 10.0));
+        Order order = new Order(null, Instant.now(), OrderStatus.WAITING_PAYMENT, cliente);
+        order.addItem(new OrderItem(order, produto, 1));
+        return orderRepository.save(order);
+    }
+
+    private RequestPostProcessor comoCliente() {
+        AuthenticatedUser principal = new AuthenticatedUser(cliente.getId(), cliente.getEmail(), null, cliente.getRole());
+        return authentication(UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+
+    @Test
+    @DisplayName("Somas concorrentes de quantidade no mesmo item não devem se perder")
+    void updateOrderItems_Concorrente() throws Exception {
+        Order order = criarPedido();
+        String corpo = "[{\"product\": {\"id\": " + produto.getId() + "}, \"quantity\": 1}]";
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTES);
+        try {
+            List<Future<Integer>> respostas = new ArrayList<>();
+            for (int i = 0; i < CLIENTES; i++) {
+                respostas.add(executor.submit(() -> {
+                    largada.await();
+                    return mockMvc.perform(patch("/orders/{id}/items", order.getId()).with(comoCliente())
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(corpo))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            largada.countDown();
+            for (Future<Integer> resposta : respostas) {
+                assertThat(resposta.get()).isEqualTo(200);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Order salvo = orderRepository.findById(order.getId()).orElseThrow();
+        OrderItem item = orderItemRepository.findAll().stream()
+                .filter(orderItem -> orderItem.getOrder().getId().equals(order.getId()))
+                .findFirst().orElseThrow();
+        assertThat(item.getQuantity()).isEqualTo(1 + CLIENTES);
+        assertThat(salvo.getItemCount()).isEqualTo(1 + CLIENTES);
+        assertThat(salvo.getTotal()).isEqualTo(10.0 * (1 + CLIENTES));
+        assertThat(salvo.getVersion()).isGreaterThanOrEqualTo(CLIENTES);
+    }
+
+    @Test
+    @DisplayName("Gravar um pedido lido antes de outra escrita deve falhar em vez de sobrescrevê-la")
+    void save_LeituraAntiga() {
+        Order order = criarPedido();
+        Order leituraAntiga = orderRepository.findById(order.getId()).orElseThrow();
+
+        transactionTemplate.executeWithoutResult(status -> orderRepository.findById(order.getId()).orElseThrow()
+                .setOrderStatus(OrderStatus.CANCELED));
+        leituraAntiga.setOrderStatus(OrderStatus.PAID);
+
+        assertThatThrownBy(() -> orderRepository.save(leituraAntiga))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getOrderStatus()).isEqualTo(OrderStatus.CANCELED);
+    }
+}
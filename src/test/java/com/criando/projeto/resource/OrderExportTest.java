@@ -0,0 +1,150 @@
+package com.criando.projeto.resource;
+
+import com.criando.projeto.entities.*;
+import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.entities.enums.UserRole;
+import com.criando.projeto.repositories.*;
+import com.criando.projeto.security.AuthenticatedUser;
+import com.criando.projeto.support.SqlStatementCounter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// GET /orders/export de ponta a ponta: NDJSON com todos os pedidos do filtro, lidos em blocos de fetch-size pedidos
+// (aqui 10, para 25 pedidos virarem 3 blocos) e com um número de consultas por bloco, não por pedido
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orderexport",
+        "spring.jpa.show-sql=false",
+        "orders.export.fetch-size=10",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.criando.projeto.support.SqlStatementCounter"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderExportTest {
+
+    private static final int PEDIDOS = 25;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    // Cria um cliente com "quantidade" pedidos de 2 itens cada, um segundo depois do outro; os pares ficam pagos
+    private User criarPedidos(int quantidade) {
+        String sufixo = UUID.randomUUID().toString().substring(0, 8);
+        User cliente = userRepository.save(new User(null, "Cliente " + sufixo, sufixo + "@export.com", "11999999999", "Sen@123", UserRole.USER));
+        Product primeiro = new Product(null, "Produto A " + sufixo, "Descrição", 10.0);
+        Product segundo = new Product(null, "Produto B " + sufixo, "Descrição", 20.0);
+        productRepository.saveAll(List.of(primeiro, segundo));
+        for (int i = 0; i < quantidade; i++) {
+            OrderStatus status = i % 2 == 0 ? OrderStatus.PAID : OrderStatus.WAITING_PAYMENT;
+            Order order = orderRepository.save(new Order(null, Instant.parse("2024-01-01T00:00:00Z").plusSeconds(i), status, cliente));
+            orderItemRepository.saveAll(List.of(new OrderItem(order, primeiro, 1), new OrderItem(order, segundo, 2)));
+        }
+        return cliente;
+    }
+
+    private List<JsonNode> exportar(RequestPostProcessor usuario, String... params) throws Exception {
+        var request = get("/orders/export").with(usuario);
+        for (int i = 0; i < params.length; i += 2) {
+            request = request.param(params[i], params[i + 1]);
+        }
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<JsonNode> linhas = new ArrayList<>();
+        for (String linha : body.split("\n")) {
+            assertThat(linha).startsWith("{");
+            linhas.add(objectMapper.readTree(linha));
+        }
+        assertThat(body).endsWith("\n");
+        return linhas;
+    }
+
+    private static RequestPostProcessor como(Long id, String email, UserRole role) {
+        AuthenticatedUser principal = new AuthenticatedUser(id, email, null, role);
+        return authentication(UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+
+    @Test
+    @DisplayName("Deve exportar todos os pedidos do filtro em NDJSON, do mais recente para o mais antigo")
+    void exportOrders_Admin() throws Exception {
+        User cliente = criarPedidos(PEDIDOS);
+
+        SqlStatementCounter.reset();
+        List<JsonNode> linhas = exportar(como(-1L, "admin@export.com", UserRole.ADMIN), "userId", cliente.getId().toString());
+        int consultas = SqlStatementCounter.count();
+
+        assertThat(linhas).hasSize(PEDIDOS);
+        assertThat(linhas.get(0).get("moment").asText()).isEqualTo("2024-01-01T00:00:24Z");
+        assertThat(linhas.get(PEDIDOS - 1).get("moment").asText()).isEqualTo("2024-01-01T00:00:00Z");
+        assertThat(linhas).allSatisfy(linha -> assertThat(linha.get("items")).hasSize(2));
+        // 1 consulta dos pedidos + poucas por bloco (itens e produtos), nunca uma por pedido
+        assertThat(consultas)
+                .as("SQL executado: %s", SqlStatementCounter.statements())
+                .isLessThanOrEqualTo(1 + 3 * 3);
+    }
+
+    @Test
+    @DisplayName("Deve aplicar os filtros de GET /orders na exportação")
+    void exportOrders_Filtro() throws Exception {
+        User cliente = criarPedidos(PEDIDOS);
+
+        List<JsonNode> linhas = exportar(como(-1L, "admin@export.com", UserRole.ADMIN),
+                "userId", cliente.getId().toString(), "orderStatus", "PAID");
+
+        assertThat(linhas).hasSize(13);
+        assertThat(linhas).allSatisfy(linha -> assertThat(linha.get("orderStatus").asText()).isEqualTo("PAID"));
+    }
+
+    @Test
+    @DisplayName("Usuário comum deve exportar apenas os próprios pedidos")
+    void exportOrders_User() throws Exception {
+        User cliente = criarPedidos(3);
+        User outro = criarPedidos(2);
+
+        List<JsonNode> linhas = exportar(como(cliente.getId(), cliente.getEmail(), UserRole.USER),
+                "userId", outro.getId().toString());
+
+        assertThat(linhas).hasSize(3);
+        assertThat(linhas).allSatisfy(linha -> assertThat(linha.get("client").get("id").asLong()).isEqualTo(cliente.getId()));
+    }
+
+    @Test
+    @DisplayName("Cursor inválido deve retornar 400 em JSON, antes de a exportação começar")
+    void exportOrders_CursorInvalido() throws Exception {
+        mockMvc.perform(get("/orders/export").param("cursor", "xx").with(como(-1L, "admin@export.com", UserRole.ADMIN)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,111 @@
+package com.criando.projeto.resource;
+
+import com.criando.projeto.entities.*;
+import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.entities.enums.PaymentMethod;
+import com.criando.projeto.entities.enums.UserRole;
+import com.criando.projeto.repositories.*;
+import com.criando.projeto.security.AuthenticatedUser;
+import com.criando.projeto.support.SqlStatementCounter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Garante que listar N pedidos (com cliente, itens, produtos, categorias, pagamento e cupom) faz um número
+// constante de consultas, e não uma ou mais por pedido (N+1)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:querycount",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.criando.projeto.support.SqlStatementCounter"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderListingQueryCountTest {
+
+    private static final int MAX_QUERIES = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    @Autowired
+    private CouponRepository couponRepository;
+
+    // Cria um cliente com "quantidade" pedidos, cada um com 2 itens de produtos diferentes; metade pagos e com cupom
+    private User criarPedidos(int quantidade) {
+        String sufixo = UUID.randomUUID().toString().substring(0, 8);
+        User cliente = userRepository.save(new User(null, "Cliente " + sufixo, sufixo + "@contagem.com", "11999999999", "Sen@123", UserRole.USER));
+        Category categoria = categoryRepository.save(new Category(null, "Categoria " + sufixo));
+        for (int i = 0; i < quantidade; i++) {
+            Product primeiro = new Product(null, "Produto A" + i, "Descrição", 10.0 + i);
+            Product segundo = new Product(null, "Produto B" + i, "Descrição", 20.0 + i);
+            primeiro.getCategories().add(categoria);
+            segundo.getCategories().add(categoria);
+            productRepository.saveAll(List.of(primeiro, segundo));
+
+            Order order = orderRepository.save(new Order(null, Instant.parse("2024-01-01T00:00:00Z").plusSeconds(i), OrderStatus.WAITING_PAYMENT, cliente));
+            orderItemRepository.saveAll(List.of(new OrderItem(order, primeiro, 1), new OrderItem(order, segundo, 2)));
+            if (i % 2 == 0) {
+                order.setDiscount(couponRepository.save(new Coupon(null, "CUPOM" + sufixo + i, 10.0)));
+                order.setPayment(new Payment(null, Instant.now(), order, PaymentMethod.CREDIT_CARD));
+                order.setOrderStatus(OrderStatus.PAID);
+                orderRepository.save(order);
+            }
+        }
+        return cliente;
+    }
+
+    private int consultasParaListar(int quantidade) throws Exception {
+        User cliente = criarPedidos(quantidade);
+        AuthenticatedUser admin = new AuthenticatedUser(-1L, "admin@contagem.com", null, UserRole.ADMIN);
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(get("/orders")
+                        .param("userId", cliente.getId().toString())
+                        .param("size", String.valueOf(quantidade))
+                        .with(authentication(UsernamePasswordAuthenticationToken.authenticated(admin, null, admin.getAuthorities()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(quantidade))
+                .andExpect(jsonPath("$.content[0].items.length()").value(2))
+                .andExpect(jsonPath("$.content[0].items[0].product.categories.length()").value(1));
+        return SqlStatementCounter.count();
+    }
+
+    @Test
+    @DisplayName("Deve listar pedidos com um número constante de consultas, independente de quantos pedidos")
+    void findOrders_SemNMaisUm() throws Exception {
+        int consultasCom3 = consultasParaListar(3);
+        List<String> sqlCom3 = SqlStatementCounter.statements();
+        int consultasCom30 = consultasParaListar(30);
+
+        assertThat(consultasCom3)
+                .as("SQL executado: %s", sqlCom3)
+                .isLessThanOrEqualTo(MAX_QUERIES);
+        assertThat(consultasCom30)
+                .as("SQL executado: %s", SqlStatementCounter.statements())
+                .isEqualTo(consultasCom3);
+    }
+}
@@ -1,5 +1,8 @@
 package com.criando.projeto.resource;
 
+import com.criando.projeto.dto.CursorPage;
+import com.criando.projeto.dto.OrderBatchResult;
+import com.criando.projeto.dto.OrderSummary;
 import com.criando.projeto.entities.*;
 import com.criando.projeto.entities.enums.OrderStatus;
 import com.criando.projeto.entities.enums.PaymentMethod;
@@ -7,6 +10,7 @@ import com.criando.projeto.entities.enums.UserRole;
 import com.criando.projeto.queryFIlters.OrderQueryFilter;
 import com.criando.projeto.repositories.OrderRepository;
 import com.criando.projeto.services.OrderServices;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,8 +22,11 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.quality.Strictness;
 import org.mockito.junit.jupiter.MockitoSettings;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -61,6 +68,11 @@ class OrderResourcesTest {
         orderDois = new Order(2L, Instant.now(), OrderStatus.PAID, user);
     }
 
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
     private OrderItem createOrderItem() {
         Product product = new Product(2L, "Produto Teste", "Descrição", 50.0);
         OrderItem item = new OrderItem();
@@ -73,18 +85,48 @@ class OrderResourcesTest {
     @Test
     @DisplayName("Deve retornar lista de pedidos com status 200 OK")
     void findOrders() {
-        List<Order> orders = List.of(order, orderDois);
+        CursorPage<Order> orders = new CursorPage<>(List.of(order, orderDois), OrderQueryFilter.DEFAULT_SIZE, null);
         OrderQueryFilter filter = new OrderQueryFilter();
 
         when(orderServices.findOrders(filter)).thenReturn(orders);
 
-        ResponseEntity<List<Order>> result = orderResources.findOrders(filter);
+        ResponseEntity<CursorPage<Order>> result = orderResources.findOrders(filter);
 
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals(orders, result.getBody());
         verify(orderServices).findOrders(filter);
     }
 
+    @Test
+    @DisplayName("Deve retornar a página de resumos dos pedidos com status 200 OK")
+    void findOrderSummaries() {
+        CursorPage<OrderSummary> resumos = new CursorPage<>(
+                List.of(new OrderSummary(1L, order.getMoment(), OrderStatus.WAITING_PAYMENT, "Fulano", 100.0, 1)), OrderQueryFilter.DEFAULT_SIZE, null);
+        OrderQueryFilter filter = new OrderQueryFilter();
+
+        when(orderServices.findOrderSummaries(filter)).thenReturn(resumos);
+
+        ResponseEntity<CursorPage<OrderSummary>> result = orderResources.findOrderSummaries(filter);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(resumos, result.getBody());
+    }
+
+    @Test
+    @DisplayName("Deve exportar os pedidos em NDJSON direto na resposta")
+    void exportOrders() throws Exception {
+        OrderQueryFilter filter = new OrderQueryFilter();
+        Specification<Order> spec = Specification.where(null);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(orderServices.exportSpecification(filter)).thenReturn(spec);
+
+        orderResources.exportOrders(filter, response);
+
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE + ";charset=UTF-8", response.getContentType());
+        verify(orderServices).exportOrders(spec, response.getOutputStream());
+    }
+
+
     //tá faltando o 401
 
     @Test
@@ -130,6 +172,22 @@ class OrderResourcesTest {
         }
     }
 
+    @Test
+    @DisplayName("Deve retornar 200 com o resultado de cada pedido do lote")
+    void insertBatch() {
+        List<Order> lote = List.of(new Order(), new Order());
+        List<OrderBatchResult> resultados = List.of(
+                OrderBatchResult.created(0, order),
+                OrderBatchResult.failed(1, HttpStatus.NOT_FOUND, "Produto não encontrado: ID 9"));
+        when(orderServices.insertBatch(lote)).thenReturn(resultados);
+
+        ResponseEntity<List<OrderBatchResult>> response = orderResources.insertBatch(lote);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(resultados, response.getBody());
+        verify(orderServices).insertBatch(lote);
+    }
+
     @Test
     @DisplayName("Deve aplicar cupom ao pedido e retornar status 200 OK")
     void applyCouponToOrder_DeveRetornarPedidoAtualizado() {
@@ -249,12 +307,12 @@ class OrderResourcesTest {
 
         // Itens para atualizar no pedido
         OrderItem orderItem = createOrderItem();
-        Set<OrderItem> novosItens = Set.of(orderItem);
+        List<OrderItem> novosItens = List.of(orderItem);
 
         // Pedido atualizado com os novos itens
         Order updatedOrder = new Order();
         updatedOrder.setId(orderId);
-        updatedOrder.setItems(novosItens);
+        updatedOrder.setItems(Set.of(orderItem));
 
         // Mock de autenticação
         Authentication authentication = mock(Authentication.class);
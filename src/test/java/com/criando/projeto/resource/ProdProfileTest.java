@@ -0,0 +1,165 @@
+package com.criando.projeto.resource;
+
+import com.criando.projeto.entities.*;
+import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.entities.enums.UserRole;
+import com.criando.projeto.repositories.*;
+import com.criando.projeto.security.AuthenticatedUser;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Perfil prod (sem open-in-view, pool com autocommit desligado) sobre o H2 dos testes: as respostas são serializadas
+// depois de a transação do service terminar, então itens, produtos e categorias (lazy) já precisam vir carregados
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:prodprofile",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "jwt.secret=test-jwt-secret-para-o-perfil-prod"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "prod"})
+class ProdProfileTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ApplicationContext context;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private User cliente;
+    private Product produto;
+    private Category categoria;
+
+    private Order criarPedido() {
+        String sufixo = UUID.randomUUID().toString().substring(0, 8);
+        cliente = userRepository.save(new User(null, "Cliente " + sufixo, sufixo + "@prod.com", "11999999999", "Sen@123", UserRole.USER));
+        categoria = categoryRepository.save(new Category(null, "Categoria " + sufixo));
+        Product novo = new Product(null, "Produto " + sufixo, "Descrição", 10.0);
+        novo.getCategories().add(categoria);
+        produto = productRepository.save(novo);
+        Order order = new Order(null, Instant.now(), OrderStatus.WAITING_PAYMENT, cliente);
+        order.addItem(new OrderItem(order, produto, 2));
+        return orderRepository.save(order);
+    }
+
+    private static RequestPostProcessor como(Long id, String email, UserRole role) {
+        AuthenticatedUser principal = new AuthenticatedUser(id, email, null, role);
+        return authentication(UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+
+    private RequestPostProcessor comoCliente() {
+        return como(cliente.getId(), cliente.getEmail(), UserRole.USER);
+    }
+
+    @Test
+    @DisplayName("O perfil prod deve desligar o open-in-view e tirar o autocommit das conexões do pool")
+    void configuracao() {
+        assertThat(context.getBeanNamesForType(OpenEntityManagerInViewInterceptor.class)).isEmpty();
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+        assertThat(hikari.isAutoCommit()).isFalse();
+        assertThat(hikari.getMinimumIdle()).isEqualTo(hikari.getMaximumPoolSize());
+    }
+
+    @Test
+    @DisplayName("Sem open-in-view, os pedidos devem sair com itens, produtos e categorias")
+    void pedidos_AssociacoesCarregadas() throws Exception {
+        Order order = criarPedido();
+        String nomeCategoria = categoria.getName();
+
+        mockMvc.perform(get("/orders/{id}", order.getId()).with(comoCliente()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].quantity").value(2))
+                .andExpect(jsonPath("$.items[0].product.categories[0].name").value(nomeCategoria));
+
+        mockMvc.perform(get("/orders").with(comoCliente()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].items[0].product.categories[0].name").value(nomeCategoria));
+
+        mockMvc.perform(patch("/orders/{id}/items", order.getId()).with(comoCliente())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"product\": {\"id\": " + produto.getId() + "}, \"quantity\": 1}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].quantity").value(3))
+                .andExpect(jsonPath("$.items[0].product.categories[0].name").value(nomeCategoria));
+
+        mockMvc.perform(patch("/orders/{id}/status", order.getId()).with(comoCliente())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderStatus\": \"CANCELED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].product.categories[0].name").value(nomeCategoria));
+    }
+
+    @Test
+    @DisplayName("Sem open-in-view, o pedido criado deve sair com os produtos e suas categorias")
+    void insert_AssociacoesCarregadas() throws Exception {
+        criarPedido();
+
+        mockMvc.perform(post("/orders").with(comoCliente())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderStatus\": \"WAITING_PAYMENT\", \"items\": [{\"product\": {\"id\": " + produto.getId() + "}, \"quantity\": 1}]}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.items[0].product.categories[0].name").value(categoria.getName()));
+    }
+
+    @Test
+    @DisplayName("Sem open-in-view, o produto alterado deve sair com as categorias e entrar no índice de busca")
+    void produto_AssociacoesCarregadas() throws Exception {
+        criarPedido();
+        String nome = "Renomeado " + produto.getId();
+
+        mockMvc.perform(put("/products/{id}", produto.getId()).with(como(-1L, "admin@prod.com", UserRole.ADMIN))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"" + nome + "\", \"description\": \"Nova\", \"price\": 12.5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories[0].name").value(categoria.getName()));
+
+        // O índice e o cache são atualizados depois do commit: a busca já encontra o nome novo
+        mockMvc.perform(get("/products").param("name", nome))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem(produto.getId().intValue())));
+        assertThat(productRepository.findById(produto.getId())).get()
+                .extracting(Product::getName).isEqualTo(nome);
+    }
+
+    @Test
+    @DisplayName("Usuário com pedidos não pode ser excluído: a violação deve virar 400, mesmo dentro da transação")
+    void deleteUser_ComPedidos() throws Exception {
+        criarPedido();
+
+        mockMvc.perform(delete("/users/{id}", cliente.getId()).with(comoCliente()))
+                .andExpect(status().isBadRequest());
+        assertThat(userRepository.findById(cliente.getId())).isPresent();
+    }
+}
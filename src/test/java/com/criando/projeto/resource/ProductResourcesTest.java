@@ -1,5 +1,6 @@
 package com.criando.projeto.resource;
 
+import com.criando.projeto.dto.ProductFacets;
 import com.criando.projeto.entities.Category;
 import com.criando.projeto.entities.Product;
 import com.criando.projeto.queryFIlters.ProductQueryFilter;
@@ -61,12 +62,23 @@ class ProductResourcesTest {
     @DisplayName("Deve retornar uma lista de produtos com status 200 OK")
     void findAll() {
         List<Product> ProductList = List.of(product, productDois);
-        when(productQueryFilter.toSpecification()).thenReturn(specification);
-        when(productServices.findAll(specification)).thenReturn(ProductList);
+        when(productServices.findAll(productQueryFilter)).thenReturn(ProductList);
         ResponseEntity<List<Product>> response = productResources.findAll(productQueryFilter);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(ProductList, response.getBody());
-        verify(productServices).findAll(specification);
+        verify(productServices).findAll(productQueryFilter);
+    }
+
+    @Test
+    @DisplayName("Deve retornar as contagens (facetas) do filtro com status 200 OK")
+    void facets() {
+        ProductFacets facets = new ProductFacets(2,
+                List.of(new ProductFacets.CategoryCount(1L, "Eletrônicos", 2)),
+                List.of(new ProductFacets.PriceBucket(3000.0, 3100.0, 1), new ProductFacets.PriceBucket(5000.0, 5100.0, 1)));
+        when(productServices.facets(productQueryFilter, 100.0)).thenReturn(facets);
+        ResponseEntity<ProductFacets> response = productResources.facets(productQueryFilter, 100.0);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(facets, response.getBody());
     }
 
     @Test
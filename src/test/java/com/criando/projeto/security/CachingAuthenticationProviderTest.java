@@ -0,0 +1,117 @@
+package com.criando.projeto.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingAuthenticationProviderTest {
+
+    @Mock
+    private AuthenticationProvider delegate;
+
+    private VerifiedCredentialCache credentialCache;
+    private CachingAuthenticationProvider provider;
+    private UserDetails maria;
+
+    @BeforeEach
+    void setUp() {
+        credentialCache = new VerifiedCredentialCache(100, 300);
+        provider = new CachingAuthenticationProvider(delegate, credentialCache);
+        maria = new User("maria@gmail.com", "{bcrypt}hash", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    private Authentication login(String email, String senha) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(email, senha);
+    }
+
+    private void delegateAutentica() {
+        when(delegate.authenticate(any())).thenReturn(
+                UsernamePasswordAuthenticationToken.authenticated(maria, null, maria.getAuthorities()));
+    }
+
+    @Test
+    @DisplayName("Deve usar o BCrypt apenas na primeira autenticação e o cache nas seguintes")
+    void authenticate_UsaCacheNaSegundaVez() {
+        delegateAutentica();
+
+        Authentication primeira = provider.authenticate(login("maria@gmail.com", "Mar@123"));
+        Authentication segunda = provider.authenticate(login("maria@gmail.com", "Mar@123"));
+
+        assertThat(primeira.isAuthenticated()).isTrue();
+        assertThat(segunda.isAuthenticated()).isTrue();
+        assertThat(segunda.getName()).isEqualTo("maria@gmail.com");
+        assertThat(segunda.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+        verify(delegate, times(1)).authenticate(any());
+        assertThat(credentialCache.stats().hits()).isEqualTo(1);
+        assertThat(credentialCache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Não deve aceitar uma senha diferente da que foi verificada")
+    void authenticate_SenhaDiferenteVaiParaODelegate() {
+        delegateAutentica();
+        provider.authenticate(login("maria@gmail.com", "Mar@123"));
+
+        when(delegate.authenticate(any())).thenThrow(new BadCredentialsException("Senha inválida"));
+
+        assertThatThrownBy(() -> provider.authenticate(login("maria@gmail.com", "errada")))
+                .isInstanceOf(BadCredentialsException.class);
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    @DisplayName("Não deve guardar no cache autenticações que falharam")
+    void authenticate_FalhaNaoVaiParaOCache() {
+        when(delegate.authenticate(any())).thenThrow(new BadCredentialsException("Senha inválida"));
+
+        assertThatThrownBy(() -> provider.authenticate(login("maria@gmail.com", "errada")))
+                .isInstanceOf(BadCredentialsException.class);
+
+        assertThat(credentialCache.stats().size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve voltar a verificar no banco depois que a credencial for invalidada")
+    void authenticate_AposInvalidar() {
+        delegateAutentica();
+        provider.authenticate(login("maria@gmail.com", "Mar@123"));
+
+        credentialCache.invalidate("maria@gmail.com");
+        provider.authenticate(login("maria@gmail.com", "Mar@123"));
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    @DisplayName("Login que leu a senha antiga não deve entrar no cache se a senha mudar durante a verificação")
+    void authenticate_SenhaAlteradaDuranteVerificacao() {
+        when(delegate.authenticate(any())).thenAnswer(invocation -> {
+            // A senha é trocada (UserServices invalida o cache) enquanto o BCrypt ainda confere o hash antigo
+            credentialCache.invalidate("maria@gmail.com");
+            return UsernamePasswordAuthenticationToken.authenticated(maria, null, maria.getAuthorities());
+        });
+
+        provider.authenticate(login("maria@gmail.com", "Mar@123"));
+
+        assertThat(credentialCache.stats().size()).isZero();
+        assertThat(credentialCache.find("maria@gmail.com", "Mar@123")).isEmpty();
+    }
+}
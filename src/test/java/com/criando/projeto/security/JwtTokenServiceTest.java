@@ -0,0 +1,80 @@
+package com.criando.projeto.security;
+
+import com.criando.projeto.entities.enums.UserRole;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenServiceTest {
+
+    private static final String SECRET = "segredo-de-teste";
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Instant agora = Instant.parse("2024-01-01T12:00:00Z");
+
+    private JwtTokenService serviceEm(Instant instante) {
+        return new JwtTokenService(SECRET, 3600000, objectMapper, Clock.fixed(instante, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Deve gerar um token e ler as claims de volta")
+    void generateAndParse() {
+        JwtTokenService service = serviceEm(agora);
+        String token = service.generateToken(7L, "maria@gmail.com", UserRole.ADMIN);
+
+        Optional<AuthenticatedUser> principal = service.parse(token);
+
+        assertThat(principal).isPresent();
+        assertThat(principal.get().getId()).isEqualTo(7L);
+        assertThat(principal.get().getUsername()).isEqualTo("maria@gmail.com");
+        assertThat(principal.get().getRole()).isEqualTo(UserRole.ADMIN);
+        assertThat(principal.get().getPassword()).isNull();
+        assertThat(principal.get().getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar token com payload alterado")
+    void parse_TokenAdulterado() {
+        JwtTokenService service = serviceEm(agora);
+        String token = service.generateToken(7L, "maria@gmail.com", UserRole.USER);
+        String[] partes = token.split("\\.");
+        String payloadFalso = java.util.Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"sub\":\"maria@gmail.com\",\"uid\":7,\"role\":\"ADMIN\",\"exp\":9999999999}".getBytes());
+
+        assertThat(service.parse(partes[0] + "." + payloadFalso + "." + partes[2])).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar token assinado com outro segredo")
+    void parse_OutroSegredo() {
+        String token = new JwtTokenService("outro-segredo", 3600000, objectMapper, Clock.fixed(agora, ZoneOffset.UTC))
+                .generateToken(7L, "maria@gmail.com", UserRole.USER);
+
+        assertThat(serviceEm(agora).parse(token)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar token expirado")
+    void parse_TokenExpirado() {
+        String token = serviceEm(agora).generateToken(7L, "maria@gmail.com", UserRole.USER);
+
+        assertThat(serviceEm(agora.plusSeconds(3599)).parse(token)).isPresent();
+        assertThat(serviceEm(agora.plusSeconds(3600)).parse(token)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar tokens malformados")
+    void parse_TokenMalformado() {
+        JwtTokenService service = serviceEm(agora);
+
+        assertThat(service.parse(null)).isEmpty();
+        assertThat(service.parse("abc")).isEmpty();
+        assertThat(service.parse("a.b.c")).isEmpty();
+    }
+}
@@ -0,0 +1,74 @@
+package com.criando.projeto.security;
+
+import com.criando.projeto.dto.OrderOwnership;
+import com.criando.projeto.entities.enums.OrderStatus;
+import com.criando.projeto.entities.enums.UserRole;
+import com.criando.projeto.repositories.OrderRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderSecurityTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private OrderSecurity orderSecurity;
+
+    private Authentication autenticado(Long id, UserRole role) {
+        AuthenticatedUser user = new AuthenticatedUser(id, "maria@gmail.com", null, role);
+        return UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+    }
+
+    @Test
+    @DisplayName("Deve permitir o dono do pedido usando só a projeção, sem carregar o pedido")
+    void checkOrderOwnership_Dono() {
+        when(orderRepository.findOwnershipById(1L)).thenReturn(Optional.of(new OrderOwnership(5L, OrderStatus.PAID)));
+
+        assertThat(orderSecurity.checkOrderOwnership(autenticado(5L, UserRole.USER), 1L)).isTrue();
+        verify(orderRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Deve negar usuário que não é dono e permitir ADMIN")
+    void checkOrderOwnership_OutroUsuarioEAdmin() {
+        when(orderRepository.findOwnershipById(1L)).thenReturn(Optional.of(new OrderOwnership(5L, OrderStatus.PAID)));
+
+        assertThat(orderSecurity.checkOrderOwnership(autenticado(6L, UserRole.USER), 1L)).isFalse();
+        assertThat(orderSecurity.checkOrderOwnership(autenticado(6L, UserRole.ADMIN), 1L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve negar quando o pedido não existe")
+    void checkOrderOwnership_PedidoInexistente() {
+        when(orderRepository.findOwnershipById(99L)).thenReturn(Optional.empty());
+
+        assertThat(orderSecurity.checkOrderOwnership(autenticado(6L, UserRole.ADMIN), 99L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve usar a consulta de existência por e-mail para outros tipos de principal")
+    void checkOrderOwnership_OutroPrincipal() {
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(
+                "alex@gmail.com", null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        when(orderRepository.existsByIdAndClient_Email(1L, "alex@gmail.com")).thenReturn(true);
+
+        assertThat(orderSecurity.checkOrderOwnership(authentication, 1L)).isTrue();
+        verify(orderRepository, never()).findOwnershipById(anyLong());
+    }
+}
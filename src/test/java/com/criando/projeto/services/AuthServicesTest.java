@@ -0,0 +1,60 @@
+package com.criando.projeto.services;
+
+import com.criando.projeto.dto.LoginRequest;
+import com.criando.projeto.dto.TokenResponse;
+import com.criando.projeto.entities.enums.UserRole;
+import com.criando.projeto.security.AuthenticatedUser;
+import com.criando.projeto.security.JwtTokenService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServicesTest {
+
+    @InjectMocks
+    private AuthServices authServices;
+    @Mock
+    private AuthenticationManager authenticationManager;
+    @Mock
+    private JwtTokenService jwtTokenService;
+
+    @Test
+    @DisplayName("Deve gerar token com id, email e role quando as credenciais são válidas")
+    void login() {
+        AuthenticatedUser user = new AuthenticatedUser(5L, "maria@gmail.com", "hash", UserRole.USER);
+        when(authenticationManager.authenticate(any())).thenReturn(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+        when(jwtTokenService.generateToken(5L, "maria@gmail.com", UserRole.USER)).thenReturn("token");
+        when(jwtTokenService.getExpirationMillis()).thenReturn(3600000L);
+
+        TokenResponse response = authServices.login(new LoginRequest("maria@gmail.com", "Mar@123"));
+
+        assertThat(response.token()).isEqualTo("token");
+        assertThat(response.type()).isEqualTo("Bearer");
+        assertThat(response.expiresIn()).isEqualTo(3600L);
+        verify(authenticationManager).authenticate(any());
+    }
+
+    @Test
+    @DisplayName("Não deve gerar token quando as credenciais são inválidas")
+    void login_CredenciaisInvalidas() {
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        assertThatThrownBy(() -> authServices.login(new LoginRequest("maria@gmail.com", "errada")))
+                .isInstanceOf(BadCredentialsException.class);
+
+        verifyNoInteractions(jwtTokenService);
+    }
+}
@@ -0,0 +1,123 @@
+package com.criando.projeto.services;
+
+import com.criando.projeto.entities.Category;
+import com.criando.projeto.entities.Product;
+import com.criando.projeto.queryFIlters.ProductQueryFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogCacheTest {
+
+    private final CatalogCache catalogCache = new CatalogCache(2, 60, 2);
+
+    @Test
+    @DisplayName("Não deve guardar um valor carregado antes de uma invalidação")
+    void naoGuardaValorCarregadoAntesDaInvalidacao() {
+        AtomicInteger loads = new AtomicInteger();
+        Product antigo = new Product(1L, "Antigo", "Desc", 10.0);
+
+        // A escrita (e a invalidação) acontece enquanto a leitura ainda está consultando o banco
+        catalogCache.product(1L, () -> {
+            loads.incrementAndGet();
+            catalogCache.invalidateProduct(1L);
+            return antigo;
+        });
+        catalogCache.product(1L, () -> {
+            loads.incrementAndGet();
+            return new Product(1L, "Novo", "Desc", 12.0);
+        });
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve limitar o tamanho e contar as evicções")
+    void limitaTamanho() {
+        for (long id = 1; id <= 3; id++) {
+            long produto = id;
+            catalogCache.product(produto, () -> new Product(produto, "P" + produto, "Desc", 10.0));
+        }
+
+        assertThat(catalogCache.stats().get("products").size()).isEqualTo(2);
+        assertThat(catalogCache.stats().get("products").evictions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Cada leitura deve receber uma cópia: alterar o produto devolvido não muda o cache")
+    void leituraDevolveCopia() {
+        Product carregado = new Product(1L, "P", "Desc", 10.0);
+        carregado.getCategories().add(new Category(5L, "Livros"));
+        catalogCache.products(new ProductQueryFilter().cacheKey(), () -> List.of(carregado));
+
+        carregado.setName("Alterado depois do carregamento");
+        Product lido = catalogCache.products(new ProductQueryFilter().cacheKey(), List::of).get(0);
+        lido.setPrice(99.0);
+        lido.getCategories().clear();
+
+        Product relido = catalogCache.product(1L, () -> {
+            throw new AssertionError("O produto deveria estar no cache");
+        });
+        assertThat(relido).isNotSameAs(lido);
+        assertThat(relido.getName()).isEqualTo("P");
+        assertThat(relido.getPrice()).isEqualTo(10.0);
+        assertThat(relido.getCategories()).extracting(Category::getName).containsExactly("Livros");
+    }
+
+    @Test
+    @DisplayName("Não deve guardar listas com mais produtos que o limite")
+    void naoGuardaListaAcimaDoLimite() {
+        AtomicInteger loads = new AtomicInteger();
+        List<Product> tresProdutos = List.of(new Product(1L, "A", "Desc", 10.0),
+                new Product(2L, "B", "Desc", 10.0), new Product(3L, "C", "Desc", 10.0));
+
+        for (int i = 0; i < 2; i++) {
+            catalogCache.products(new ProductQueryFilter().cacheKey(), () -> {
+                loads.incrementAndGet();
+                return tresProdutos;
+            });
+        }
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(catalogCache.stats().get("productQueries").size()).isZero();
+        assertThat(catalogCache.stats().get("products").size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve refazer a consulta quando um produto da lista saiu do cache")
+    void refazConsultaSemProdutoEmCache() {
+        AtomicInteger loads = new AtomicInteger();
+        ProductQueryFilter.CacheKey chave = new ProductQueryFilter().cacheKey();
+        catalogCache.products(chave, () -> {
+            loads.incrementAndGet();
+            return List.of(new Product(1L, "A", "Desc", 10.0));
+        });
+
+        // Só cabem 2 produtos: o 1 é despejado
+        catalogCache.product(2L, () -> new Product(2L, "B", "Desc", 10.0));
+        catalogCache.product(3L, () -> new Product(3L, "C", "Desc", 10.0));
+        List<Product> lista = catalogCache.products(chave, () -> {
+            loads.incrementAndGet();
+            return List.of(new Product(1L, "A", "Desc", 10.0));
+        });
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(lista).extracting(Product::getId).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Invalidar categorias deve limpar também os produtos")
+    void invalidarCategoriasLimpaProdutos() {
+        catalogCache.product(1L, () -> new Product(1L, "P", "Desc", 10.0));
+        catalogCache.products(new ProductQueryFilter().cacheKey(), List::of);
+
+        catalogCache.invalidateCategories();
+
+        assertThat(catalogCache.stats().get("products").size()).isZero();
+        assertThat(catalogCache.stats().get("productQueries").size()).isZero();
+    }
+}
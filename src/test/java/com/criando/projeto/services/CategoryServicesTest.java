@@ -11,9 +11,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Arrays;
 import java.util.List;
@@ -31,6 +33,15 @@ class CategoryServicesTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Spy
+    private CatalogCache catalogCache = new CatalogCache(100, 60, 500);
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Test
     @DisplayName("Deve retornar todas as categorias")
     void findAll() {
@@ -43,6 +54,24 @@ class CategoryServicesTest {
         assertThat(result).hasSize(2).contains(c1, c2);
     }
 
+    @Test
+    @DisplayName("Deve servir as categorias do cache e recarregar depois de inserir uma categoria")
+    void findAll_CacheEInvalidacao() {
+        Category c1 = new Category(1L, "Eletrônicos");
+        Category nova = new Category(2L, "Roupas");
+        when(categoryRepository.findAll()).thenReturn(List.of(c1), List.of(c1, nova));
+        when(categoryRepository.save(nova)).thenReturn(nova);
+
+        categoryServices.findAll();
+        assertThat(categoryServices.findAll()).containsExactly(c1);
+        verify(categoryRepository, times(1)).findAll();
+
+        categoryServices.insert(nova);
+
+        assertThat(categoryServices.findAll()).containsExactly(c1, nova);
+        verify(categoryRepository, times(2)).findAll();
+    }
+
     @Test
     @DisplayName("Deve retornar categoria por ID")
     void findById() {
@@ -75,6 +104,7 @@ class CategoryServicesTest {
 
         assertThat(result.getId()).isEqualTo(1L);
         assertThat(result.getName()).isEqualTo("Livros");
+        verify(productSearchIndex).putCategory(saved);
     }
 
     @Test
@@ -82,6 +112,7 @@ class CategoryServicesTest {
     void delete() {
         categoryServices.delete(1L);
         verify(categoryRepository).deleteById(1L);
+        verify(productSearchIndex).removeCategory(1L);
     }
 
     @Test
@@ -2,6 +2,7 @@ package com.criando.projeto.services;
 
 import com.criando.projeto.entities.Coupon;
 import com.criando.projeto.repositories.CouponRepository;
+import com.criando.projeto.repositories.OrderRepository;
 import com.criando.projeto.services.exceptions.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -27,6 +28,9 @@ class CouponServicesTest {
     @Mock
     private CouponRepository couponRepository;
 
+    @Mock
+    private OrderRepository orderRepository;
+
     @Test
     @DisplayName("Deve retornar todos os cupons")
     void findAll() {
@@ -97,6 +101,19 @@ class CouponServicesTest {
         assertThat(result.getCode()).isEqualTo("NOVO20");
         assertThat(result.getDiscountPercentage()).isEqualTo(20.0);
         verify(couponRepository).save(existente); // garante que foi o mesmo objeto modificado que foi salvo
+        verify(orderRepository).reapplyDiscount(id, 8000L);
+    }
+
+    @Test
+    @DisplayName("Não deve recalcular os pedidos se o percentual do cupom não mudou")
+    void update_MesmoPercentual() {
+        Long id = 1L;
+        when(couponRepository.findById(id)).thenReturn(Optional.of(new Coupon(id, "VELHO10", 10.0)));
+        when(couponRepository.save(any(Coupon.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        couponServices.update(id, new Coupon(id, "NOVO10", 10.0));
+
+        verifyNoInteractions(orderRepository);
     }
 
     @Test
@@ -0,0 +1,170 @@
+package com.criando.projeto.services;
+
+import com.criando.projeto.entities.IdempotencyRecord;
+import com.criando.projeto.repositories.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+    // Relógio controlado pelo teste, para simular a passagem do tempo
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static final byte[] BODY = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private MutableClock clock;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        store = new IdempotencyStore(repository, 100, Duration.ofHours(1), Duration.ofSeconds(30), clock);
+    }
+
+    private IdempotencyRecord respondido(String key, String requestHash, Instant expiresAt) {
+        IdempotencyRecord record = new IdempotencyRecord(key, requestHash, "t", expiresAt);
+        ReflectionTestUtils.setField(record, "status", 201);
+        ReflectionTestUtils.setField(record, "contentType", "application/json");
+        ReflectionTestUtils.setField(record, "body", BODY);
+        return record;
+    }
+
+    @Test
+    @DisplayName("Primeira requisição reserva a chave; depois de concluída, a repetição é respondida da memória")
+    void begin_ReservaEDepoisRepete() {
+        when(repository.findById("k")).thenReturn(Optional.empty());
+        when(repository.complete(eq("k"), any(), eq(201), any(), any(), any(), any())).thenReturn(1);
+
+        IdempotencyStore.Claim claim = store.begin("k", "h");
+        assertThat(claim.outcome()).isEqualTo(IdempotencyStore.Outcome.ACQUIRED);
+        verify(repository).saveAndFlush(argThat(record -> record.isPending()
+                && record.getClaimToken().equals(claim.claimToken())
+                && record.getExpiresAt().equals(clock.instant().plusSeconds(30))));
+
+        store.complete("k", claim.claimToken(), "h", 201, "application/json", "/orders/1", BODY);
+        verify(repository).complete(eq("k"), eq(claim.claimToken()), eq(201), any(), any(), any(), any());
+        IdempotencyStore.Claim repetida = store.begin("k", "h");
+
+        assertThat(repetida.outcome()).isEqualTo(IdempotencyStore.Outcome.REPLAY);
+        assertThat(repetida.response().status()).isEqualTo(201);
+        assertThat(repetida.response().location()).isEqualTo("/orders/1");
+        assertThat(repetida.response().body()).isEqualTo(BODY);
+        assertThat(store.begin("k", "outro").outcome()).isEqualTo(IdempotencyStore.Outcome.MISMATCH);
+        // Só o primeiro begin foi ao banco
+        verify(repository, times(1)).findById("k");
+    }
+
+    @Test
+    @DisplayName("Resposta gravada por outra instância deve ser devolvida; pendente com o mesmo corpo está em andamento")
+    void begin_RegistroNoBanco() {
+        when(repository.findById("pronta")).thenReturn(Optional.of(respondido("pronta", "h", clock.instant().plusSeconds(60))));
+        when(repository.findById("pendente")).thenReturn(Optional.of(new IdempotencyRecord("pendente", "h", "t", clock.instant().plusSeconds(10))));
+
+        IdempotencyStore.Claim pronta = store.begin("pronta", "h");
+
+        assertThat(pronta.outcome()).isEqualTo(IdempotencyStore.Outcome.REPLAY);
+        assertThat(pronta.response().body()).isEqualTo(BODY);
+        assertThat(store.begin("pendente", "h").outcome()).isEqualTo(IdempotencyStore.Outcome.IN_PROGRESS);
+        assertThat(store.begin("pendente", "outro").outcome()).isEqualTo(IdempotencyStore.Outcome.MISMATCH);
+        verify(repository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Quem perde a corrida do INSERT deve ver a requisição como em andamento")
+    void begin_CorridaNoInsert() {
+        IdempotencyRecord vencedora = new IdempotencyRecord("k", "h", "t", clock.instant().plusSeconds(30));
+        when(repository.findById("k")).thenReturn(Optional.empty(), Optional.of(vencedora));
+        when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("chave duplicada"));
+
+        assertThat(store.begin("k", "h").outcome()).isEqualTo(IdempotencyStore.Outcome.IN_PROGRESS);
+    }
+
+    @Test
+    @DisplayName("Registro vencido deve ser apagado e a chave reservada de novo")
+    void begin_RegistroVencido() {
+        IdempotencyRecord vencido = respondido("k", "h", clock.instant().minusSeconds(1));
+        when(repository.findById("k")).thenReturn(Optional.of(vencido), Optional.empty());
+
+        assertThat(store.begin("k", "outro").outcome()).isEqualTo(IdempotencyStore.Outcome.ACQUIRED);
+        verify(repository).deleteIfExpired("k", clock.instant());
+    }
+
+    @Test
+    @DisplayName("Resposta em memória deve expirar junto com o registro")
+    void begin_MemoriaExpira() {
+        when(repository.findById("k")).thenReturn(Optional.empty());
+        when(repository.complete(eq("k"), any(), anyInt(), any(), any(), any(), any())).thenReturn(1);
+        IdempotencyStore.Claim claim = store.begin("k", "h");
+        store.complete("k", claim.claimToken(), "h", 200, "application/json", null, BODY);
+
+        clock.advance(Duration.ofHours(1));
+
+        assertThat(store.begin("k", "h").outcome()).isEqualTo(IdempotencyStore.Outcome.ACQUIRED);
+    }
+
+    @Test
+    @DisplayName("Respostas transitórias (409, 429 e 5xx) não devem ser guardadas: só a reserva desta requisição é liberada")
+    void complete_RespostaTransitoriaLibera() {
+        for (int status : new int[]{409, 429, 500, 503}) {
+            store.complete("k", "t", "h", status, "application/json", null, BODY);
+        }
+
+        verify(repository, times(4)).releaseClaim("k", "t");
+        verify(repository, never()).complete(any(), any(), anyInt(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Outros erros do cliente devem ser guardados como as respostas de sucesso")
+    void complete_ErroDoClienteGuardado() {
+        when(repository.complete(eq("k"), eq("t"), eq(404), any(), any(), any(), any())).thenReturn(1);
+
+        store.complete("k", "t", "h", 404, "application/json", null, BODY);
+
+        assertThat(store.begin("k", "h").outcome()).isEqualTo(IdempotencyStore.Outcome.REPLAY);
+        verify(repository, never()).releaseClaim(any(), any());
+    }
+}
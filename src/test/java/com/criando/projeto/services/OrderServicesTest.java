@@ -3,16 +3,27 @@ package com.criando.projeto.services;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.Consumer;
 
 import com.criando.projeto.entities.*;
 import com.criando.projeto.entities.enums.PaymentMethod;
 import com.criando.projeto.entities.enums.UserRole;
+import com.criando.projeto.dto.CursorPage;
+import com.criando.projeto.dto.OrderBatchResult;
+import com.criando.projeto.dto.OrderSummary;
+import com.criando.projeto.queryFIlters.OrderCursor;
 import com.criando.projeto.queryFIlters.OrderQueryFilter;
 import com.criando.projeto.repositories.*;
 import com.criando.projeto.services.exceptions.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 import org.aspectj.weaver.ast.Or;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -22,12 +33,16 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import com.criando.projeto.entities.enums.OrderStatus;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
 
 @ExtendWith(MockitoExtension.class)
 public class OrderServicesTest {
@@ -44,6 +59,10 @@ public class OrderServicesTest {
     private ProductRepository productRepository;
     @Mock
     private OrderItemRepository orderItemRepository;
+    @Spy
+    private ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    @Spy
+    private OptimisticRetry optimisticRetry = new OptimisticRetry(TransactionOperations.withoutTransaction(), 3, Duration.ZERO);
 
     @InjectMocks
     private OrderServices orderService;
@@ -78,6 +97,7 @@ public class OrderServicesTest {
         lenient().when(authenticationFacade.getAuthenticatedUserEmail()).thenReturn(currentUser.getEmail());
         lenient().when(authenticationFacade.isUser(authentication)).thenReturn(currentUser.getRole() == UserRole.USER);
         lenient().when(authenticationFacade.getAuthenticatedUser()).thenReturn(currentUser);
+        lenient().when(authenticationFacade.getAuthenticatedUserId()).thenReturn(currentUser.getId());
         lenient().when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
         lenient().when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
 
@@ -111,6 +131,7 @@ public class OrderServicesTest {
         lenient().when(authenticationFacade.isUser(authentication)).thenReturn(false);
         lenient().when(authenticationFacade.isAdmin(any())).thenReturn(true);
         lenient().when(authenticationFacade.getAuthenticatedUser()).thenReturn(currentUser);
+        lenient().when(authenticationFacade.getAuthenticatedUserId()).thenReturn(currentUser.getId());
         lenient().when(authenticationFacade.isSameUser(anyLong())).thenAnswer(invocation -> {
             Long adminId = invocation.getArgument(0);
             return adminId.equals(currentUser.getId());
@@ -152,10 +173,11 @@ public class OrderServicesTest {
     void findOrders_Admin() {
         // Configuração do mock de autenticação
         setUpAsAdmin(); // Configura a autenticação para o admin
-        when(orderRepository.findAll(any(Specification.class))).thenReturn(List.of(order, orderDois));
-        List<Order> result = orderService.findOrders(new OrderQueryFilter());
-        assertEquals(2, result.size());
-        verify(orderRepository).findAll(any(Specification.class));
+        when(orderRepository.findBy(any(Specification.class), any())).thenReturn(List.of(order, orderDois));
+        CursorPage<Order> result = orderService.findOrders(new OrderQueryFilter());
+        assertEquals(2, result.content().size());
+        assertNull(result.nextCursor());
+        verify(orderRepository).findBy(any(Specification.class), any());
         verify(authenticationFacade).isUser(any(Authentication.class));
         verify(authenticationFacade, never()).isAdmin(any(Authentication.class));  // Agora verificando o comportamento de admin
     }
@@ -164,12 +186,82 @@ public class OrderServicesTest {
     @DisplayName("Deve retornar apenas pedidos do usuário autenticado quando role for USER")
     void findOrders_User() {
         OrderQueryFilter filter = new OrderQueryFilter();
-        when(orderRepository.findAll(any(Specification.class))).thenReturn(List.of(order));
-        List<Order> result = orderService.findOrders(filter);
-        assertEquals(1, result.size());
-        assertEquals(user.getId(), result.get(0).getClient().getId());
-        verify(authenticationFacade).getAuthenticatedUser();
-        verify(orderRepository).findAll(any(Specification.class));
+        when(orderRepository.findBy(any(Specification.class), any())).thenReturn(List.of(order));
+        CursorPage<Order> result = orderService.findOrders(filter);
+        assertEquals(1, result.content().size());
+        assertEquals(user.getId(), result.content().get(0).getClient().getId());
+        assertEquals(user.getId(), filter.getUserId());
+        verify(authenticationFacade).getAuthenticatedUserId();
+        verify(orderRepository).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    @DisplayName("Deve devolver o cursor do último pedido quando houver próxima página")
+    void findOrders_ComProximaPagina() {
+        setUpAsAdmin();
+        order.setMoment(Instant.parse("2024-01-02T00:00:00Z"));
+        orderDois.setMoment(Instant.parse("2024-01-01T00:00:00Z"));
+        Order orderTres = new Order(3L, Instant.parse("2023-12-31T00:00:00Z"), OrderStatus.PAID, user);
+        // O repositório devolve size + 1 pedidos: o extra só indica que existe próxima página
+        when(orderRepository.findBy(any(Specification.class), any())).thenReturn(List.of(order, orderDois, orderTres));
+        OrderQueryFilter filter = new OrderQueryFilter();
+        filter.setSize(2);
+
+        CursorPage<Order> result = orderService.findOrders(filter);
+
+        assertEquals(List.of(order, orderDois), result.content());
+        assertEquals(2, result.size());
+        assertEquals(new OrderCursor(orderDois.getMoment(), orderDois.getId()), OrderCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    @DisplayName("Deve listar resumos apenas do usuário autenticado quando role for USER")
+    void findOrderSummaries_User() {
+        OrderSummary resumo = new OrderSummary(1L, order.getMoment(), OrderStatus.WAITING_PAYMENT, user.getName(), 150.0, 2);
+        when(orderRepository.findSummaries(any(Specification.class), eq(OrderQueryFilter.KEYSET_SORT), eq(OrderQueryFilter.DEFAULT_SIZE + 1)))
+                .thenReturn(List.of(resumo));
+        OrderQueryFilter filter = new OrderQueryFilter();
+
+        CursorPage<OrderSummary> result = orderService.findOrderSummaries(filter);
+
+        assertEquals(List.of(resumo), result.content());
+        assertNull(result.nextCursor());
+        assertEquals(user.getId(), filter.getUserId());
+        verify(orderRepository, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    @DisplayName("Deve exportar em NDJSON, bloco a bloco, apenas os pedidos do usuário autenticado quando role for USER")
+    void exportOrders_User() throws IOException {
+        doAnswer(invocation -> {
+            Consumer<List<Order>> blocos = invocation.getArgument(3);
+            blocos.accept(List.of(order));
+            blocos.accept(List.of(orderDois));
+            return null;
+        }).when(orderRepository).forEachChunk(any(Specification.class), eq(OrderQueryFilter.KEYSET_SORT), anyInt(), any());
+        OrderQueryFilter filter = new OrderQueryFilter();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exportados = orderService.exportOrders(orderService.exportSpecification(filter), out);
+
+        String[] linhas = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, exportados);
+        assertEquals(2, linhas.length);
+        assertTrue(linhas[1].startsWith("{"));
+        assertEquals(order.getId(), objectMapper.readTree(linhas[0]).get("id").asLong());
+        assertEquals(orderDois.getId(), objectMapper.readTree(linhas[1]).get("id").asLong());
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+        assertEquals(user.getId(), filter.getUserId());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar tamanho de página fora do limite")
+    void findOrders_TamanhoInvalido() {
+        OrderQueryFilter filter = new OrderQueryFilter();
+        filter.setSize(OrderQueryFilter.MAX_SIZE + 1);
+
+        assertThrows(InvalidQueryParameterException.class, () -> orderService.findOrders(filter));
+        verify(orderRepository, never()).findBy(any(Specification.class), any());
     }
 
     @Test
@@ -219,7 +311,7 @@ public class OrderServicesTest {
     @Test
     @DisplayName("Deve inserir um pedido corretamente quando dados estão válidos")
     void insert_User() {
-        when(productRepository.findById(product.getId())).thenReturn(Optional.of(product));
+        when(productRepository.findAllById(List.of(product.getId()))).thenReturn(List.of(product));
         Order newOrder = new Order();
         newOrder.setItems(new HashSet<>(Set.of(orderItem)));
 
@@ -249,8 +341,12 @@ public class OrderServicesTest {
         assertEquals(savedOrder, itemResultado.getOrder());
 
 
+        // Total e quantidade de itens calculados antes do INSERT do pedido
+        assertEquals(product.getPrice() * orderItem.getQuantity(), newOrder.getTotal());
+        assertEquals(orderItem.getQuantity(), newOrder.getItemCount());
+
         verify(userRepository).findByEmail(user.getEmail());
-        verify(productRepository).findById(product.getId());
+        verify(productRepository).findAllById(List.of(product.getId()));
         verify(orderRepository).save(any(Order.class));
         verify(orderItemRepository).saveAll(anySet());
     }
@@ -259,7 +355,7 @@ public class OrderServicesTest {
     @DisplayName("Deve inserir um pedido corretamente quando dados estão válidos, com o user ADMIN")
     void insert_Admin() {
         setUpAsAdmin();
-        when(productRepository.findById(product.getId())).thenReturn(Optional.of(product));
+        when(productRepository.findAllById(List.of(product.getId()))).thenReturn(List.of(product));
         Order newOrder = new Order();
         newOrder.setItems(new HashSet<>(Set.of(orderItem)));
 
@@ -290,16 +386,85 @@ public class OrderServicesTest {
 
 
         verify(userRepository).findByEmail(admin.getEmail());
-        verify(productRepository).findById(product.getId());
+        verify(productRepository).findAllById(List.of(product.getId()));
         verify(orderRepository).save(any(Order.class));
         verify(orderItemRepository).saveAll(anySet());
     }
 
+    // Pedido do lote com um item do produto informado
+    private Order pedidoDoLote(Long productId, int quantity, Long couponId) {
+        Order novo = new Order();
+        novo.setItems(new HashSet<>(Set.of(new OrderItem(null, new Product(productId, null, null, null), quantity))));
+        if (couponId != null) {
+            novo.setDiscount(new Coupon(couponId, null, null));
+        }
+        return novo;
+    }
+
+    @Test
+    @DisplayName("Deve criar os pedidos válidos do lote e recusar os inválidos, com uma consulta de produtos e uma de cupons")
+    void insertBatch_FalhaParcial() {
+        ReflectionTestUtils.setField(orderService, "batchMaxSize", 10);
+        Coupon cupom = createCoupon();
+        when(productRepository.findAllById(anyList())).thenReturn(List.of(product));
+        when(couponRepository.findAllById(anyList())).thenReturn(List.of(cupom));
+        // Ids da sequence atribuídos no persist
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> pedidos = invocation.getArgument(0);
+            long id = 100;
+            for (Order pedido : pedidos) {
+                pedido.setId(id++);
+            }
+            return pedidos;
+        });
+
+        List<Order> lote = List.of(
+                pedidoDoLote(product.getId(), 2, null),
+                pedidoDoLote(99L, 1, null),
+                pedidoDoLote(product.getId(), 0, null),
+                pedidoDoLote(product.getId(), 1, cupom.getId()),
+                pedidoDoLote(product.getId(), 1, 77L));
+
+        List<OrderBatchResult> resultados = orderService.insertBatch(lote);
+
+        assertEquals(5, resultados.size());
+        assertEquals(List.of(0, 1, 2, 3, 4), resultados.stream().map(OrderBatchResult::index).toList());
+        assertEquals(List.of(201, 404, 400, 201, 404), resultados.stream().map(OrderBatchResult::status).toList());
+        assertEquals(100L, resultados.get(0).id());
+        assertEquals(product.getPrice() * 2, resultados.get(0).total());
+        assertEquals("Produto não encontrado: ID 99", resultados.get(1).error());
+        assertEquals(101L, resultados.get(3).id());
+        assertEquals(cupom, lote.get(3).getDiscount());
+        assertEquals("Cupom não encontrado: ID 77", resultados.get(4).error());
+        assertEquals(user, lote.get(0).getClient());
+
+        verify(userRepository).findByEmail(user.getEmail());
+        verify(productRepository).findAllById(List.of(product.getId(), 99L));
+        verify(couponRepository).findAllById(List.of(cupom.getId(), 77L));
+        verify(orderRepository).saveAll(List.of(lote.get(0), lote.get(3)));
+        verify(orderItemRepository).saveAll(argThat((List<OrderItem> itens) -> itens.size() == 2
+                && itens.stream().allMatch(item -> item.getOrder() != null && item.getPrice().equals(product.getPrice()))));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("Deve recusar lote vazio ou acima do limite sem consultar o banco")
+    void insertBatch_LoteInvalido() {
+        ReflectionTestUtils.setField(orderService, "batchMaxSize", 2);
+
+        assertThrows(InvalidBatchException.class, () -> orderService.insertBatch(List.of()));
+        assertThrows(InvalidBatchException.class, () -> orderService.insertBatch(List.of(
+                pedidoDoLote(1L, 1, null), pedidoDoLote(1L, 1, null), pedidoDoLote(1L, 1, null))));
+
+        verifyNoInteractions(userRepository, productRepository, orderRepository, orderItemRepository);
+    }
+
+
     @Test
     @DisplayName("Deve lançar ResourceNotFoundException quando produto não for encontrado")
     void insert_ProductNotFound() {
         Product invalidProduct = new Product();
-        product.setId(99L); // ID que não existe
+        invalidProduct.setId(99L); // ID que não existe
 
         OrderItem orderItem = new OrderItem();
         orderItem.setProduct(invalidProduct);
@@ -307,13 +472,7 @@ public class OrderServicesTest {
         Order order = new Order();
         order.setItems(Set.of(orderItem));
 
-        when(productRepository.findById(invalidProduct.getId())).thenReturn(Optional.empty());
-
-        Order savedOrder = new Order();
-        savedOrder.setId(1L);
-        savedOrder.setClient(user);
-        savedOrder.setItems(new HashSet<>());
-        when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
+        when(productRepository.findAllById(List.of(invalidProduct.getId()))).thenReturn(List.of());
 
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
                 () -> orderService.insert(order));
@@ -321,11 +480,39 @@ public class OrderServicesTest {
         assertEquals("Produto não encontrado: ID " + invalidProduct.getId(), exception.getMessage());
 
         verify(userRepository).findByEmail(user.getEmail());
-        verify(productRepository).findById(invalidProduct.getId());
-        verify(orderRepository).save(any(Order.class));
+        verify(productRepository).findAllById(List.of(invalidProduct.getId()));
+        // Os produtos são buscados antes de salvar: nenhum pedido sem itens fica gravado
+        verify(orderRepository, never()).save(any(Order.class));
         verifyNoInteractions(orderItemRepository);
     }
 
+    @Test
+    @DisplayName("Deve buscar todos os produtos em uma única consulta e informar juntos os IDs não encontrados")
+    void insert_ProductsNotFound_ReportaTodosOsIds() {
+        Order order = new Order();
+        order.setItems(new HashSet<>());
+        for (long id : new long[]{1L, 98L, 99L}) {
+            Product itemProduct = new Product();
+            itemProduct.setId(id);
+            OrderItem item = new OrderItem();
+            item.setProduct(itemProduct);
+            item.setQuantity(1);
+            order.getItems().add(item);
+        }
+
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> orderService.insert(order));
+
+        assertTrue(exception.getMessage().startsWith("Produtos não encontrados: IDs "));
+        assertTrue(exception.getMessage().contains("98"));
+        assertTrue(exception.getMessage().contains("99"));
+        verify(productRepository, times(1)).findAllById(anyCollection());
+        verify(productRepository, never()).findById(any());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
     @Test
     @DisplayName("Deve lidar corretamente quando coupon for inválido")
     void insert_InvalidCoupon() {
@@ -713,16 +900,108 @@ public class OrderServicesTest {
         Set<OrderItem> novosItens = Set.of(orderItem);
 
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(productRepository.findById(orderItem.getProduct().getId()))
-                .thenReturn(Optional.of(orderItem.getProduct()));
+        when(productRepository.findAllById(List.of(orderItem.getProduct().getId())))
+                .thenReturn(List.of(orderItem.getProduct()));
         when(orderRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         Order result = orderService.updateOrderItems(1L, novosItens, SecurityContextHolder.getContext().getAuthentication());
 
         assertEquals(1, result.getItems().size());
+        // Totais gravados do pedido atualizados junto com os itens (3 x 50.0)
+        assertEquals(150.0, result.getTotal());
+        assertEquals(3, result.getItemCount());
         verify(orderRepository).save(order);
     }
 
+    @Test
+    @DisplayName("Linhas repetidas do mesmo produto devem somar as quantidades, sem descartar nenhuma")
+    void updateItens_ProdutoRepetido() {
+        OrderItem primeira = new OrderItem(null, new Product(product.getId(), null, null, null), 1);
+        OrderItem segunda = new OrderItem(null, new Product(product.getId(), null, null, null), 2);
+
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(productRepository.findAllById(List.of(product.getId()))).thenReturn(List.of(product));
+        when(orderRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Order result = orderService.updateOrderItems(1L, List.of(primeira, segunda), SecurityContextHolder.getContext().getAuthentication());
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(3, result.getItems().iterator().next().getQuantity());
+        assertEquals(3, result.getItemCount());
+        // Os itens enviados não são alterados: uma nova tentativa do OptimisticRetry soma do zero
+        assertEquals(1, primeira.getQuantity());
+    }
+
+    @Test
+    @DisplayName("Deve somar aos totais só a quantidade acrescentada a um item que já está no pedido")
+    void updateItens_ItemExistente() {
+        order.addItem(orderItem); // 1 x 2500.0
+        OrderItem maisDoMesmo = new OrderItem();
+        maisDoMesmo.setProduct(new Product(product.getId(), null, null, null));
+        maisDoMesmo.setQuantity(2);
+
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Order result = orderService.updateOrderItems(1L, Set.of(maisDoMesmo), SecurityContextHolder.getContext().getAuthentication());
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(3, orderItem.getQuantity());
+        assertEquals(7500.0, result.getTotal());
+        assertEquals(3, result.getItemCount());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    @DisplayName("Conflito de versão ao somar itens deve refazer a operação sobre o pedido relido")
+    void updateItens_ConflitoDeVersaoRepete() {
+        Order lidoAntes = new Order(1L, Instant.parse("2019-06-20T19:53:07Z"), OrderStatus.WAITING_PAYMENT, user);
+        lidoAntes.addItem(new OrderItem(lidoAntes, product, 1));
+        // Outra requisição somou 4 ao item antes desta gravar
+        Order relido = new Order(1L, Instant.parse("2019-06-20T19:53:07Z"), OrderStatus.WAITING_PAYMENT, user);
+        OrderItem itemRelido = new OrderItem(relido, product, 5);
+        relido.addItem(itemRelido);
+        OrderItem maisDoMesmo = new OrderItem(null, new Product(product.getId(), null, null, null), 2);
+
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(lidoAntes), Optional.of(relido));
+        when(orderRepository.save(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 1L))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Order result = orderService.updateOrderItems(1L, Set.of(maisDoMesmo), SecurityContextHolder.getContext().getAuthentication());
+
+        assertSame(relido, result);
+        assertEquals(7, itemRelido.getQuantity());
+        assertEquals(7, result.getItemCount());
+        verify(orderRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Conflito de versão que persiste deve ser propagado depois do limite de tentativas")
+    void updateItens_ConflitoDeVersaoEsgotaTentativas() {
+        when(orderRepository.findById(1L)).thenAnswer(invocation -> Optional.of(
+                new Order(1L, Instant.parse("2019-06-20T19:53:07Z"), OrderStatus.WAITING_PAYMENT, user)));
+        when(productRepository.findAllById(List.of(product.getId()))).thenReturn(List.of(product));
+        when(orderRepository.save(any())).thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 1L));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> orderService.updateOrderItems(1L,
+                Set.of(new OrderItem(null, product, 1)), SecurityContextHolder.getContext().getAuthentication()));
+
+        verify(orderRepository, times(3)).save(any());
+    }
+
+    @Test
+    @DisplayName("Conflito de versão ao mudar o status não deve ser repetido")
+    void updateOrderStatus_ConflitoDeVersao() {
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.save(any())).thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 1L));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> orderService.updateOrderStatus(1L, OrderStatus.CANCELED));
+
+        verify(orderRepository, times(1)).save(any());
+    }
+
     @Test
     @DisplayName("Deve atualizar os itens de um pedido com sucesso, com usuário ADMIN")
     void updateItens_Admin() {
@@ -731,8 +1010,8 @@ public class OrderServicesTest {
         Set<OrderItem> novosItens = Set.of(orderItem);
 
         when(orderRepository.findById(2L)).thenReturn(Optional.of(orderDois));
-        when(productRepository.findById(orderItem.getProduct().getId()))
-                .thenReturn(Optional.of(orderItem.getProduct()));
+        when(productRepository.findAllById(List.of(orderItem.getProduct().getId())))
+                .thenReturn(List.of(orderItem.getProduct()));
         when(orderRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         Order result = orderService.updateOrderItems(2L, novosItens, SecurityContextHolder.getContext().getAuthentication());
@@ -774,14 +1053,14 @@ public class OrderServicesTest {
         existingOrder.setClient(user);
 
         when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
-        when(productRepository.findById(nonExistentProductId)).thenReturn(Optional.empty());
+        when(productRepository.findAllById(List.of(nonExistentProductId))).thenReturn(List.of());
 
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
             orderService.updateOrderItems(1L, novosItens, SecurityContextHolder.getContext().getAuthentication());
         });
 
         assertEquals("Produto não encontrado: ID " + nonExistentProductId, exception.getMessage());
-        verify(productRepository).findById(nonExistentProductId);
+        verify(productRepository).findAllById(List.of(nonExistentProductId));
     }
 
     @ParameterizedTest
@@ -801,7 +1080,7 @@ public class OrderServicesTest {
         Set<OrderItem> newItems = Set.of(newItem);
 
         when(orderRepository.findById(2L)).thenReturn(Optional.of(finalizedOrder));
-        lenient().when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        lenient().when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
 
         // Act & Assert
         assertThrows(OrderStatusConflictException.class,
@@ -820,7 +1099,7 @@ public class OrderServicesTest {
     @DisplayName("Deve remover produto de um order com sucesso")
     void removeProduct() {
         // Arrange
-        order.getItems().add(orderItem);
+        order.addItem(orderItem);
         when(orderRepository.findById(order.getId())).thenReturn(Optional.of(order));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
 
@@ -829,6 +1108,8 @@ public class OrderServicesTest {
 
         // Assert
         assertTrue(resultado.getItems().isEmpty());
+        assertEquals(0.0, resultado.getTotal());
+        assertEquals(0, resultado.getItemCount());
         verify(orderRepository).save(order);
     }
 
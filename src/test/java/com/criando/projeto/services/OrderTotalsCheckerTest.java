@@ -0,0 +1,87 @@
+package com.criando.projeto.services;
+
+import com.criando.projeto.dto.OrderTotals;
+import com.criando.projeto.dto.OrderTotalsReport;
+import com.criando.projeto.repositories.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderTotalsCheckerTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderTotalsChecker checker;
+
+    @BeforeEach
+    void setUp() {
+        checker = new OrderTotalsChecker(orderRepository, transactionManager, 2);
+    }
+
+    private OrderTotals consistente(long id) {
+        return new OrderTotals(id, 0L, 1000L, 900L, 2, 1000L, 2L, 10.0);
+    }
+
+    @Test
+    @DisplayName("Deve percorrer todos os lotes e corrigir só os pedidos divergentes")
+    void check_CorrigeDivergentes() {
+        // Pedido 2: total gravado sem o desconto do cupom; pedido 3: sem itens mas com total gravado
+        OrderTotals semDesconto = new OrderTotals(2L, 4L, 1000L, 1000L, 2, 1000L, 2L, 10.0);
+        OrderTotals semItens = new OrderTotals(3L, 1L, 500L, 500L, 1, null, null, null);
+        when(orderRepository.findTotalsAfter(0L, Limit.of(2))).thenReturn(List.of(consistente(1L), semDesconto));
+        when(orderRepository.findTotalsAfter(2L, Limit.of(2))).thenReturn(List.of(semItens));
+        when(orderRepository.updateTotals(anyLong(), anyLong(), anyLong(), anyLong(), anyInt())).thenReturn(1);
+
+        OrderTotalsReport report = checker.check();
+
+        assertThat(report.checked()).isEqualTo(3);
+        assertThat(report.drifted()).isEqualTo(2);
+        assertThat(report.driftedIds()).containsExactly(2L, 3L);
+        verify(orderRepository).updateTotals(2L, 4L, 1000L, 900L, 2);
+        verify(orderRepository).updateTotals(3L, 1L, 0L, 0L, 0);
+        verify(orderRepository, never()).updateTotals(eq(1L), anyLong(), anyLong(), anyLong(), anyInt());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Deve parar quando não houver pedidos")
+    void check_SemPedidos() {
+        when(orderRepository.findTotalsAfter(0L, Limit.of(2))).thenReturn(List.of());
+
+        OrderTotalsReport report = checker.check();
+
+        assertThat(report.checked()).isZero();
+        assertThat(report.drifted()).isZero();
+        verify(orderRepository, never()).updateTotals(anyLong(), anyLong(), anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Não deve contar como corrigido o pedido alterado depois da leitura")
+    void check_PedidoAlteradoDuranteConferencia() {
+        OrderTotals semDesconto = new OrderTotals(2L, 4L, 1000L, 1000L, 2, 1000L, 2L, 10.0);
+        when(orderRepository.findTotalsAfter(0L, Limit.of(2))).thenReturn(List.of(semDesconto));
+        // Outra transação gravou o pedido: a versão 4 lida não existe mais e o UPDATE não acha a linha
+        when(orderRepository.updateTotals(2L, 4L, 1000L, 900L, 2)).thenReturn(0);
+
+        OrderTotalsReport report = checker.check();
+
+        assertThat(report.checked()).isEqualTo(1);
+        assertThat(report.drifted()).isZero();
+        assertThat(report.driftedIds()).isEmpty();
+    }
+}
@@ -0,0 +1,183 @@
+package com.criando.projeto.services;
+
+import com.criando.projeto.dto.ProductCategoryLink;
+import com.criando.projeto.dto.ProductFacets;
+import com.criando.projeto.dto.ProductText;
+import com.criando.projeto.entities.Category;
+import com.criando.projeto.entities.Product;
+import com.criando.projeto.repositories.CategoryRepository;
+import com.criando.projeto.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private ProductSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ProductSearchIndex(productRepository, categoryRepository, 2, 2);
+    }
+
+    @Test
+    @DisplayName("Não deve responder antes de o índice ser montado (o filtro usa as Specifications)")
+    void notReady() {
+        assertThat(searchIndex.isReady()).isFalse();
+        assertThat(searchIndex.findIds("Notebook", null, null, null, null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve montar o índice lendo os produtos e suas categorias em páginas por id")
+    void rebuild() {
+        when(categoryRepository.findAll()).thenReturn(List.of(new Category(1L, "Eletrônicos"), new Category(2L, "Livros")));
+        when(productRepository.findTextsAfter(eq(0L), any(Limit.class))).thenReturn(List.of(
+                new ProductText(1L, "Notebook", "Notebook potente", 350000L),
+                new ProductText(2L, "Smartphone", "Celular moderno", 250000L)));
+        when(productRepository.findCategoryLinks(0L, 2L)).thenReturn(List.of(
+                new ProductCategoryLink(1L, 1L), new ProductCategoryLink(2L, 1L)));
+        when(productRepository.findTextsAfter(eq(2L), any(Limit.class))).thenReturn(List.of(
+                new ProductText(3L, "Livro sobre notebook", "Capa dura", 9000L)));
+        when(productRepository.findCategoryLinks(2L, 3L)).thenReturn(List.of(new ProductCategoryLink(3L, 2L)));
+
+        searchIndex.rebuild();
+
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(searchIndex.findIds("otebook", null, null, null, null)).contains(List.of(1L, 3L));
+        assertThat(searchIndex.findIds(null, "moderno", null, null, null)).contains(List.of(2L));
+        assertThat(searchIndex.findIds(null, null, "Eletr", null, null)).contains(List.of(1L, 2L));
+        assertThat(searchIndex.findIds(null, null, null, 100000L, 300000L)).contains(List.of(2L));
+        verify(productRepository, times(2)).findTextsAfter(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("Deve intersectar os filtros de texto, categoria e preço")
+    void findIds_Intersection() {
+        searchIndex.rebuild();
+        Category moveis = new Category(1L, "Móveis");
+        Category escritorio = new Category(2L, "Escritório");
+        searchIndex.putCategory(moveis);
+        searchIndex.putCategory(escritorio);
+        searchIndex.putProduct(product(10L, "Mesa de jantar", 800.0, moveis));
+        searchIndex.putProduct(product(11L, "Mesa de escritório", 450.0, moveis, escritorio));
+        searchIndex.putProduct(product(12L, "Cadeira de escritório", 300.0, escritorio));
+
+        assertThat(searchIndex.findIds("Mesa", null, "Escrit", null, null)).contains(List.of(11L));
+        assertThat(searchIndex.findIds("Mesa", null, null, null, 500_00L)).contains(List.of(11L));
+        assertThat(searchIndex.findIds(null, null, "Escrit", 300_00L, 300_00L)).contains(List.of(12L));
+        assertThat(searchIndex.findIds("Sofá", null, "Móveis", null, null)).contains(List.of());
+    }
+
+    @Test
+    @DisplayName("Deve contar por categoria e faixa de preço os produtos do filtro, sem limite de ids")
+    void facets() {
+        searchIndex.rebuild();
+        Category moveis = new Category(1L, "Móveis");
+        Category escritorio = new Category(2L, "Escritório");
+        searchIndex.putCategory(moveis);
+        searchIndex.putCategory(escritorio);
+        searchIndex.putProduct(product(10L, "Mesa de jantar", 800.0, moveis));
+        searchIndex.putProduct(product(11L, "Mesa de escritório", 450.0, moveis, escritorio));
+        searchIndex.putProduct(product(12L, "Cadeira de escritório", 300.0, escritorio));
+
+        ProductFacets todos = searchIndex.facets(null, null, null, null, null, 500_00L).orElseThrow();
+        assertThat(todos.total()).isEqualTo(3);
+        assertThat(todos.categories()).containsExactly(
+                new ProductFacets.CategoryCount(1L, "Móveis", 2), new ProductFacets.CategoryCount(2L, "Escritório", 2));
+        assertThat(todos.prices()).containsExactly(
+                new ProductFacets.PriceBucket(0.0, 500.0, 2), new ProductFacets.PriceBucket(500.0, 1000.0, 1));
+
+        ProductFacets mesas = searchIndex.facets("Mesa", null, null, null, null, 500_00L).orElseThrow();
+        assertThat(mesas.total()).isEqualTo(2);
+        assertThat(mesas.categories()).containsExactly(
+                new ProductFacets.CategoryCount(1L, "Móveis", 2), new ProductFacets.CategoryCount(2L, "Escritório", 1));
+    }
+
+    @Test
+    @DisplayName("Deve refletir as escritas de produtos e categorias")
+    void incrementalUpdates() {
+        searchIndex.rebuild();
+        Category moveis = new Category(5L, "Móveis");
+        searchIndex.putCategory(moveis);
+
+        Product product = product(10L, "Cadeira", 100.0, moveis);
+        searchIndex.putProduct(product);
+        assertThat(searchIndex.findIds("Cadeira", null, "Móveis", null, null)).contains(List.of(10L));
+
+        product.setName("Poltrona");
+        product.setPrice(200.0);
+        searchIndex.putProduct(product);
+        assertThat(searchIndex.findIds("Cadeira", null, null, null, null)).contains(List.of());
+        assertThat(searchIndex.findIds("Poltrona", null, null, 150_00L, null)).contains(List.of(10L));
+
+        searchIndex.removeProduct(10L);
+        assertThat(searchIndex.findIds("Poltrona", null, null, null, null)).contains(List.of());
+
+        searchIndex.removeCategory(5L);
+        assertThat(searchIndex.findIds(null, null, "Móveis", null, null)).contains(List.of());
+    }
+
+    @Test
+    @DisplayName("Uma busca concorrente não deve ver o produto meio atualizado (nome novo com preço antigo)")
+    void concurrentUpdates() throws Exception {
+        searchIndex.rebuild();
+        Product cadeira = product(10L, "Cadeira", 100.0);
+        Product poltrona = product(10L, "Poltrona", 200.0);
+        searchIndex.putProduct(cadeira);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            while (running.get()) {
+                searchIndex.putProduct(poltrona);
+                searchIndex.putProduct(cadeira);
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 5_000; i++) {
+                // Cadeira sempre custa 100 e Poltrona 200: nenhuma combinação das duas existe
+                assertThat(searchIndex.findIds("Cadeira", null, null, 200_00L, null)).contains(List.of());
+                assertThat(searchIndex.findIds("Poltrona", null, null, null, 100_00L)).contains(List.of());
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    @Test
+    @DisplayName("Não deve responder quando o resultado passa do limite do IN")
+    void tooManyIds() {
+        searchIndex.rebuild();
+        searchIndex.putProduct(new Product(1L, "Cabo USB", "", 10.0));
+        searchIndex.putProduct(new Product(2L, "Cabo HDMI", "", 20.0));
+        searchIndex.putProduct(new Product(3L, "Cabo de força", "", 30.0));
+
+        assertThat(searchIndex.findIds("Cabo", null, null, null, null)).isEmpty();
+        assertThat(searchIndex.findIds("Cabo", null, null, 15_00L, null)).contains(List.of(2L, 3L));
+    }
+
+    private static Product product(Long id, String name, double price, Category... categories) {
+        Product product = new Product(id, name, "", price);
+        product.getCategories().addAll(List.of(categories));
+        return product;
+    }
+}
@@ -1,9 +1,12 @@
 package com.criando.projeto.services;
 
+import com.criando.projeto.dto.ProductFacets;
 import com.criando.projeto.entities.Category;
 import com.criando.projeto.entities.Product;
+import com.criando.projeto.queryFIlters.ProductQueryFilter;
 import com.criando.projeto.repositories.CategoryRepository;
 import com.criando.projeto.repositories.ProductRepository;
+import com.criando.projeto.services.exceptions.InvalidQueryParameterException;
 import com.criando.projeto.services.exceptions.ResourceNotFoundException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,6 +14,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
 import java.util.*;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,6 +32,15 @@ class ProductServicesTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Spy
+    private CatalogCache catalogCache = new CatalogCache(100, 60, 500);
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Test
     @DisplayName("Deve retornar produto por ID")
     void findById() {
@@ -38,6 +52,105 @@ class ProductServicesTest {
         assertThat(result).isEqualTo(product);
     }
 
+    @Test
+    @DisplayName("Produto que sai do cache não deve abrir transação (nem pegar conexão do pool)")
+    void findById_CacheSemTransacao() {
+        Product product = new Product(1L, "Produto A", "Descrição A", 100.0);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        productServices.findById(1L);
+        productServices.findById(1L);
+
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Deve buscar o produto no banco uma única vez e servir as próximas leituras do cache")
+    void findById_Cache() {
+        Product product = new Product(1L, "Produto A", "Descrição A", 100.0);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        productServices.findById(1L);
+        Product result = productServices.findById(1L);
+
+        assertThat(result).isEqualTo(product);
+        verify(productRepository, times(1)).findById(1L);
+        assertThat(catalogCache.stats().get("products").hits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve usar o mesmo resultado em cache para filtros equivalentes e invalidar após atualizar um produto")
+    void findAll_CacheEInvalidacao() {
+        Product product = new Product(1L, "Produto A", "Descrição A", 100.0);
+        when(productRepository.findAll(ArgumentMatchers.<Specification<Product>>any())).thenReturn(List.of(product));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ProductQueryFilter filtro = new ProductQueryFilter();
+        filtro.setMinPrice(10.0);
+        filtro.setName("");
+        ProductQueryFilter equivalente = new ProductQueryFilter();
+        equivalente.setMinPrice(10.001);
+
+        productServices.findAll(filtro);
+        productServices.findAll(equivalente);
+        verify(productRepository, times(1)).findAll(ArgumentMatchers.<Specification<Product>>any());
+
+        Product alteracao = new Product(null, null, null, 80.0);
+        productServices.updatePartial(1L, alteracao);
+        productServices.findAll(filtro);
+
+        verify(productRepository, times(2)).findAll(ArgumentMatchers.<Specification<Product>>any());
+    }
+
+    @Test
+    @DisplayName("Deve contar as facetas pela Specification enquanto o índice não está pronto")
+    void facets_SemIndice() {
+        Category eletronicos = new Category(1L, "Eletrônicos");
+        Product notebook = new Product(1L, "Notebook", "Desc", 3500.0);
+        notebook.getCategories().add(eletronicos);
+        Product mouse = new Product(2L, "Mouse", "Desc", 80.0);
+        mouse.getCategories().add(eletronicos);
+        when(productRepository.findAll(ArgumentMatchers.<Specification<Product>>any())).thenReturn(List.of(notebook, mouse));
+
+        ProductFacets facets = productServices.facets(new ProductQueryFilter(), 1000.0);
+
+        assertThat(facets.total()).isEqualTo(2);
+        assertThat(facets.categories()).containsExactly(new ProductFacets.CategoryCount(1L, "Eletrônicos", 2));
+        assertThat(facets.prices()).containsExactly(
+                new ProductFacets.PriceBucket(0.0, 1000.0, 1), new ProductFacets.PriceBucket(3000.0, 4000.0, 1));
+    }
+
+    @Test
+    @DisplayName("Deve contar as facetas sem o índice mesmo com ids além do limite do int")
+    void facets_SemIndice_IdGrande() {
+        Category eletronicos = new Category(1L, "Eletrônicos");
+        Product notebook = new Product(5_000_000_000L, "Notebook", "Desc", 3500.0);
+        notebook.getCategories().add(eletronicos);
+        when(productRepository.findAll(ArgumentMatchers.<Specification<Product>>any())).thenReturn(List.of(notebook));
+
+        ProductFacets facets = productServices.facets(new ProductQueryFilter(), 1000.0);
+
+        assertThat(facets.total()).isEqualTo(1);
+        assertThat(facets.categories()).containsExactly(new ProductFacets.CategoryCount(1L, "Eletrônicos", 1));
+        assertThat(facets.prices()).containsExactly(new ProductFacets.PriceBucket(3000.0, 4000.0, 1));
+    }
+
+    @Test
+    @DisplayName("Deve recusar bucketSize zero ou que gere faixas de preço demais")
+    void facets_BucketSizeInvalido() {
+        ProductQueryFilter filtro = new ProductQueryFilter();
+        assertThatThrownBy(() -> productServices.facets(filtro, 0.0))
+                .isInstanceOf(InvalidQueryParameterException.class);
+
+        when(productSearchIndex.bucketCount(1L)).thenReturn(1_000_000L);
+        assertThatThrownBy(() -> productServices.facets(filtro, 0.01))
+                .isInstanceOf(InvalidQueryParameterException.class)
+                .hasMessageContaining("faixas de preço demais");
+        verifyNoInteractions(productRepository);
+    }
+
     @Test
     @DisplayName("Deve lançar exceção se produto não for encontrado")
     void findByIdException() {
@@ -63,6 +176,22 @@ class ProductServicesTest {
 
         assertThat(result.getCategories()).contains(category);
         verify(productRepository).save(product);
+        verify(productSearchIndex).putProduct(product);
+    }
+
+    @Test
+    @DisplayName("Deve resolver os filtros pelo índice de busca em vez do LIKE")
+    void findAll_SearchIndex() {
+        Product product = new Product(1L, "Notebook", "Desc", 100.0);
+        when(productSearchIndex.findIds("book", null, null, 50_00L, null)).thenReturn(Optional.of(List.of(1L)));
+        when(productRepository.findAll(ArgumentMatchers.<Specification<Product>>any())).thenReturn(List.of(product));
+
+        ProductQueryFilter filtro = new ProductQueryFilter();
+        filtro.setName("book");
+        filtro.setMinPrice(50.0);
+
+        assertThat(productServices.findAll(filtro)).containsExactly(product);
+        verify(productSearchIndex).findIds("book", null, null, 50_00L, null);
     }
 
     @Test
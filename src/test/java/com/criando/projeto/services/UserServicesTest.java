@@ -4,6 +4,7 @@ import com.criando.projeto.entities.User;
 import com.criando.projeto.entities.enums.UserRole;
 import com.criando.projeto.repositories.UserRepository;
 import com.criando.projeto.security.UserSecurity;
+import com.criando.projeto.security.VerifiedCredentialCache;
 import com.criando.projeto.services.exceptions.*;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +18,8 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.util.*;
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -39,6 +42,9 @@ class UserServicesTest {
 
     @Mock
     private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private VerifiedCredentialCache credentialCache;
     
     private static final Long NONEXISTENT_ID = 99L;
 
@@ -199,6 +205,34 @@ class UserServicesTest {
         verify(userRepository).deleteById(user.getId());
     }
 
+    @Test
+    @DisplayName("Deve remover as credenciais do cache ao deletar o usuário")
+    void delete_InvalidaCacheDeCredenciais() {
+        setAsDonoDoUsuario();
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        userServices.delete(user.getId());
+        verify(credentialCache).invalidate(user.getEmail());
+        verify(userRepository).deleteById(user.getId());
+    }
+
+    @Test
+    @DisplayName("Dentro de uma transação, as credenciais só devem sair do cache depois do commit")
+    void delete_InvalidaCacheSoDepoisDoCommit() {
+        setAsDonoDoUsuario();
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userServices.delete(user.getId());
+            verify(credentialCache, never()).invalidate(anyString());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            verify(credentialCache).invalidate(user.getEmail());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     @DisplayName("Deve permitir que ADMIN delete outro usuário")
     void delete_Admin() {
@@ -324,6 +358,25 @@ void deleteResourceNotFoundExceptionAdmin() {
         verify(userRepository).findById(id);
         verify(userRepository).save(user);
         verify(passwordEncoder).encode(updatedData.getPassword());
+        verify(credentialCache).invalidate("UserUm@gmail.com"); // email antigo
+        verify(credentialCache).invalidate("user2@example.com"); // nova senha
+    }
+
+    @Test
+    @DisplayName("Não deve mexer no cache de credenciais quando senha e email não mudam")
+    void updateUser_SemMudarCredenciais() {
+        Long id = 1L;
+        User updatedData = new User();
+        updatedData.setName("Novo Nome");
+        Authentication authentication = mock(Authentication.class);
+        setAsUser();
+
+        when(userRepository.findById(id)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        userServices.updatePatch(id, updatedData, authentication);
+
+        verifyNoInteractions(credentialCache);
     }
 
     @Test
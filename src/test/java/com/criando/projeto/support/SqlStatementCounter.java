@@ -0,0 +1,32 @@
+package com.criando.projeto.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Registra todo SQL que o Hibernate prepara, para os testes contarem quantas consultas uma requisição faz.
+// Ativar com a propriedade:
+// spring.jpa.properties.hibernate.session_factory.statement_inspector=com.criando.projeto.support.SqlStatementCounter
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        STATEMENTS.clear();
+    }
+
+    public static int count() {
+        return STATEMENTS.size();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+}
@@ -0,0 +1,96 @@
+package com.criando.projeto.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedTtlCacheTest {
+
+    // Relógio controlado pelo teste, para simular a passagem do tempo
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Test
+    @DisplayName("Deve contar hits e misses")
+    void get_ContaHitsEMisses() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, Duration.ofMinutes(1));
+        cache.put("a", 1);
+
+        assertThat(cache.get("a")).contains(1);
+        assertThat(cache.get("b")).isEmpty();
+
+        BoundedTtlCache.Stats stats = cache.stats();
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.hitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("Deve expirar entradas depois do TTL")
+    void get_ExpiraAposTtl() {
+        MutableClock clock = new MutableClock();
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, Duration.ofMinutes(5), clock);
+        cache.put("a", 1);
+
+        clock.advance(Duration.ofMinutes(4));
+        assertThat(cache.get("a")).contains(1);
+
+        clock.advance(Duration.ofMinutes(1));
+        assertThat(cache.get("a")).isEmpty();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve descartar a entrada menos usada quando atingir o tamanho máximo")
+    void put_RespeitaTamanhoMaximo() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(2, Duration.ofMinutes(1));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a"); // "b" passa a ser a menos usada
+        cache.put("c", 3);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(cache.get("a")).contains(1);
+        assertThat(cache.get("c")).contains(3);
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Não deve contar como hit quando a condição não é atendida")
+    void getIf_CondicaoFalsa() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, Duration.ofMinutes(1));
+        cache.put("a", 1);
+
+        assertThat(cache.getIf("a", v -> v == 2)).isEmpty();
+        assertThat(cache.stats().misses()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+}
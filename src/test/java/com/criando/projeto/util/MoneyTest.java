@@ -0,0 +1,36 @@
+package com.criando.projeto.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MoneyTest {
+
+    @Test
+    @DisplayName("Deve converter reais para centavos arredondando meio centavo para cima")
+    void toCents() {
+        assertThat(Money.toCents(90.5)).isEqualTo(9050L);
+        assertThat(Money.toCents(100.99)).isEqualTo(10099L);
+        assertThat(Money.toCents(2.675)).isEqualTo(268L);
+        assertThat(Money.toCents(0.004)).isZero();
+        assertThat(Money.toCentsOrNull(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve converter centavos para reais")
+    void toDouble() {
+        assertThat(Money.toDouble(9050L)).isEqualTo(90.5);
+        assertThat(Money.toDouble(10099L)).isEqualTo(100.99);
+        assertThat(Money.toDoubleOrNull(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve aplicar o desconto percentual truncando no centavo")
+    void applyDiscount() {
+        assertThat(Money.applyDiscount(820L, 10.0)).isEqualTo(738L);
+        assertThat(Money.applyDiscount(999L, 12.5)).isEqualTo(874L); // 874,125 -> 874
+        assertThat(Money.applyDiscount(5000L, 100.0)).isZero();
+        assertThat(Money.applyDiscount(0L, 50.0)).isZero();
+    }
+}
@@ -0,0 +1,67 @@
+package com.criando.projeto.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceRangeIndexTest {
+
+    @Test
+    @DisplayName("Deve encontrar os ids na faixa de preço, com limites inclusivos e abertos")
+    void between() {
+        PriceRangeIndex index = new PriceRangeIndex();
+        index.put(1, 1000L);
+        index.put(2, 2500L);
+        index.put(3, 5000L);
+        index.put(4, 2500L);
+
+        assertThat(index.between(2500L, 5000L).toArray()).containsExactly(2, 3, 4);
+        assertThat(index.between(null, 2499L).toArray()).containsExactly(1);
+        assertThat(index.between(5001L, null).toArray()).isEmpty();
+        assertThat(index.between(null, null).toArray()).containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    @DisplayName("Deve refletir mudanças de preço e remoções, antes e depois da compactação")
+    void putAndRemove() {
+        PriceRangeIndex index = new PriceRangeIndex();
+        IntStream.range(0, 3000).forEach(id -> index.put(id, id * 10L)); // passa do limite e compacta
+
+        index.put(5, 99_999L);
+        index.remove(6);
+
+        assertThat(index.between(50L, 70L).toArray()).containsExactly(7);
+        assertThat(index.between(99_999L, null).toArray()).containsExactly(5);
+        assertThat(index.size()).isEqualTo(2999);
+    }
+
+    @Test
+    @DisplayName("Deve dar o mesmo resultado que filtrar todos os preços um a um")
+    void between_SameAsScan() {
+        PriceRangeIndex index = new PriceRangeIndex();
+        long[] prices = new long[5000];
+        Random random = new Random(42);
+        for (int id = 0; id < prices.length; id++) {
+            prices[id] = random.nextInt(10_000);
+            index.put(id, prices[id]);
+        }
+        for (int id = 0; id < prices.length; id += 7) {
+            prices[id] = random.nextInt(10_000);
+            index.put(id, prices[id]);
+        }
+
+        int[] expected = IntStream.range(0, prices.length)
+                .filter(id -> prices[id] >= 2000 && prices[id] <= 3000)
+                .toArray();
+        assertThat(index.between(2000L, 3000L).toArray()).containsExactly(expected);
+        // Faixa com a maior parte dos preços: sai do baseIds tirando o que ficou de fora
+        int[] wide = IntStream.range(0, prices.length)
+                .filter(id -> prices[id] >= 1000 && prices[id] <= 9000)
+                .toArray();
+        assertThat(index.between(1000L, 9000L).toArray()).containsExactly(wide);
+    }
+}
@@ -0,0 +1,150 @@
+package com.criando.projeto.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductColumnsTest {
+
+    @Test
+    @DisplayName("Deve contar produtos por categoria e por faixa de preço numa passada")
+    void count() {
+        ProductColumns columns = new ProductColumns();
+        columns.put(1, 5_00L, List.of(10L));
+        columns.put(2, 15_00L, List.of(10L, 20L));
+        columns.put(3, 19_99L, List.of(20L));
+        columns.put(4, null, List.of(30L));
+
+        ProductColumns.Counts counts = columns.count(null, 10_00L);
+
+        assertThat(counts.total()).isEqualTo(4);
+        assertThat(counts.byCategory()).isEqualTo(Map.of(10L, 2L, 20L, 2L, 30L, 1L));
+        assertThat(counts.byPriceBucket()).containsExactly(Map.entry(0L, 1L), Map.entry(10_00L, 2L));
+    }
+
+    @Test
+    @DisplayName("Deve contar só os produtos do filtro")
+    void count_Matches() {
+        ProductColumns columns = new ProductColumns();
+        columns.put(1, 5_00L, List.of(10L));
+        columns.put(2, 15_00L, List.of(20L));
+
+        ProductColumns.Counts counts = columns.count(RoaringBitmap.bitmapOf(2), 10_00L);
+
+        assertThat(counts.total()).isEqualTo(1);
+        assertThat(counts.byCategory()).isEqualTo(Map.of(20L, 1L));
+        assertThat(counts.byPriceBucket()).containsExactly(Map.entry(10_00L, 1L));
+    }
+
+    @Test
+    @DisplayName("Deve refletir atualizações e remoções, mantendo as categorias quando não informadas")
+    void putAndRemove() {
+        ProductColumns columns = new ProductColumns();
+        columns.put(1, 5_00L, List.of(10L));
+        columns.put(2, 5_00L, List.of(10L));
+
+        columns.put(1, 25_00L, null);
+        columns.remove(2);
+
+        ProductColumns.Counts counts = columns.count(RoaringBitmap.bitmapOf(1, 2), 10_00L);
+        assertThat(counts.total()).isEqualTo(1);
+        assertThat(counts.byCategory()).isEqualTo(Map.of(10L, 1L));
+        assertThat(counts.byPriceBucket()).containsExactly(Map.entry(20_00L, 1L));
+        assertThat(columns.bucketCount(10_00L)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve recalcular o maior preço quando o produto mais caro sai ou fica mais barato")
+    void bucketCount_MaiorPrecoRecalculado() {
+        ProductColumns columns = new ProductColumns();
+        columns.put(1, 5_00L, List.of(10L));
+        columns.put(2, 1_000_000_00L, List.of(10L));
+        columns.put(3, 900_00L, List.of(10L));
+        assertThat(columns.bucketCount(10_00L)).isEqualTo(100_001);
+
+        columns.remove(2);
+        assertThat(columns.bucketCount(10_00L)).isEqualTo(91);
+
+        columns.put(3, 25_00L, null);
+        assertThat(columns.bucketCount(10_00L)).isEqualTo(3);
+
+        columns.put(1, null, null);
+        assertThat(columns.bucketCount(10_00L)).isEqualTo(3);
+        assertThat(columns.count(null, 10_00L).byPriceBucket()).containsExactly(Map.entry(20_00L, 1L));
+    }
+
+    @Test
+    @DisplayName("Ids esparsos e próximos de Integer.MAX_VALUE devem ocupar só uma linha cada")
+    void put_IdsEsparsos() {
+        ProductColumns columns = new ProductColumns();
+        columns.put(Integer.MAX_VALUE, 5_00L, List.of(10L));
+        columns.put(2_000_000_000, 15_00L, List.of(20L));
+        columns.put(7, 25_00L, List.of(10L));
+
+        // Sai a primeira linha: a última (id 7) vai para o lugar dela
+        columns.remove(Integer.MAX_VALUE);
+        columns.put(7, 35_00L, null);
+
+        ProductColumns.Counts counts = columns.count(null, 10_00L);
+        assertThat(counts.total()).isEqualTo(2);
+        assertThat(counts.byCategory()).isEqualTo(Map.of(10L, 1L, 20L, 1L));
+        assertThat(counts.byPriceBucket()).containsExactly(Map.entry(10_00L, 1L), Map.entry(30_00L, 1L));
+        assertThat(columns.count(RoaringBitmap.bitmapOf(7), 10_00L).byCategory()).isEqualTo(Map.of(10L, 1L));
+    }
+
+    @Test
+    @DisplayName("Deve dar as mesmas contagens que um mapa comum depois de muitas inclusões e remoções")
+    void putAndRemove_SameAsMap() {
+        ProductColumns columns = new ProductColumns();
+        Map<Integer, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(5_000) * 1_000;
+            if (random.nextInt(3) == 0) {
+                columns.remove(id);
+                expected.remove(id);
+            } else {
+                long price = random.nextInt(100) * 1_00L;
+                columns.put(id, price, List.of(price % 7));
+                expected.put(id, price);
+            }
+        }
+
+        ProductColumns.Counts counts = columns.count(null, 10_00L);
+
+        assertThat(counts.total()).isEqualTo(expected.size());
+        Map<Long, Long> byCategory = new HashMap<>();
+        TreeMap<Long, Long> byPriceBucket = new TreeMap<>();
+        for (long price : expected.values()) {
+            byCategory.merge(price % 7, 1L, Long::sum);
+            byPriceBucket.merge(price / 10_00L * 10_00L, 1L, Long::sum);
+        }
+        assertThat(counts.byCategory()).isEqualTo(byCategory);
+        assertThat(counts.byPriceBucket()).isEqualTo(byPriceBucket);
+    }
+
+    @Test
+    @DisplayName("Deve aceitar mais de 64 categorias (máscara com mais de um long por produto)")
+    void count_ManyCategories() {
+        ProductColumns columns = new ProductColumns();
+        columns.put(1, 5_00L, List.of(1L, 2L));
+        for (long category = 3; category <= 130; category++) {
+            columns.put((int) category, 5_00L, List.of(category, 1L));
+        }
+
+        ProductColumns.Counts counts = columns.count(null, 10_00L);
+
+        assertThat(counts.byCategory()).hasSize(130);
+        assertThat(counts.byCategory().get(1L)).isEqualTo(129L);
+        assertThat(counts.byCategory().get(2L)).isEqualTo(1L);
+        assertThat(counts.byCategory().get(130L)).isEqualTo(1L);
+    }
+}
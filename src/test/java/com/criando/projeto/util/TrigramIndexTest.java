@@ -0,0 +1,95 @@
+package com.criando.projeto.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    @Test
+    @DisplayName("Deve encontrar os textos que contêm o termo, como o LIKE '%termo%'")
+    void search() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "Notebook Gamer");
+        index.put(2L, "Mochila para notebook");
+        index.put(3L, "Smartphone");
+
+        assertThat(index.search("book")).containsExactly(1L, 2L);
+        assertThat(index.search("Notebook")).containsExactly(1L);
+        assertThat(index.search("phone")).containsExactly(3L);
+        assertThat(index.search("Tablet")).isEmpty();
+        assertThat(index.search("")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve confirmar cada candidato: ter todos os trigramas não basta")
+    void search_NoFalsePositives() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "abcd bcde"); // tem os trigramas de "abcde", mas não a sequência
+
+        assertThat(index.search("abcde")).isEmpty();
+        assertThat(index.search("abcd")).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Deve buscar termos com menos de 3 caracteres percorrendo os textos")
+    void search_ShortTerm() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "TV");
+        index.put(2L, "Cabo HDMI");
+        index.put(3L, "Suporte TV");
+
+        assertThat(index.search("TV")).containsExactly(1L, 3L);
+        assertThat(index.search("o")).containsExactly(2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Deve refletir atualizações e remoções")
+    void putAndRemove() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "Cadeira");
+        index.put(2L, "Mesa");
+
+        index.put(1L, "Poltrona");
+        index.remove(2L);
+
+        assertThat(index.search("Cadeira")).isEmpty();
+        assertThat(index.search("Poltrona")).containsExactly(1L);
+        assertThat(index.search("Mesa")).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve diferenciar maiúsculas de minúsculas")
+    void search_CaseSensitive() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "Mochila");
+
+        assertThat(index.search("mochila")).isEmpty();
+        assertThat(index.search("Mochila")).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Deve compactar os documentos removidos em vez de acumulá-los a cada atualização")
+    void put_CompactaRemovidos() {
+        TrigramIndex index = new TrigramIndex();
+        for (long key = 1; key <= 100; key++) {
+            index.put(key, "Produto " + key);
+        }
+
+        // Cada atualização deixa um documento removido para trás
+        for (int i = 0; i < 10_000; i++) {
+            index.put(1L + i % 100, (i % 2 == 0 ? "Mesa " : "Cadeira ") + i);
+        }
+
+        assertThat(index.documentCount()).isLessThan(100 + 1024 + 100);
+        assertThat(index.size()).isEqualTo(100);
+        // Últimas versões: i de 9900 a 9999, pares "Mesa", ímpares "Cadeira"
+        assertThat(index.search("Mesa 9998")).containsExactly(99L);
+        assertThat(index.search("Cadeira 9999")).containsExactly(100L);
+        assertThat(index.search("Mesa")).hasSize(50);
+        assertThat(index.search("Produto")).isEmpty();
+        assertThat(index.search("a")).hasSize(100);
+    }
+}